@@ -0,0 +1,203 @@
+package org.blinemedical.examination.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.TimeGrain;
+import org.blinemedical.examination.persistence.MeetingSchedulingGenerator;
+import org.blinemedical.examination.persistence.MeetingSchedulingXlsxFileIO;
+import org.blinemedical.examination.solver.ScoreDirectorType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+
+/**
+ * Measures how many moves per second each score director evaluates, like a local search step
+ * does: do the move, calculate the score and undo the move. Every fork replays the same seeded
+ * sequence of change and swap moves on the same generated dataset, so the numbers can be
+ * compared between releases. The dataset is read back from XLSX like the FAKE-* files, so every
+ * meeting has its own attendance per person.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar} and add {@code -prof gc} for the allocation
+ * rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+public class ScoreDirectorBenchmark {
+
+    private static final int MOVE_COUNT = 1000;
+    private static final long SEED = 37L;
+
+    private static final Pattern DATASET_PATTERN = Pattern.compile(
+        "FAKE-(\\d+)L-(\\d+)SC-(\\d+)SP-(\\d+)R");
+    private static final Instant START_TIME = Instant.parse("2020-12-18T08:00:00.00Z");
+    private static final int TIME_GRAIN_LIST_SIZE = 8;
+    private static final int DURATION_IN_GRAINS = 1;
+
+    /**
+     * The same sizes as {@link MeetingSchedulingGenerator#main(String[])} writes.
+     */
+    @Param({"FAKE-2L-2SC-2SP-1R", "FAKE-7L-3SC-2SP-5R", "FAKE-10L-4SC-3SP-6R",
+        "FAKE-15L-4SC-4SP-7R", "FAKE-20L-5SC-4SP-10R", "FAKE-30L-6SC-5SP-15R"})
+    public String dataset;
+
+    @Param({"DRL", "CONSTRAINT_STREAMS", "INCREMENTAL"})
+    public ScoreDirectorType scoreDirectorType;
+
+    private InnerScoreDirector<MeetingSchedule, HardMediumSoftScore> scoreDirector;
+    private List<MeetingAssignment> meetingAssignmentList;
+
+    // The fixed move sequence, a swap move has a rightIndex, a change move has -1
+    private int[] leftIndexes;
+    private int[] rightIndexes;
+    private TimeGrain[] toTimeGrains;
+    private Room[] toRooms;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MeetingSchedule meetingSchedule = createMeetingSchedule(dataset);
+        Random random = new Random(SEED);
+        meetingAssignmentList = meetingSchedule.getMeetingAssignmentList();
+        List<Room> roomList = meetingSchedule.getRoomList();
+        for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+            meetingAssignment.setStartingTimeGrain(pickTimeGrain(random, meetingAssignment));
+            meetingAssignment.setRoom(roomList.get(random.nextInt(roomList.size())));
+        }
+
+        leftIndexes = new int[MOVE_COUNT];
+        rightIndexes = new int[MOVE_COUNT];
+        toTimeGrains = new TimeGrain[MOVE_COUNT];
+        toRooms = new Room[MOVE_COUNT];
+        int size = meetingAssignmentList.size();
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            leftIndexes[i] = random.nextInt(size);
+            if (size > 1 && random.nextBoolean()) {
+                rightIndexes[i] = random.nextInt(size);
+            } else {
+                rightIndexes[i] = -1;
+                toTimeGrains[i] = pickTimeGrain(random, meetingAssignmentList.get(leftIndexes[i]));
+                toRooms[i] = roomList.get(random.nextInt(roomList.size()));
+            }
+        }
+
+        scoreDirector = scoreDirectorType.buildScoreDirectorFactory()
+            .buildScoreDirector(false, false);
+        scoreDirector.setWorkingSolution(meetingSchedule);
+        scoreDirector.calculateScore();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scoreDirector.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVE_COUNT)
+    public void doMoves(Blackhole blackhole) {
+        for (int i = 0; i < MOVE_COUNT; i++) {
+            MeetingAssignment left = meetingAssignmentList.get(leftIndexes[i]);
+            if (rightIndexes[i] < 0) {
+                TimeGrain oldTimeGrain = left.getStartingTimeGrain();
+                Room oldRoom = left.getRoom();
+                change(left, toTimeGrains[i], toRooms[i]);
+                blackhole.consume(scoreDirector.calculateScore());
+                change(left, oldTimeGrain, oldRoom);
+            } else {
+                MeetingAssignment right = meetingAssignmentList.get(rightIndexes[i]);
+                swap(left, right);
+                blackhole.consume(scoreDirector.calculateScore());
+                swap(left, right);
+            }
+        }
+    }
+
+    // ************************************************************************
+    // Helper methods
+    // ************************************************************************
+
+    private void change(MeetingAssignment meetingAssignment, TimeGrain timeGrain, Room room) {
+        scoreDirector.beforeVariableChanged(meetingAssignment, "startingTimeGrain");
+        meetingAssignment.setStartingTimeGrain(timeGrain);
+        scoreDirector.afterVariableChanged(meetingAssignment, "startingTimeGrain");
+        scoreDirector.beforeVariableChanged(meetingAssignment, "room");
+        meetingAssignment.setRoom(room);
+        scoreDirector.afterVariableChanged(meetingAssignment, "room");
+        scoreDirector.triggerVariableListeners();
+    }
+
+    private void swap(MeetingAssignment left, MeetingAssignment right) {
+        TimeGrain leftTimeGrain = left.getStartingTimeGrain();
+        Room leftRoom = left.getRoom();
+        change(left, right.getStartingTimeGrain(), right.getRoom());
+        change(right, leftTimeGrain, leftRoom);
+    }
+
+    private static TimeGrain pickTimeGrain(Random random, MeetingAssignment meetingAssignment) {
+        List<TimeGrain> startingTimeGrainRange = meetingAssignment.getStartingTimeGrainRange();
+        return startingTimeGrainRange.get(random.nextInt(startingTimeGrainRange.size()));
+    }
+
+    /**
+     * The generator shares one attendance per person between meetings, the XLSX reader gives every
+     * meeting its own, like the solver sees in production.
+     */
+    private static MeetingSchedule createMeetingSchedule(String dataset) {
+        Matcher matcher = DATASET_PATTERN.matcher(dataset);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("The dataset (" + dataset
+                + ") does not match the pattern (" + DATASET_PATTERN + ").");
+        }
+        // Nothing is written by the generator, so the output directory does not need to exist
+        MeetingSchedulingGenerator generator = new MeetingSchedulingGenerator(
+            new File("target"));
+        MeetingSchedule generatedSchedule = generator.createMeetingSchedule(dataset,
+            Integer.parseInt(matcher.group(1)),
+            Integer.parseInt(matcher.group(2)),
+            Integer.parseInt(matcher.group(3)),
+            START_TIME,
+            TIME_GRAIN_LIST_SIZE,
+            Integer.parseInt(matcher.group(4)),
+            DURATION_IN_GRAINS);
+        MeetingSchedulingXlsxFileIO solutionFileIO = new MeetingSchedulingXlsxFileIO();
+        File file = null;
+        try {
+            file = File.createTempFile(dataset + "-",
+                MeetingSchedulingXlsxFileIO.LIGHTWEIGHT_FILE_NAME_SUFFIX);
+            solutionFileIO.write(generatedSchedule, file);
+            return solutionFileIO.read(file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed creating a temporary file for the dataset ("
+                + dataset + ").", e);
+        } finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+}
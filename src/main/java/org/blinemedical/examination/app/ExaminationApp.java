@@ -1,6 +1,8 @@
 package org.blinemedical.examination.app;
 
 import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.persistence.MeetingSchedulingBinaryFileIO;
+import org.blinemedical.examination.persistence.MeetingSchedulingJsonFileIO;
 import org.blinemedical.examination.persistence.MeetingSchedulingXlsxFileIO;
 import org.blinemedical.examination.swingui.MeetingSchedulingPanel;
 import org.optaplanner.examples.common.app.CommonApp;
@@ -13,6 +15,13 @@ public class ExaminationApp extends CommonApp<MeetingSchedule> {
 
     public static final String DATA_DIR_NAME = "examination";
 
+    /**
+     * Set to {@code binary} to open and save the {@link MeetingSchedulingBinaryFileIO} snapshots,
+     * or to {@code json} for the {@link MeetingSchedulingJsonFileIO} files, instead of the XLSX
+     * files.
+     */
+    public static final String SOLUTION_FILE_IO_PROPERTY = "examination.solutionFileIO";
+
     public ExaminationApp() {
         super("Examination Schedule Solver",
             "Creates an exam schedule for SPs and learners",
@@ -33,6 +42,23 @@ public class ExaminationApp extends CommonApp<MeetingSchedule> {
 
     @Override
     public SolutionFileIO<MeetingSchedule> createSolutionFileIO() {
-        return new MeetingSchedulingXlsxFileIO();
+        return createSolutionFileIO(System.getProperty(SOLUTION_FILE_IO_PROPERTY, "xlsx"));
+    }
+
+    /**
+     * @param solutionFileIO one of {@code xlsx}, {@code binary} or {@code json}
+     */
+    public static SolutionFileIO<MeetingSchedule> createSolutionFileIO(String solutionFileIO) {
+        switch (solutionFileIO) {
+            case "xlsx":
+                return new MeetingSchedulingXlsxFileIO();
+            case "binary":
+                return new MeetingSchedulingBinaryFileIO();
+            case "json":
+                return new MeetingSchedulingJsonFileIO();
+            default:
+                throw new IllegalArgumentException("The " + SOLUTION_FILE_IO_PROPERTY + " ("
+                    + solutionFileIO + ") is not one of xlsx, binary or json.");
+        }
     }
 }
@@ -0,0 +1,220 @@
+package org.blinemedical.examination.app;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.solver.MeetingScheduleWarmStart;
+import org.optaplanner.core.api.solver.SolverJob;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.SolverManagerConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.examples.common.app.CommonApp;
+import org.optaplanner.persistence.common.api.domain.solution.SolutionFileIO;
+
+/**
+ * Solves every unsolved file of a directory without a display, several at the same time, with one
+ * {@link SolverManager}. Each solved schedule is written to the output directory under the same
+ * name.
+ * <p>
+ * Usage: {@code ExaminationBatchApp [inputDir] [--outputDir=dir] [--timeLimit=PT5M]
+ * [--workers=n] [--moveThreadCount=NONE] [--solutionFileIO=xlsx] [--warmStart]
+ * [--pinBeforeGrain=n]}. The input directory defaults
+ * to {@code data/examination/unsolved} and the output directory to its sibling {@code solved}.
+ * The time limit applies to each job and defaults to the one of
+ * {@link ExaminationApp#SOLVER_CONFIG}. The workers default to the number of cores.
+ * <p>
+ * With {@code --warmStart}, a file that was solved before starts from its previous solution in the
+ * output directory. With {@code --pinBeforeGrain}, the meetings that start before the time grain
+ * with that index are pinned, for example {@code 12} with 8 grains a day keeps the meetings of the
+ * first day and the morning of the second day in place.
+ */
+public class ExaminationBatchApp {
+
+    private static final Logger logger = LogManager.getLogger(ExaminationBatchApp.class);
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        File inputDir = new File(CommonApp.determineDataDir(ExaminationApp.DATA_DIR_NAME),
+            "unsolved");
+        File outputDir = null;
+        Duration timeLimit = null;
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        // Every worker already has a core, so a job gets no move threads of its own by default
+        String moveThreadCount = SolverConfig.MOVE_THREAD_COUNT_NONE;
+        String solutionFileIOName = System.getProperty(ExaminationApp.SOLUTION_FILE_IO_PROPERTY,
+            "xlsx");
+        boolean warmStart = false;
+        Integer pinBeforeGrainIndex = null;
+        for (String arg : args) {
+            if (arg.startsWith("--outputDir=")) {
+                outputDir = new File(getOptionValue(arg));
+            } else if (arg.startsWith("--timeLimit=")) {
+                timeLimit = Duration.parse(getOptionValue(arg));
+            } else if (arg.startsWith("--workers=")) {
+                workerCount = Integer.parseInt(getOptionValue(arg));
+            } else if (arg.startsWith("--moveThreadCount=")) {
+                moveThreadCount = getOptionValue(arg);
+            } else if (arg.startsWith("--solutionFileIO=")) {
+                solutionFileIOName = getOptionValue(arg);
+            } else if (arg.equals("--warmStart")) {
+                warmStart = true;
+            } else if (arg.startsWith("--pinBeforeGrain=")) {
+                pinBeforeGrainIndex = Integer.parseInt(getOptionValue(arg));
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("The option (" + arg + ") is unknown.");
+            } else {
+                inputDir = new File(arg);
+            }
+        }
+        if (outputDir == null) {
+            outputDir = new File(inputDir.getParentFile(), "solved");
+        }
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("The workers (" + workerCount
+                + ") must be at least 1.");
+        }
+
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(
+            ExaminationApp.SOLVER_CONFIG);
+        solverConfig.setMoveThreadCount(moveThreadCount);
+        if (timeLimit != null) {
+            solverConfig.setTerminationConfig(new TerminationConfig()
+                .withSpentLimit(timeLimit));
+        }
+        SolverManagerConfig solverManagerConfig = new SolverManagerConfig()
+            .withParallelSolverCount(Integer.toString(workerCount));
+        SolutionFileIO<MeetingSchedule> solutionFileIO = ExaminationApp.createSolutionFileIO(
+            solutionFileIOName);
+
+        ExaminationBatchApp batchApp = new ExaminationBatchApp(solverConfig, solverManagerConfig,
+            solutionFileIO);
+        batchApp.setWarmStart(warmStart);
+        batchApp.setPinBeforeGrainIndex(pinBeforeGrainIndex);
+        int failedCount = batchApp.solveAll(inputDir, outputDir);
+        if (failedCount > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static String getOptionValue(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+
+    private final SolverConfig solverConfig;
+    private final SolverManagerConfig solverManagerConfig;
+    private final SolutionFileIO<MeetingSchedule> solutionFileIO;
+
+    private boolean warmStart = false;
+    private Integer pinBeforeGrainIndex = null;
+
+    public ExaminationBatchApp(SolverConfig solverConfig, SolverManagerConfig solverManagerConfig,
+        SolutionFileIO<MeetingSchedule> solutionFileIO) {
+        this.solverConfig = solverConfig;
+        this.solverManagerConfig = solverManagerConfig;
+        this.solutionFileIO = solutionFileIO;
+    }
+
+    public void setWarmStart(boolean warmStart) {
+        this.warmStart = warmStart;
+    }
+
+    /**
+     * @param pinBeforeGrainIndex null to pin nothing, see
+     * {@link MeetingScheduleWarmStart#pinPastAssignments(MeetingSchedule, int)}
+     */
+    public void setPinBeforeGrainIndex(Integer pinBeforeGrainIndex) {
+        this.pinBeforeGrainIndex = pinBeforeGrainIndex;
+    }
+
+    /**
+     * Blocks until every file is solved and written.
+     * @return the number of files that failed
+     */
+    public int solveAll(File inputDir, File outputDir) {
+        String inputFileSuffix = "." + solutionFileIO.getInputFileExtension();
+        File[] inputFiles = inputDir.listFiles(
+            (dir, name) -> name.endsWith(inputFileSuffix));
+        if (inputFiles == null) {
+            throw new IllegalArgumentException("The inputDir (" + inputDir
+                + ") is not a directory.");
+        }
+        Arrays.sort(inputFiles);
+        if (!outputDir.exists() && !outputDir.mkdirs()) {
+            throw new IllegalStateException("Failed creating the outputDir (" + outputDir + ").");
+        }
+        logger.info("Solving ({}) files of ({}) with ({}) workers.", inputFiles.length, inputDir,
+            solverManagerConfig.getParallelSolverCount());
+
+        AtomicInteger failedCount = new AtomicInteger();
+        try (SolverManager<MeetingSchedule, Long> solverManager = SolverManager.create(
+            solverConfig, solverManagerConfig)) {
+            List<SolverJob<MeetingSchedule, Long>> solverJobList = new ArrayList<>(
+                inputFiles.length);
+            for (int i = 0; i < inputFiles.length; i++) {
+                File inputFile = inputFiles[i];
+                File outputFile = new File(outputDir, getBaseName(inputFile, inputFileSuffix)
+                    + "." + solutionFileIO.getOutputFileExtension());
+                solverJobList.add(solverManager.solve((long) i,
+                    problemId -> {
+                        logger.info("Job ({}) reads ({}).", problemId, inputFile);
+                        return readProblem(inputFile, outputFile);
+                    },
+                    solution -> {
+                        solutionFileIO.write(solution, outputFile);
+                        logger.info("Saved: {} with score ({}).", outputFile,
+                            solution.getScore());
+                    },
+                    (problemId, throwable) -> {
+                        failedCount.incrementAndGet();
+                        logger.error("Job ({}) for ({}) failed.", problemId, inputFile,
+                            throwable);
+                    }));
+            }
+            for (SolverJob<MeetingSchedule, Long> solverJob : solverJobList) {
+                try {
+                    solverJob.getFinalBestSolution();
+                } catch (ExecutionException e) {
+                    // Already logged and counted by the exception handler
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for job ("
+                        + solverJob.getProblemId() + ").", e);
+                }
+            }
+        }
+        logger.info("Solved ({}) files, ({}) failed.", inputFiles.length - failedCount.get(),
+            failedCount.get());
+        return failedCount.get();
+    }
+
+    private MeetingSchedule readProblem(File inputFile, File outputFile) {
+        MeetingSchedule problem = solutionFileIO.read(inputFile);
+        if (warmStart && outputFile.exists()) {
+            MeetingSchedule previousSolution = solutionFileIO.read(outputFile);
+            int appliedCount = MeetingScheduleWarmStart.applyPreviousSolution(problem,
+                previousSolution);
+            logger.info("Warm started ({}) of ({}) meeting assignments from ({}).", appliedCount,
+                problem.getMeetingAssignmentList().size(), outputFile);
+        }
+        if (pinBeforeGrainIndex != null) {
+            int pinnedCount = MeetingScheduleWarmStart.pinPastAssignments(problem,
+                pinBeforeGrainIndex);
+            logger.info("Pinned ({}) meeting assignments that start before grain ({}).",
+                pinnedCount, pinBeforeGrainIndex);
+        }
+        return problem;
+    }
+
+    private static String getBaseName(File file, String suffix) {
+        String name = file.getName();
+        return name.substring(0, name.length() - suffix.length());
+    }
+}
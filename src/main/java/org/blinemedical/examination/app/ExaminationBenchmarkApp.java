@@ -0,0 +1,64 @@
+package org.blinemedical.examination.app;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+import org.optaplanner.benchmark.config.PlannerBenchmarkConfig;
+import org.optaplanner.benchmark.config.ProblemBenchmarksConfig;
+import org.optaplanner.examples.common.app.CommonApp;
+
+/**
+ * Runs the solver configurations of {@link #BENCHMARK_CONFIG} on the generated and Meteor datasets
+ * and opens the HTML report. Generate the datasets first with
+ * {@link org.blinemedical.examination.persistence.MeetingSchedulingGenerator} and
+ * {@link org.blinemedical.examination.persistence.MeteorDataGenerator}.
+ */
+public class ExaminationBenchmarkApp {
+
+    private static final Logger logger = LogManager.getLogger(ExaminationBenchmarkApp.class);
+
+    public static final String BENCHMARK_CONFIG =
+        "org/blinemedical/examination/benchmark/examinationBenchmarkConfig.xml";
+
+    public static void main(String[] args) {
+        PlannerBenchmarkConfig benchmarkConfig = PlannerBenchmarkConfig
+            .createFromXmlResource(BENCHMARK_CONFIG);
+        addUnsolvedDatasets(benchmarkConfig);
+        PlannerBenchmarkFactory.create(benchmarkConfig).buildPlannerBenchmark()
+            .benchmarkAndShowReportInBrowser();
+    }
+
+    /**
+     * Adds the datasets that are not in the config, such as the larger generated sizes and the
+     * Meteor exports, whose file names depend on the data.
+     */
+    private static void addUnsolvedDatasets(PlannerBenchmarkConfig benchmarkConfig) {
+        ProblemBenchmarksConfig problemBenchmarksConfig = benchmarkConfig
+            .getInheritedSolverBenchmarkConfig().getProblemBenchmarksConfig();
+        List<File> inputSolutionFileList = new ArrayList<>(
+            problemBenchmarksConfig.getInputSolutionFileList());
+        File unsolvedDir = new File(CommonApp.determineDataDir(ExaminationApp.DATA_DIR_NAME),
+            "unsolved");
+        File[] datasetFiles = unsolvedDir.listFiles((dir, name) ->
+            (name.startsWith("FAKE-") || name.startsWith("MET-")) && name.endsWith(".xlsx"));
+        if (datasetFiles == null) {
+            return;
+        }
+        Arrays.sort(datasetFiles, Comparator.comparingLong(File::length));
+        for (File datasetFile : datasetFiles) {
+            boolean configured = inputSolutionFileList.stream()
+                .anyMatch(inputSolutionFile -> inputSolutionFile.getName()
+                    .equals(datasetFile.getName()));
+            if (!configured) {
+                logger.info("Adding dataset ({}) to the benchmark.", datasetFile);
+                inputSolutionFileList.add(datasetFile);
+            }
+        }
+        problemBenchmarksConfig.setInputSolutionFileList(inputSolutionFileList);
+    }
+}
@@ -0,0 +1,504 @@
+package org.blinemedical.examination.app;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.persistence.MeetingSchedulingJsonFileIO;
+import org.blinemedical.examination.persistence.MeetingSchedulingXlsxFileIO;
+import org.optaplanner.core.api.solver.SolverManager;
+import org.optaplanner.core.api.solver.SolverStatus;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.SolverManagerConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+/**
+ * Solves schedules sent over HTTP in a long-lived JVM, so the solver factory is built once.
+ * <ul>
+ * <li>{@code POST /schedules} with a JSON ({@link MeetingSchedulingJsonFileIO}) or XLSX body
+ * queues a job and answers {@code 202} with its {@code jobId}, {@code 503} when the queue is
+ * full, or {@code 413} when the body is larger than {@code --maxUploadBytes}.</li>
+ * <li>{@code GET /schedules/{jobId}} answers the status, the best score so far and the
+ * assignments.</li>
+ * <li>{@code GET /schedules/{jobId}/solution} answers the best solution so far as JSON, or as
+ * XLSX with {@code ?format=xlsx}.</li>
+ * <li>{@code POST /schedules/{jobId}/stop} terminates the job early, keeping its best
+ * solution.</li>
+ * <li>{@code DELETE /schedules/{jobId}} terminates the job and forgets it.</li>
+ * </ul>
+ * Usage: {@code ExaminationSolveService [--host=localhost] [--port=8081] [--workers=n]
+ * [--queueSize=16] [--timeLimit=PT5M] [--jobTtl=PT1H] [--maxUploadBytes=52428800]}.
+ * <p>
+ * A job is forgotten {@code --jobTtl} after it ended, so download its solution before then.
+ * <p>
+ * The API has no authentication, so it only listens on the loopback interface unless
+ * {@code --host} names another address, for example {@code --host=0.0.0.0} for all interfaces.
+ */
+public class ExaminationSolveService {
+
+    private static final Logger logger = LogManager.getLogger(ExaminationSolveService.class);
+
+    public static final int DEFAULT_PORT = 8081;
+    public static final int DEFAULT_QUEUE_SIZE = 16;
+    public static final Duration DEFAULT_JOB_TTL = Duration.ofHours(1);
+    public static final long DEFAULT_MAX_UPLOAD_BYTES = 50L * 1024L * 1024L;
+
+    private static final String SCHEDULES_PATH = "/schedules";
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final String XLSX_CONTENT_TYPE =
+        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final int HTTP_THREAD_COUNT = 4;
+    private static final int RETRY_AFTER_SECONDS = 30;
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        String host = null;
+        int port = DEFAULT_PORT;
+        int workerCount = Runtime.getRuntime().availableProcessors();
+        int queueSize = DEFAULT_QUEUE_SIZE;
+        Duration timeLimit = null;
+        Duration jobTtl = DEFAULT_JOB_TTL;
+        long maxUploadBytes = DEFAULT_MAX_UPLOAD_BYTES;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--host=")) {
+                host = value;
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(value);
+            } else if (arg.startsWith("--workers=")) {
+                workerCount = Integer.parseInt(value);
+            } else if (arg.startsWith("--queueSize=")) {
+                queueSize = Integer.parseInt(value);
+            } else if (arg.startsWith("--timeLimit=")) {
+                timeLimit = Duration.parse(value);
+            } else if (arg.startsWith("--jobTtl=")) {
+                jobTtl = Duration.parse(value);
+            } else if (arg.startsWith("--maxUploadBytes=")) {
+                maxUploadBytes = Long.parseLong(value);
+            } else {
+                throw new IllegalArgumentException("The argument (" + arg + ") is unknown.");
+            }
+        }
+
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(
+            ExaminationApp.SOLVER_CONFIG);
+        solverConfig.setMoveThreadCount(SolverConfig.MOVE_THREAD_COUNT_NONE);
+        if (timeLimit != null) {
+            solverConfig.setTerminationConfig(new TerminationConfig()
+                .withSpentLimit(timeLimit));
+        }
+        ExaminationSolveService service = new ExaminationSolveService(solverConfig,
+            new SolverManagerConfig().withParallelSolverCount(Integer.toString(workerCount)),
+            workerCount + queueSize, jobTtl, maxUploadBytes);
+        service.start(host, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(service::stop));
+    }
+
+    private final SolverManager<MeetingSchedule, Long> solverManager;
+    // Limits the jobs that are solving or waiting for a solver thread
+    private final Semaphore jobPermits;
+    private final AtomicLong nextJobId = new AtomicLong();
+    private final Map<Long, SolveJob> jobMap = new ConcurrentHashMap<>();
+    private final long jobTtlNanos;
+    private final long maxUploadBytes;
+    private final MeetingSchedulingJsonFileIO jsonFileIO = new MeetingSchedulingJsonFileIO();
+    private final MeetingSchedulingXlsxFileIO xlsxFileIO = new MeetingSchedulingXlsxFileIO();
+
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+
+    /**
+     * @param maxJobCount the maximum number of jobs that are solving or queued
+     */
+    public ExaminationSolveService(SolverConfig solverConfig,
+        SolverManagerConfig solverManagerConfig, int maxJobCount) {
+        this(solverConfig, solverManagerConfig, maxJobCount, DEFAULT_JOB_TTL,
+            DEFAULT_MAX_UPLOAD_BYTES);
+    }
+
+    /**
+     * @param maxJobCount the maximum number of jobs that are solving or queued
+     * @param jobTtl how long an ended job is kept
+     * @param maxUploadBytes the maximum size of a submitted schedule
+     */
+    public ExaminationSolveService(SolverConfig solverConfig,
+        SolverManagerConfig solverManagerConfig, int maxJobCount, Duration jobTtl,
+        long maxUploadBytes) {
+        solverManager = SolverManager.create(solverConfig, solverManagerConfig);
+        jobPermits = new Semaphore(maxJobCount);
+        jobTtlNanos = jobTtl.toNanos();
+        this.maxUploadBytes = maxUploadBytes;
+    }
+
+    /**
+     * Listens on the loopback interface only.
+     */
+    public void start(int port) throws IOException {
+        start(null, port);
+    }
+
+    /**
+     * @param host null for the loopback interface, {@code 0.0.0.0} for all interfaces
+     */
+    public void start(String host, int port) throws IOException {
+        InetSocketAddress address = host == null
+            ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port)
+            : new InetSocketAddress(host, port);
+        httpServer = HttpServer.create(address, 0);
+        httpExecutor = Executors.newFixedThreadPool(HTTP_THREAD_COUNT);
+        httpServer.setExecutor(httpExecutor);
+        httpServer.createContext(SCHEDULES_PATH, this::handle);
+        httpServer.start();
+        logger.info("Listening on ({}) for {} requests.", address, SCHEDULES_PATH);
+    }
+
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpExecutor.shutdownNow();
+        }
+        solverManager.close();
+    }
+
+    // ************************************************************************
+    // Request handling
+    // ************************************************************************
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            evictEndedJobs();
+            String method = exchange.getRequestMethod();
+            String[] pathSegments = exchange.getRequestURI().getPath()
+                .substring(SCHEDULES_PATH.length()).split("/");
+            // The path starts with a slash, so the first segment is empty
+            if (pathSegments.length <= 1) {
+                if (method.equals("POST")) {
+                    submit(exchange);
+                } else {
+                    sendError(exchange, 405, "Use POST to submit a schedule.");
+                }
+                return;
+            }
+            SolveJob job;
+            try {
+                job = jobMap.get(Long.parseLong(pathSegments[1]));
+            } catch (NumberFormatException e) {
+                job = null;
+            }
+            if (job == null) {
+                sendError(exchange, 404, "The job (" + pathSegments[1] + ") does not exist.");
+                return;
+            }
+            String action = pathSegments.length > 2 ? pathSegments[2] : "";
+            if (method.equals("GET") && action.isEmpty()) {
+                sendStatus(exchange, job, true);
+            } else if (method.equals("GET") && action.equals("solution")) {
+                sendSolution(exchange, job);
+            } else if (method.equals("POST") && action.equals("stop")) {
+                terminateEarly(job);
+                sendStatus(exchange, job, false);
+            } else if (method.equals("DELETE") && action.isEmpty()) {
+                terminateEarly(job);
+                jobMap.remove(job.jobId);
+                exchange.sendResponseHeaders(204, -1);
+            } else {
+                sendError(exchange, 405, "The method (" + method + ") is not supported on ("
+                    + exchange.getRequestURI().getPath() + ").");
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed handling ({} {}).", exchange.getRequestMethod(),
+                exchange.getRequestURI(), e);
+            if (exchange.getResponseCode() < 0) {
+                sendError(exchange, 500, e.getMessage());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void submit(HttpExchange exchange) throws IOException {
+        if (!jobPermits.tryAcquire()) {
+            exchange.getResponseHeaders().set("Retry-After", Integer.toString(
+                RETRY_AFTER_SECONDS));
+            sendError(exchange, 503, "The job queue is full, retry later.");
+            return;
+        }
+        MeetingSchedule problem;
+        try {
+            problem = readProblem(exchange);
+        } catch (UploadTooLargeException e) {
+            jobPermits.release();
+            sendError(exchange, 413, e.getMessage());
+            return;
+        } catch (IOException | RuntimeException e) {
+            jobPermits.release();
+            logger.debug("Rejected an unreadable schedule.", e);
+            sendError(exchange, 400, "The schedule is unreadable: " + e.getMessage());
+            return;
+        }
+        long jobId = nextJobId.getAndIncrement();
+        SolveJob job = new SolveJob(jobId, problem, jobPermits);
+        jobMap.put(jobId, job);
+        solverManager.solveAndListen(jobId,
+            problemId -> job.bestSolution,
+            bestSolution -> job.bestSolution = bestSolution,
+            finalBestSolution -> {
+                job.bestSolution = finalBestSolution;
+                job.releasePermit();
+                logger.info("Job ({}) ended with score ({}).", jobId,
+                    finalBestSolution.getScore());
+            },
+            (problemId, throwable) -> {
+                job.exceptionMessage = String.valueOf(throwable.getMessage());
+                job.releasePermit();
+                logger.error("Job ({}) failed.", problemId, throwable);
+            });
+        logger.info("Queued job ({}) with ({}) meeting assignments.", jobId,
+            problem.getMeetingAssignmentList().size());
+        sendJson(exchange, 202, out -> {
+            out.beginObject();
+            out.name("jobId").value(jobId);
+            out.endObject();
+        });
+    }
+
+    /**
+     * A job that is terminated before it started never calls its consumers, so its permit is
+     * released here.
+     */
+    private void terminateEarly(SolveJob job) {
+        boolean scheduled = solverManager.getSolverStatus(job.jobId)
+            == SolverStatus.SOLVING_SCHEDULED;
+        solverManager.terminateEarly(job.jobId);
+        if (scheduled) {
+            job.releasePermit();
+        }
+    }
+
+    /**
+     * Forgets the jobs that ended longer than the job TTL ago, so the job map doesn't grow
+     * forever.
+     */
+    private void evictEndedJobs() {
+        long now = System.nanoTime();
+        jobMap.values().removeIf(job -> job.isEnded() && now - job.endedNanos > jobTtlNanos);
+    }
+
+    private MeetingSchedule readProblem(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (contentLength != null && Long.parseLong(contentLength) > maxUploadBytes) {
+            throw new UploadTooLargeException(maxUploadBytes);
+        }
+        // A chunked body has no length up front
+        InputStream body = new LimitedInputStream(exchange.getRequestBody(), maxUploadBytes);
+        if (contentType != null && contentType.startsWith(XLSX_CONTENT_TYPE)) {
+            // The XLSX reader needs random access to the zip entries
+            File tmpFile = File.createTempFile("schedule", ".xlsx");
+            try {
+                Files.copy(body, tmpFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                return xlsxFileIO.read(tmpFile);
+            } finally {
+                Files.deleteIfExists(tmpFile.toPath());
+            }
+        }
+        // Read up front, the JSON reader would wrap the UploadTooLargeException
+        byte[] bodyBytes = body.readAllBytes();
+        return jsonFileIO.read(new InputStreamReader(new ByteArrayInputStream(bodyBytes),
+            StandardCharsets.UTF_8));
+    }
+
+    private void sendStatus(HttpExchange exchange, SolveJob job, boolean withAssignments)
+        throws IOException {
+        MeetingSchedule bestSolution = job.bestSolution;
+        SolverStatus solverStatus = solverManager.getSolverStatus(job.jobId);
+        sendJson(exchange, 200, out -> {
+            out.beginObject();
+            out.name("jobId").value(job.jobId);
+            out.name("status").value(job.exceptionMessage != null ? "FAILED"
+                : solverStatus.name());
+            if (job.exceptionMessage != null) {
+                out.name("error").value(job.exceptionMessage);
+            }
+            out.name("score").value(bestSolution.getScore() == null ? null
+                : bestSolution.getScore().toString());
+            if (withAssignments) {
+                out.name("meetingAssignments").beginArray();
+                for (MeetingAssignment meetingAssignment : bestSolution
+                    .getMeetingAssignmentList()) {
+                    out.beginObject();
+                    out.name("id").value(meetingAssignment.getId());
+                    out.name("meeting").value(meetingAssignment.getMeeting().getId());
+                    out.name("startingTimeGrain").value(
+                        meetingAssignment.getStartingTimeGrain() == null ? null
+                            : meetingAssignment.getStartingTimeGrain().getId());
+                    out.name("room").value(meetingAssignment.getRoom() == null ? null
+                        : meetingAssignment.getRoom().getId());
+                    out.name("pinned").value(meetingAssignment.isPinned());
+                    out.endObject();
+                }
+                out.endArray();
+            }
+            out.endObject();
+        });
+    }
+
+    private void sendSolution(HttpExchange exchange, SolveJob job) throws IOException {
+        MeetingSchedule bestSolution = job.bestSolution;
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null && query.contains("format=xlsx")) {
+            File tmpFile = File.createTempFile("solution", ".xlsx");
+            try {
+                xlsxFileIO.write(bestSolution, tmpFile);
+                exchange.getResponseHeaders().set("Content-Type", XLSX_CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, tmpFile.length());
+                try (OutputStream out = exchange.getResponseBody()) {
+                    Files.copy(tmpFile.toPath(), out);
+                }
+            } finally {
+                Files.deleteIfExists(tmpFile.toPath());
+            }
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new OutputStreamWriter(exchange.getResponseBody(),
+            StandardCharsets.UTF_8)) {
+            jsonFileIO.write(bestSolution, writer);
+        }
+    }
+
+    // ************************************************************************
+    // Helper methods
+    // ************************************************************************
+
+    private static void sendError(HttpExchange exchange, int statusCode, String message)
+        throws IOException {
+        sendJson(exchange, statusCode, out -> {
+            out.beginObject();
+            out.name("error").value(message);
+            out.endObject();
+        });
+    }
+
+    private static void sendJson(HttpExchange exchange, int statusCode, JsonBody body)
+        throws IOException {
+        Headers responseHeaders = exchange.getResponseHeaders();
+        responseHeaders.set("Content-Type", JSON_CONTENT_TYPE);
+        // Chunked, the length isn't known before the body is written
+        exchange.sendResponseHeaders(statusCode, 0);
+        try (JsonWriter out = new JsonWriter(new OutputStreamWriter(exchange.getResponseBody(),
+            StandardCharsets.UTF_8))) {
+            body.write(out);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+
+        void write(JsonWriter out) throws IOException;
+    }
+
+    private static class UploadTooLargeException extends IOException {
+
+        UploadTooLargeException(long maxUploadBytes) {
+            super("The schedule is larger than the maximum of (" + maxUploadBytes + ") bytes.");
+        }
+    }
+
+    /**
+     * Fails with an {@link UploadTooLargeException} once more than the maximum is read.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private final long maxByteCount;
+        private long byteCount = 0L;
+
+        LimitedInputStream(InputStream in, long maxByteCount) {
+            super(in);
+            this.maxByteCount = maxByteCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int readCount = super.read(buffer, offset, length);
+            if (readCount > 0) {
+                count(readCount);
+            }
+            return readCount;
+        }
+
+        private void count(int readCount) throws UploadTooLargeException {
+            byteCount += readCount;
+            if (byteCount > maxByteCount) {
+                throw new UploadTooLargeException(maxByteCount);
+            }
+        }
+    }
+
+    private static class SolveJob {
+
+        private final long jobId;
+        private final Semaphore jobPermits;
+        private final AtomicBoolean permitReleased = new AtomicBoolean();
+        // The problem until the solver publishes its first best solution
+        private volatile MeetingSchedule bestSolution;
+        private volatile String exceptionMessage;
+        // The System.nanoTime() when the permit was released, set before ended
+        private volatile long endedNanos;
+        private volatile boolean ended;
+
+        SolveJob(long jobId, MeetingSchedule problem, Semaphore jobPermits) {
+            this.jobId = jobId;
+            this.bestSolution = problem;
+            this.jobPermits = jobPermits;
+        }
+
+        void releasePermit() {
+            if (permitReleased.compareAndSet(false, true)) {
+                endedNanos = System.nanoTime();
+                ended = true;
+                jobPermits.release();
+            }
+        }
+
+        boolean isEnded() {
+            return ended;
+        }
+    }
+}
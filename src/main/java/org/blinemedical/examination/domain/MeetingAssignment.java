@@ -1,20 +1,39 @@
 package org.blinemedical.examination.domain;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import org.apache.commons.lang3.text.WordUtils;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.entity.PlanningPin;
+import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 
 @PlanningEntity()
 public class MeetingAssignment extends AbstractPersistable {
 
+    /**
+     * The {@link #getStartIndex()} and {@link #getEndIndex()} of an assignment without a
+     * starting time grain.
+     */
+    public static final int NO_GRAIN_INDEX = -1;
+
+    private static final Comparator<TimeGrain> GRAIN_INDEX_COMPARATOR = Comparator
+        .comparingInt(TimeGrain::getGrainIndex);
+
     private Meeting meeting;
     private boolean pinned;
+    // Shared by all assignments with the same duration, sorted by grain index
+    private List<TimeGrain> startingTimeGrainRange;
 
     // Planning variables: changes during planning, between score calculations.
     private TimeGrain startingTimeGrain;
     private Room room;
 
+    // Cached from startingTimeGrain and meeting, so the score rules don't dereference them
+    private int startIndex = NO_GRAIN_INDEX;
+    private int endIndex = NO_GRAIN_INDEX;
+
     public MeetingAssignment() {
     }
 
@@ -22,6 +41,7 @@ public class MeetingAssignment extends AbstractPersistable {
         this.meeting = meeting;
         this.startingTimeGrain = startingTimeGrain;
         this.room = room;
+        refreshGrainIndexes();
     }
 
     public Meeting getMeeting() {
@@ -30,6 +50,7 @@ public class MeetingAssignment extends AbstractPersistable {
 
     public void setMeeting(Meeting meeting) {
         this.meeting = meeting;
+        refreshGrainIndexes();
     }
 
     @PlanningPin
@@ -41,6 +62,19 @@ public class MeetingAssignment extends AbstractPersistable {
         this.pinned = pinned;
     }
 
+    /**
+     * @return the grains the meeting can start on without running past the end of their day,
+     * see {@link MeetingSchedule#initializeStartingTimeGrainRanges()}
+     */
+    @ValueRangeProvider(id = "timeGrainRange")
+    public List<TimeGrain> getStartingTimeGrainRange() {
+        return startingTimeGrainRange;
+    }
+
+    public void setStartingTimeGrainRange(List<TimeGrain> startingTimeGrainRange) {
+        this.startingTimeGrainRange = startingTimeGrainRange;
+    }
+
     @PlanningVariable(valueRangeProviderRefs = {"timeGrainRange"}, nullable = true)
     public TimeGrain getStartingTimeGrain() {
         return startingTimeGrain;
@@ -48,6 +82,7 @@ public class MeetingAssignment extends AbstractPersistable {
 
     public void setStartingTimeGrain(TimeGrain startingTimeGrain) {
         this.startingTimeGrain = startingTimeGrain;
+        refreshGrainIndexes();
     }
 
     @PlanningVariable(valueRangeProviderRefs = {"roomRange"}, nullable = true)
@@ -63,28 +98,62 @@ public class MeetingAssignment extends AbstractPersistable {
     // Complex methods
     // ************************************************************************
 
+    private void refreshGrainIndexes() {
+        if (startingTimeGrain == null || meeting == null) {
+            startIndex = NO_GRAIN_INDEX;
+            endIndex = NO_GRAIN_INDEX;
+        } else {
+            startIndex = startingTimeGrain.getGrainIndex();
+            endIndex = startIndex + meeting.getDurationInGrains();
+        }
+    }
+
+    /**
+     * @return the grain index of the starting time grain, or {@link #NO_GRAIN_INDEX}
+     */
+    public int getStartIndex() {
+        return startIndex;
+    }
+
+    /**
+     * @return the exclusive end grain index, or {@link #NO_GRAIN_INDEX}
+     */
+    public int getEndIndex() {
+        return endIndex;
+    }
+
     public int calculateOverlap(MeetingAssignment other) {
-        if (startingTimeGrain == null || other.getStartingTimeGrain() == null) {
+        if (startIndex == NO_GRAIN_INDEX || other.startIndex == NO_GRAIN_INDEX) {
             return 0;
         }
-        int start = startingTimeGrain.getGrainIndex();
-        int end = start + meeting.getDurationInGrains();
-        int otherStart = other.startingTimeGrain.getGrainIndex();
-        int otherEnd = otherStart + other.meeting.getDurationInGrains();
-
-        if (end < otherStart) {
+        if (endIndex < other.startIndex) {
             return 0;
-        } else if (otherEnd < start) {
+        } else if (other.endIndex < startIndex) {
             return 0;
         }
-        return Math.min(end, otherEnd) - Math.max(start, otherStart);
+        return Math.min(endIndex, other.endIndex) - Math.max(startIndex, other.startIndex);
     }
 
-    public Integer getLastTimeGrainIndex() {
-        if (startingTimeGrain == null) {
-            return null;
+    /**
+     * @return {@link #NO_GRAIN_INDEX} if there is no starting time grain
+     */
+    public int getLastTimeGrainIndex() {
+        if (startIndex == NO_GRAIN_INDEX) {
+            return NO_GRAIN_INDEX;
+        }
+        return endIndex - 1;
+    }
+
+    /**
+     * The solver only picks grains from the range, but imported or pinned assignments can still
+     * start outside of it.
+     */
+    public boolean isInOvertime() {
+        if (startingTimeGrain == null || startingTimeGrainRange == null) {
+            return false;
         }
-        return startingTimeGrain.getGrainIndex() + meeting.getDurationInGrains() - 1;
+        return Collections.binarySearch(startingTimeGrainRange, startingTimeGrain,
+            GRAIN_INDEX_COMPARATOR) < 0;
     }
 
     public String getStartingDateTimeString() {
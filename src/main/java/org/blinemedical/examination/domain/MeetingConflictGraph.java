@@ -0,0 +1,110 @@
+package org.blinemedical.examination.domain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Which meetings share a learner or patient, built once from the {@link Attendance}s because it
+ * never changes during solving. Meetings and persons are addressed by their index in
+ * {@link MeetingSchedule#getMeetingList()} and {@link MeetingSchedule#getPersonList()}.
+ * <p>
+ * The neighbours of a meeting are the meetings of its persons. The adjacency goes through the
+ * persons instead of listing every meeting pair, because a patient meets every learner of its
+ * scenario and a pairwise adjacency would grow quadratically with the number of learners.
+ * Like the DRL, there is one entry per {@link Attendance}.
+ * <p>
+ * Only the incremental score calculator uses it. The Constraint Streams and DRL engines still
+ * join the attendances on their person, but both attendances are problem facts, so that join is
+ * built once per session and a move only propagates through the meeting assignment joins.
+ */
+public class MeetingConflictGraph {
+
+    private static final int[] NO_INDEXES = new int[0];
+
+    private final Map<Meeting, Integer> meetingIndexMap;
+    private final Map<Person, Integer> personIndexMap;
+    private final int[][] meetingPersonIndexes;
+    private final int[][] personMeetingIndexes;
+
+    public MeetingConflictGraph(List<Meeting> meetingList, List<Person> personList,
+        List<Attendance> attendanceList) {
+        meetingIndexMap = new HashMap<>(meetingList.size());
+        for (int i = 0; i < meetingList.size(); i++) {
+            meetingIndexMap.put(meetingList.get(i), i);
+        }
+        personIndexMap = new HashMap<>(personList.size());
+        for (int i = 0; i < personList.size(); i++) {
+            personIndexMap.put(personList.get(i), i);
+        }
+
+        List<List<Integer>> meetingPersonIndexLists = new ArrayList<>(meetingList.size());
+        for (int i = 0; i < meetingList.size(); i++) {
+            meetingPersonIndexLists.add(new ArrayList<>(2));
+        }
+        List<List<Integer>> personMeetingIndexLists = new ArrayList<>(personList.size());
+        for (int i = 0; i < personList.size(); i++) {
+            personMeetingIndexLists.add(new ArrayList<>());
+        }
+        for (Attendance attendance : attendanceList) {
+            Integer meetingIndex = meetingIndexMap.get(attendance.getMeeting());
+            Integer personIndex = personIndexMap.get(attendance.getPerson());
+            if (meetingIndex == null || personIndex == null) {
+                continue;
+            }
+            meetingPersonIndexLists.get(meetingIndex).add(personIndex);
+            personMeetingIndexLists.get(personIndex).add(meetingIndex);
+        }
+        meetingPersonIndexes = toIntArrays(meetingPersonIndexLists);
+        personMeetingIndexes = toIntArrays(personMeetingIndexLists);
+    }
+
+    private static int[][] toIntArrays(List<List<Integer>> indexLists) {
+        int[][] indexes = new int[indexLists.size()][];
+        for (int i = 0; i < indexLists.size(); i++) {
+            List<Integer> indexList = indexLists.get(i);
+            indexes[i] = indexList.isEmpty()
+                ? NO_INDEXES : indexList.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return indexes;
+    }
+
+    public int getMeetingCount() {
+        return meetingPersonIndexes.length;
+    }
+
+    public int getPersonCount() {
+        return personMeetingIndexes.length;
+    }
+
+    /**
+     * @return -1 if the meeting is not part of this graph
+     */
+    public int getMeetingIndex(Meeting meeting) {
+        Integer meetingIndex = meetingIndexMap.get(meeting);
+        return meetingIndex == null ? -1 : meetingIndex;
+    }
+
+    /**
+     * @return -1 if the person is not part of this graph
+     */
+    public int getPersonIndex(Person person) {
+        Integer personIndex = personIndexMap.get(person);
+        return personIndex == null ? -1 : personIndex;
+    }
+
+    /**
+     * @return one person index per {@link Attendance} of the meeting, never null
+     */
+    public int[] getPersonIndexes(int meetingIndex) {
+        return meetingPersonIndexes[meetingIndex];
+    }
+
+    /**
+     * @return one meeting index per {@link Attendance} of the person, never null
+     */
+    public int[] getMeetingIndexes(int personIndex) {
+        return personMeetingIndexes[personIndex];
+    }
+}
@@ -5,8 +5,11 @@ import org.optaplanner.core.api.domain.constraintweight.ConstraintWeight;
 import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import org.optaplanner.examples.common.domain.AbstractPersistable;
 
-@ConstraintConfiguration(constraintPackage = "org.blinemedical.examination.solver")
+@ConstraintConfiguration(constraintPackage = MeetingConstraintConfiguration.CONSTRAINT_PACKAGE)
 public class MeetingConstraintConfiguration extends AbstractPersistable {
+
+    public static final String CONSTRAINT_PACKAGE = "org.blinemedical.examination.solver";
+
     // Drools rule names
     public static final String ROOM_CONFLICT = "Room conflict";
     public static final String DONT_GO_IN_OVERTIME = "Don't go in overtime";
@@ -1,6 +1,11 @@
 package org.blinemedical.examination.domain;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.optaplanner.core.api.domain.constraintweight.ConstraintConfigurationProvider;
 import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty;
 import org.optaplanner.core.api.domain.solution.PlanningScore;
@@ -10,7 +15,7 @@ import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import org.optaplanner.examples.common.domain.AbstractPersistable;
 
-@PlanningSolution
+@PlanningSolution(solutionCloner = MeetingScheduleSolutionCloner.class)
 public class MeetingSchedule extends AbstractPersistable {
 
     @ConstraintConfigurationProvider
@@ -20,7 +25,6 @@ public class MeetingSchedule extends AbstractPersistable {
     private List<Meeting> meetingList;
     @ProblemFactCollectionProperty
     private List<Day> dayList;
-    @ValueRangeProvider(id = "timeGrainRange")
     @ProblemFactCollectionProperty
     private List<TimeGrain> timeGrainList;
     @ValueRangeProvider(id = "roomRange")
@@ -39,6 +43,8 @@ public class MeetingSchedule extends AbstractPersistable {
     @PlanningScore
     private HardMediumSoftScore score;
 
+    private MeetingConflictGraph meetingConflictGraph;
+
     public MeetingConstraintConfiguration getConstraintConfiguration() {
         return constraintConfiguration;
     }
@@ -123,4 +129,74 @@ public class MeetingSchedule extends AbstractPersistable {
     // Complex methods
     // ************************************************************************
 
+    /**
+     * Gives every {@link MeetingAssignment} the grains its meeting can start on, so it ends on the
+     * same day. Call after the time grains and meeting assignments are created.
+     */
+    public void initializeStartingTimeGrainRanges() {
+        Map<Day, List<TimeGrain>> dayTimeGrainMap = new LinkedHashMap<>(dayList.size());
+        timeGrainList.stream()
+            .sorted(Comparator.comparingInt(TimeGrain::getGrainIndex))
+            .forEach(timeGrain -> dayTimeGrainMap
+                .computeIfAbsent(timeGrain.getDay(), day -> new ArrayList<>())
+                .add(timeGrain));
+        Map<Integer, List<TimeGrain>> durationRangeMap = new HashMap<>();
+        for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+            List<TimeGrain> startingTimeGrainRange = durationRangeMap.computeIfAbsent(
+                meetingAssignment.getMeeting().getDurationInGrains(),
+                durationInGrains -> createStartingTimeGrainRange(dayTimeGrainMap,
+                    durationInGrains));
+            meetingAssignment.setStartingTimeGrainRange(startingTimeGrainRange);
+        }
+    }
+
+    private static List<TimeGrain> createStartingTimeGrainRange(
+        Map<Day, List<TimeGrain>> dayTimeGrainMap, int durationInGrains) {
+        List<TimeGrain> startingTimeGrainRange = new ArrayList<>();
+        for (List<TimeGrain> dayTimeGrainList : dayTimeGrainMap.values()) {
+            for (int i = 0; i + durationInGrains - 1 < dayTimeGrainList.size(); i++) {
+                TimeGrain startingTimeGrain = dayTimeGrainList.get(i);
+                TimeGrain lastTimeGrain = dayTimeGrainList.get(i + durationInGrains - 1);
+                // Skip gaps in the grain indexes, the meeting must fit in consecutive grains
+                if (lastTimeGrain.getGrainIndex() - startingTimeGrain.getGrainIndex()
+                    == durationInGrains - 1) {
+                    startingTimeGrainRange.add(startingTimeGrain);
+                }
+            }
+        }
+        // MeetingAssignment.isInOvertime() relies on this order, even if days interleave
+        startingTimeGrainRange.sort(Comparator.comparingInt(TimeGrain::getGrainIndex));
+        return startingTimeGrainRange;
+    }
+
+    /**
+     * Built on first use and shared by the planning clones, because the problem facts it is
+     * built from don't change during solving.
+     */
+    public MeetingConflictGraph getMeetingConflictGraph() {
+        if (meetingConflictGraph == null) {
+            meetingConflictGraph = new MeetingConflictGraph(meetingList, personList,
+                attendanceList);
+        }
+        return meetingConflictGraph;
+    }
+
+    /**
+     * For {@link MeetingScheduleSolutionCloner}, null if it isn't built yet.
+     */
+    MeetingConflictGraph getBuiltMeetingConflictGraph() {
+        return meetingConflictGraph;
+    }
+
+    void setMeetingConflictGraph(MeetingConflictGraph meetingConflictGraph) {
+        this.meetingConflictGraph = meetingConflictGraph;
+    }
+
+    /**
+     * Call after adding or removing meetings, persons or attendances.
+     */
+    public void resetMeetingConflictGraph() {
+        meetingConflictGraph = null;
+    }
+
 }
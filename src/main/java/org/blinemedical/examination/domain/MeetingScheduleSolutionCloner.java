@@ -0,0 +1,54 @@
+package org.blinemedical.examination.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.optaplanner.core.api.domain.solution.cloner.SolutionCloner;
+
+/**
+ * Replaces the reflective planning clone, which showed up in profiles when the best solution
+ * improves often. Only the {@link MeetingAssignment}s and their list are copied, the problem fact
+ * lists, the constraint configuration and the {@link MeetingConflictGraph} are shared, because
+ * they don't change during solving. A {@link org.optaplanner.core.api.solver.ProblemFactChange}
+ * replaces a fact list instead of changing it.
+ * <p>
+ * Keep {@link #cloneMeetingAssignment(MeetingAssignment)} in sync with the fields of
+ * {@link MeetingAssignment}.
+ */
+public class MeetingScheduleSolutionCloner implements SolutionCloner<MeetingSchedule> {
+
+    @Override
+    public MeetingSchedule cloneSolution(MeetingSchedule original) {
+        MeetingSchedule clone = new MeetingSchedule();
+        clone.setId(original.getId());
+        clone.setConstraintConfiguration(original.getConstraintConfiguration());
+        clone.setMeetingList(original.getMeetingList());
+        clone.setDayList(original.getDayList());
+        clone.setTimeGrainList(original.getTimeGrainList());
+        clone.setRoomList(original.getRoomList());
+        clone.setPersonList(original.getPersonList());
+        clone.setAttendanceList(original.getAttendanceList());
+        clone.setScenarioList(original.getScenarioList());
+
+        List<MeetingAssignment> meetingAssignmentList = original.getMeetingAssignmentList();
+        List<MeetingAssignment> clonedMeetingAssignmentList = new ArrayList<>(
+            meetingAssignmentList.size());
+        for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+            clonedMeetingAssignmentList.add(cloneMeetingAssignment(meetingAssignment));
+        }
+        clone.setMeetingAssignmentList(clonedMeetingAssignmentList);
+
+        clone.setScore(original.getScore());
+        clone.setMeetingConflictGraph(original.getBuiltMeetingConflictGraph());
+        return clone;
+    }
+
+    private static MeetingAssignment cloneMeetingAssignment(MeetingAssignment original) {
+        // The constructor also copies the cached grain indexes
+        MeetingAssignment clone = new MeetingAssignment(original.getMeeting(),
+            original.getStartingTimeGrain(), original.getRoom());
+        clone.setId(original.getId());
+        clone.setPinned(original.isPinned());
+        clone.setStartingTimeGrainRange(original.getStartingTimeGrainRange());
+        return clone;
+    }
+}
@@ -0,0 +1,492 @@
+package org.blinemedical.examination.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.blinemedical.examination.domain.Attendance;
+import org.blinemedical.examination.domain.Day;
+import org.blinemedical.examination.domain.Meeting;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingConstraintConfiguration;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.domain.TimeGrain;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.persistence.common.api.domain.solution.SolutionFileIO;
+
+/**
+ * Saves a {@link MeetingSchedule} as a versioned binary snapshot, to save and reload solutions in
+ * milliseconds instead of an XLSX round-trip. There are no views, use
+ * {@link MeetingSchedulingXlsxFileIO} to look at a schedule.
+ * <p>
+ * Every table is stored column by column. References are the ordinal of the referenced object in
+ * its list, or {@link #NO_ORDINAL}. The file is memory-mapped to load it.
+ */
+public class MeetingSchedulingBinaryFileIO implements SolutionFileIO<MeetingSchedule> {
+
+    public static final String FILE_EXTENSION = "bin";
+
+    private static final int MAGIC_NUMBER = 0x4D534E50; // "MSNP"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int NO_ORDINAL = -1;
+    private static final int NULL_STRING_LENGTH = -1;
+
+    @Override
+    public String getInputFileExtension() {
+        return FILE_EXTENSION;
+    }
+
+    @Override
+    public MeetingSchedule read(File inputSolutionFile) {
+        try (FileChannel channel = FileChannel.open(inputSolutionFile.toPath(),
+            StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                channel.size());
+            return new SnapshotReader(buffer).read();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed reading inputSolutionFile ("
+                + inputSolutionFile + ").", e);
+        }
+    }
+
+    @Override
+    public void write(MeetingSchedule solution, File outputSolutionFile) {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(outputSolutionFile), 1 << 16))) {
+            new SnapshotWriter(solution, out).write();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed writing outputSolutionFile ("
+                + outputSolutionFile + ") for schedule (" + solution + ").", e);
+        }
+    }
+
+    private static class SnapshotWriter {
+
+        private final MeetingSchedule solution;
+        private final DataOutputStream out;
+
+        SnapshotWriter(MeetingSchedule solution, DataOutputStream out) {
+            this.solution = solution;
+            this.out = out;
+        }
+
+        void write() throws IOException {
+            out.writeInt(MAGIC_NUMBER);
+            out.writeInt(FORMAT_VERSION);
+            writeConstraintConfiguration();
+            writeScore(solution.getScore());
+
+            List<Day> dayList = solution.getDayList();
+            out.writeInt(dayList.size());
+            for (Day day : dayList) {
+                out.writeLong(day.getId());
+            }
+            for (Day day : dayList) {
+                out.writeInt(day.getDayOfYear());
+            }
+
+            List<TimeGrain> timeGrainList = solution.getTimeGrainList();
+            Map<Day, Integer> dayOrdinalMap = createOrdinalMap(dayList);
+            out.writeInt(timeGrainList.size());
+            for (TimeGrain timeGrain : timeGrainList) {
+                out.writeLong(timeGrain.getId());
+            }
+            for (TimeGrain timeGrain : timeGrainList) {
+                out.writeInt(timeGrain.getGrainIndex());
+            }
+            for (TimeGrain timeGrain : timeGrainList) {
+                out.writeInt(getOrdinal(dayOrdinalMap, timeGrain.getDay()));
+            }
+            for (TimeGrain timeGrain : timeGrainList) {
+                out.writeInt(timeGrain.getStartingMinuteOfDay());
+            }
+
+            List<Room> roomList = solution.getRoomList();
+            out.writeInt(roomList.size());
+            for (Room room : roomList) {
+                out.writeLong(room.getId());
+            }
+            for (Room room : roomList) {
+                writeString(room.getName());
+            }
+
+            List<Person> personList = solution.getPersonList();
+            out.writeInt(personList.size());
+            for (Person person : personList) {
+                out.writeLong(person.getId());
+            }
+            for (Person person : personList) {
+                out.writeBoolean(person.isPatient());
+            }
+            for (Person person : personList) {
+                writeString(person.getFullName());
+            }
+            for (Person person : personList) {
+                writeString(person.getPersonId());
+            }
+
+            List<Meeting> meetingList = solution.getMeetingList();
+            List<Attendance> attendanceList = solution.getAttendanceList();
+            Map<Attendance, Integer> attendanceOrdinalMap = createOrdinalMap(attendanceList);
+            out.writeInt(meetingList.size());
+            for (Meeting meeting : meetingList) {
+                out.writeLong(meeting.getId());
+            }
+            for (Meeting meeting : meetingList) {
+                out.writeInt(meeting.getDurationInGrains());
+            }
+            for (Meeting meeting : meetingList) {
+                out.writeLong(meeting.getScenarioId() == null ? Long.MIN_VALUE
+                    : meeting.getScenarioId());
+            }
+            for (Meeting meeting : meetingList) {
+                out.writeInt(getOrdinal(attendanceOrdinalMap, meeting.getRequiredLearner()));
+            }
+            for (Meeting meeting : meetingList) {
+                out.writeInt(getOrdinal(attendanceOrdinalMap, meeting.getRequiredPatient()));
+            }
+
+            Map<Person, Integer> personOrdinalMap = createOrdinalMap(personList);
+            Map<Meeting, Integer> meetingOrdinalMap = createOrdinalMap(meetingList);
+            out.writeInt(attendanceList.size());
+            for (Attendance attendance : attendanceList) {
+                out.writeLong(attendance.getId());
+            }
+            for (Attendance attendance : attendanceList) {
+                out.writeInt(getOrdinal(personOrdinalMap, attendance.getPerson()));
+            }
+            for (Attendance attendance : attendanceList) {
+                out.writeInt(getOrdinal(meetingOrdinalMap, attendance.getMeeting()));
+            }
+
+            List<Scenario> scenarioList = solution.getScenarioList();
+            out.writeInt(scenarioList.size());
+            for (Scenario scenario : scenarioList) {
+                out.writeLong(scenario.getId());
+            }
+            for (Scenario scenario : scenarioList) {
+                writeString(scenario.getName());
+            }
+            for (Scenario scenario : scenarioList) {
+                List<Attendance> patientList = scenario.getPatients();
+                out.writeInt(patientList.size());
+                for (Attendance patient : patientList) {
+                    out.writeInt(getOrdinal(attendanceOrdinalMap, patient));
+                }
+            }
+
+            List<MeetingAssignment> meetingAssignmentList = solution.getMeetingAssignmentList();
+            Map<TimeGrain, Integer> timeGrainOrdinalMap = createOrdinalMap(timeGrainList);
+            Map<Room, Integer> roomOrdinalMap = createOrdinalMap(roomList);
+            out.writeInt(meetingAssignmentList.size());
+            for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+                out.writeLong(meetingAssignment.getId());
+            }
+            for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+                out.writeInt(getOrdinal(meetingOrdinalMap, meetingAssignment.getMeeting()));
+            }
+            for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+                out.writeInt(getOrdinal(timeGrainOrdinalMap,
+                    meetingAssignment.getStartingTimeGrain()));
+            }
+            for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+                out.writeInt(getOrdinal(roomOrdinalMap, meetingAssignment.getRoom()));
+            }
+            for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+                out.writeBoolean(meetingAssignment.isPinned());
+            }
+        }
+
+        private void writeConstraintConfiguration() throws IOException {
+            MeetingConstraintConfiguration constraintConfiguration = solution
+                .getConstraintConfiguration();
+            writeScore(constraintConfiguration.getRoomConflict());
+            writeScore(constraintConfiguration.getDontGoInOvertime());
+            writeScore(constraintConfiguration.getRequiredAttendanceConflict());
+            writeScore(constraintConfiguration.getAssignedMeetings());
+            writeScore(constraintConfiguration.getHalfAssignedMeetings());
+            writeScore(constraintConfiguration.getDoAllMeetingsAsSoonAsPossible());
+            writeScore(constraintConfiguration.getOverlappingMeetings());
+            writeScore(constraintConfiguration.getRoomStability());
+        }
+
+        private void writeScore(HardMediumSoftScore score) throws IOException {
+            out.writeBoolean(score != null);
+            if (score != null) {
+                out.writeInt(score.getInitScore());
+                out.writeInt(score.getHardScore());
+                out.writeInt(score.getMediumScore());
+                out.writeInt(score.getSoftScore());
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(NULL_STRING_LENGTH);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static <T> Map<T, Integer> createOrdinalMap(List<T> list) {
+            Map<T, Integer> ordinalMap = new IdentityHashMap<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                ordinalMap.put(list.get(i), i);
+            }
+            return ordinalMap;
+        }
+
+        private static <T> int getOrdinal(Map<T, Integer> ordinalMap, T value) {
+            if (value == null) {
+                return NO_ORDINAL;
+            }
+            Integer ordinal = ordinalMap.get(value);
+            if (ordinal == null) {
+                throw new IllegalStateException("Impossible state: the referenced object ("
+                    + value + ") is not in its problem fact or planning entity list.");
+            }
+            return ordinal;
+        }
+    }
+
+    private static class SnapshotReader {
+
+        private final ByteBuffer buffer;
+
+        SnapshotReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        MeetingSchedule read() {
+            int magicNumber = buffer.getInt();
+            if (magicNumber != MAGIC_NUMBER) {
+                throw new IllegalStateException("The file is not a meeting schedule snapshot:"
+                    + " its magic number (" + Integer.toHexString(magicNumber)
+                    + ") is not " + Integer.toHexString(MAGIC_NUMBER) + ".");
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IllegalStateException("The snapshot format version (" + formatVersion
+                    + ") is not supported, only version (" + FORMAT_VERSION + ") is.");
+            }
+            MeetingSchedule solution = new MeetingSchedule();
+            // Like the other readers, the snapshot doesn't keep the solution id
+            solution.setId(0L);
+            solution.setConstraintConfiguration(readConstraintConfiguration());
+            solution.setScore(readScore());
+
+            int dayCount = buffer.getInt();
+            long[] dayIds = readLongs(dayCount);
+            int[] dayOfYears = readInts(dayCount);
+            List<Day> dayList = new ArrayList<>(dayCount);
+            for (int i = 0; i < dayCount; i++) {
+                Day day = new Day();
+                day.setId(dayIds[i]);
+                day.setDayOfYear(dayOfYears[i]);
+                dayList.add(day);
+            }
+            solution.setDayList(dayList);
+
+            int timeGrainCount = buffer.getInt();
+            long[] timeGrainIds = readLongs(timeGrainCount);
+            int[] grainIndexes = readInts(timeGrainCount);
+            int[] timeGrainDayOrdinals = readInts(timeGrainCount);
+            int[] startingMinuteOfDays = readInts(timeGrainCount);
+            List<TimeGrain> timeGrainList = new ArrayList<>(timeGrainCount);
+            for (int i = 0; i < timeGrainCount; i++) {
+                TimeGrain timeGrain = new TimeGrain();
+                timeGrain.setId(timeGrainIds[i]);
+                timeGrain.setGrainIndex(grainIndexes[i]);
+                timeGrain.setDay(get(dayList, timeGrainDayOrdinals[i]));
+                timeGrain.setStartingMinuteOfDay(startingMinuteOfDays[i]);
+                timeGrainList.add(timeGrain);
+            }
+            solution.setTimeGrainList(timeGrainList);
+
+            int roomCount = buffer.getInt();
+            long[] roomIds = readLongs(roomCount);
+            List<Room> roomList = new ArrayList<>(roomCount);
+            for (int i = 0; i < roomCount; i++) {
+                Room room = new Room();
+                room.setId(roomIds[i]);
+                roomList.add(room);
+            }
+            for (Room room : roomList) {
+                room.setName(readString());
+            }
+            solution.setRoomList(roomList);
+
+            int personCount = buffer.getInt();
+            long[] personIds = readLongs(personCount);
+            List<Person> personList = new ArrayList<>(personCount);
+            for (int i = 0; i < personCount; i++) {
+                Person person = new Person();
+                person.setId(personIds[i]);
+                personList.add(person);
+            }
+            for (Person person : personList) {
+                person.setPatient(buffer.get() != 0);
+            }
+            for (Person person : personList) {
+                person.setFullName(readString());
+            }
+            for (Person person : personList) {
+                person.setPersonId(readString());
+            }
+            solution.setPersonList(personList);
+
+            int meetingCount = buffer.getInt();
+            long[] meetingIds = readLongs(meetingCount);
+            int[] durationInGrains = readInts(meetingCount);
+            long[] scenarioIds = readLongs(meetingCount);
+            int[] learnerAttendanceOrdinals = readInts(meetingCount);
+            int[] patientAttendanceOrdinals = readInts(meetingCount);
+            List<Meeting> meetingList = new ArrayList<>(meetingCount);
+            for (int i = 0; i < meetingCount; i++) {
+                Meeting meeting = new Meeting();
+                meeting.setId(meetingIds[i]);
+                meeting.setDurationInGrains(durationInGrains[i]);
+                meeting.setScenarioId(scenarioIds[i] == Long.MIN_VALUE ? null : scenarioIds[i]);
+                meetingList.add(meeting);
+            }
+            solution.setMeetingList(meetingList);
+
+            int attendanceCount = buffer.getInt();
+            long[] attendanceIds = readLongs(attendanceCount);
+            int[] attendancePersonOrdinals = readInts(attendanceCount);
+            int[] attendanceMeetingOrdinals = readInts(attendanceCount);
+            List<Attendance> attendanceList = new ArrayList<>(attendanceCount);
+            for (int i = 0; i < attendanceCount; i++) {
+                Attendance attendance = new Attendance();
+                attendance.setId(attendanceIds[i]);
+                attendance.setPerson(get(personList, attendancePersonOrdinals[i]));
+                attendance.setMeeting(get(meetingList, attendanceMeetingOrdinals[i]));
+                attendanceList.add(attendance);
+            }
+            solution.setAttendanceList(attendanceList);
+            for (int i = 0; i < meetingCount; i++) {
+                Meeting meeting = meetingList.get(i);
+                meeting.setRequiredLearner(get(attendanceList, learnerAttendanceOrdinals[i]));
+                meeting.setRequiredPatient(get(attendanceList, patientAttendanceOrdinals[i]));
+            }
+
+            int scenarioCount = buffer.getInt();
+            long[] scenarioEntityIds = readLongs(scenarioCount);
+            List<Scenario> scenarioList = new ArrayList<>(scenarioCount);
+            for (int i = 0; i < scenarioCount; i++) {
+                Scenario scenario = new Scenario();
+                scenario.setId(scenarioEntityIds[i]);
+                scenarioList.add(scenario);
+            }
+            for (Scenario scenario : scenarioList) {
+                scenario.setName(readString());
+            }
+            for (Scenario scenario : scenarioList) {
+                int[] patientOrdinals = readInts(buffer.getInt());
+                List<Attendance> patientList = new ArrayList<>(patientOrdinals.length);
+                for (int patientOrdinal : patientOrdinals) {
+                    patientList.add(get(attendanceList, patientOrdinal));
+                }
+                scenario.setPatients(patientList);
+            }
+            solution.setScenarioList(scenarioList);
+
+            int meetingAssignmentCount = buffer.getInt();
+            long[] meetingAssignmentIds = readLongs(meetingAssignmentCount);
+            int[] meetingOrdinals = readInts(meetingAssignmentCount);
+            int[] timeGrainOrdinals = readInts(meetingAssignmentCount);
+            int[] roomOrdinals = readInts(meetingAssignmentCount);
+            List<MeetingAssignment> meetingAssignmentList = new ArrayList<>(
+                meetingAssignmentCount);
+            for (int i = 0; i < meetingAssignmentCount; i++) {
+                MeetingAssignment meetingAssignment = new MeetingAssignment(
+                    get(meetingList, meetingOrdinals[i]),
+                    get(timeGrainList, timeGrainOrdinals[i]),
+                    get(roomList, roomOrdinals[i]));
+                meetingAssignment.setId(meetingAssignmentIds[i]);
+                meetingAssignmentList.add(meetingAssignment);
+            }
+            for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+                meetingAssignment.setPinned(buffer.get() != 0);
+            }
+            solution.setMeetingAssignmentList(meetingAssignmentList);
+            solution.initializeStartingTimeGrainRanges();
+
+            if (buffer.hasRemaining()) {
+                throw new IllegalStateException("The snapshot has " + buffer.remaining()
+                    + " unread bytes after the meeting assignments.");
+            }
+            return solution;
+        }
+
+        private MeetingConstraintConfiguration readConstraintConfiguration() {
+            MeetingConstraintConfiguration constraintConfiguration = new MeetingConstraintConfiguration();
+            constraintConfiguration.setId(0L);
+            constraintConfiguration.setRoomConflict(readScore());
+            constraintConfiguration.setDontGoInOvertime(readScore());
+            constraintConfiguration.setRequiredAttendanceConflict(readScore());
+            constraintConfiguration.setAssignedMeetings(readScore());
+            constraintConfiguration.setHalfAssignedMeetings(readScore());
+            constraintConfiguration.setDoAllMeetingsAsSoonAsPossible(readScore());
+            constraintConfiguration.setOverlappingMeetings(readScore());
+            constraintConfiguration.setRoomStability(readScore());
+            return constraintConfiguration;
+        }
+
+        private HardMediumSoftScore readScore() {
+            if (buffer.get() == 0) {
+                return null;
+            }
+            int initScore = buffer.getInt();
+            int hardScore = buffer.getInt();
+            int mediumScore = buffer.getInt();
+            int softScore = buffer.getInt();
+            return HardMediumSoftScore.ofUninitialized(initScore, hardScore, mediumScore,
+                softScore);
+        }
+
+        private int[] readInts(int count) {
+            int[] values = new int[count];
+            buffer.asIntBuffer().get(values);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+            return values;
+        }
+
+        private long[] readLongs(int count) {
+            long[] values = new long[count];
+            buffer.asLongBuffer().get(values);
+            buffer.position(buffer.position() + count * Long.BYTES);
+            return values;
+        }
+
+        private String readString() {
+            int length = buffer.getInt();
+            if (length == NULL_STRING_LENGTH) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static <T> T get(List<T> list, int ordinal) {
+            return ordinal == NO_ORDINAL ? null : list.get(ordinal);
+        }
+    }
+}
@@ -9,8 +9,18 @@ import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.blinemedical.examination.app.ExaminationApp;
@@ -33,23 +43,121 @@ public class MeetingSchedulingGenerator {
 
     private static final Logger logger = LogManager.getLogger(MeetingSchedulingGenerator.class);
 
+    private static final Instant DEFAULT_START_TIME = Instant.parse("2020-12-18T08:00:00.00Z");
+    private static final int DEFAULT_GRAINS_PER_DAY = 8;
+    private static final long DEFAULT_SEED = 37L;
+    // The full name generator only has a limited number of unique combinations
+    private static final int FULL_NAME_POOL_SIZE = 200;
+    private static final Set<String> OPTION_NAMES = Set.of("learners", "scenarios", "patients",
+        "rooms", "days", "grains-per-day", "min-duration", "max-duration", "seeds", "threads",
+        "output-dir");
+
+    /**
+     * Without arguments, writes the FAKE-* datasets used by the benchmarks. Otherwise writes one
+     * dataset per learner count and seed, for example:
+     * <pre>
+     * --learners 500,1000,2000 --scenarios 80 --patients 4 --rooms 60 --days 5
+     * --grains-per-day 8 --min-duration 1 --max-duration 3 --seeds 2 --threads 2
+     * </pre>
+     * Every thread holds one dataset in memory, so use {@code --threads 1} for the largest ones.
+     */
     public static void main(String[] args) {
-        MeetingSchedulingGenerator generator = new MeetingSchedulingGenerator();
-
-        Instant startTime = Instant.parse("2020-12-18T08:00:00.00Z");
-        Instant endTime = Instant.parse("2020-12-18T16:00:00.00Z");
-        Duration meetingDuration = Duration.ofMinutes(GRAIN_LENGTH_IN_MINUTES);
-        int meetingDurationInGrains = (int) (meetingDuration.toMinutes() / GRAIN_LENGTH_IN_MINUTES);
-
-        generator.writeMeetingSchedule(2, 2, 2, 1, startTime, endTime, meetingDurationInGrains);
-        generator.writeMeetingSchedule(7, 3, 2, 5, startTime, endTime, meetingDurationInGrains);
-        generator.writeMeetingSchedule(10, 4, 3, 6, startTime, endTime, meetingDurationInGrains);
-        generator.writeMeetingSchedule(15, 4, 4, 7, startTime, endTime, meetingDurationInGrains);
-        generator.writeMeetingSchedule(20, 5, 4, 10, startTime, endTime, meetingDurationInGrains);
-        generator.writeMeetingSchedule(30, 6, 5, 15, startTime, endTime, meetingDurationInGrains);
+        List<DatasetSize> datasetSizeList = new ArrayList<>();
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        File outputDir = null;
+        if (args.length == 0) {
+            datasetSizeList.add(new DatasetSize(2, 2, 2, 1));
+            datasetSizeList.add(new DatasetSize(7, 3, 2, 5));
+            datasetSizeList.add(new DatasetSize(10, 4, 3, 6));
+            datasetSizeList.add(new DatasetSize(15, 4, 4, 7));
+            datasetSizeList.add(new DatasetSize(20, 5, 4, 10));
+            datasetSizeList.add(new DatasetSize(30, 6, 5, 15));
+        } else {
+            Map<String, String> optionMap = parseOptions(args);
+            int[] learnersListSizes = Arrays.stream(optionMap.getOrDefault("learners", "30")
+                .split(",")).mapToInt(Integer::parseInt).toArray();
+            int numScenarios = Integer.parseInt(optionMap.getOrDefault("scenarios", "6"));
+            int patientsPerScenario = Integer.parseInt(optionMap.getOrDefault("patients", "5"));
+            int roomListSize = Integer.parseInt(optionMap.getOrDefault("rooms", "15"));
+            int dayCount = Integer.parseInt(optionMap.getOrDefault("days", "1"));
+            int grainsPerDay = Integer.parseInt(optionMap.getOrDefault("grains-per-day",
+                String.valueOf(DEFAULT_GRAINS_PER_DAY)));
+            int minimumDurationInGrains = Integer.parseInt(
+                optionMap.getOrDefault("min-duration", "1"));
+            int maximumDurationInGrains = Integer.parseInt(optionMap.getOrDefault("max-duration",
+                String.valueOf(minimumDurationInGrains)));
+            int seedCount = Integer.parseInt(optionMap.getOrDefault("seeds", "1"));
+            if (optionMap.containsKey("threads")) {
+                threadCount = Integer.parseInt(optionMap.get("threads"));
+            }
+            if (optionMap.containsKey("output-dir")) {
+                outputDir = new File(optionMap.get("output-dir"));
+            }
+            for (int learnersListSize : learnersListSizes) {
+                for (int seedIndex = 0; seedIndex < seedCount; seedIndex++) {
+                    datasetSizeList.add(new DatasetSize(learnersListSize, numScenarios,
+                        patientsPerScenario, roomListSize, dayCount, grainsPerDay,
+                        minimumDurationInGrains, maximumDurationInGrains,
+                        DEFAULT_SEED + seedIndex));
+                }
+            }
+        }
+        if (outputDir == null) {
+            outputDir = new File(CommonApp.determineDataDir(ExaminationApp.DATA_DIR_NAME),
+                "unsolved");
+        }
+        writeMeetingSchedules(datasetSizeList, outputDir, threadCount);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> optionMap = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("The argument (" + args[i]
+                    + ") must be an option like --learners followed by its value.");
+            }
+            String optionName = args[i].substring(2);
+            if (!OPTION_NAMES.contains(optionName)) {
+                throw new IllegalArgumentException("The option (" + args[i]
+                    + ") is unknown, use one of " + OPTION_NAMES.stream().sorted()
+                    .map(name -> "--" + name).collect(Collectors.joining(", ")) + ".");
+            }
+            optionMap.put(optionName, args[i + 1]);
+        }
+        return optionMap;
+    }
+
+    /**
+     * Each task uses its own generator, because the name generator and the {@link Random} are
+     * not thread-safe. A dataset can be garbage collected as soon as it is written.
+     */
+    private static void writeMeetingSchedules(List<DatasetSize> datasetSizeList, File outputDir,
+        int threadCount) {
+        ExecutorService executorService = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(threadCount, datasetSizeList.size())));
+        List<Future<?>> futureList = new ArrayList<>(datasetSizeList.size());
+        for (DatasetSize datasetSize : datasetSizeList) {
+            futureList.add(executorService.submit(() ->
+                new MeetingSchedulingGenerator(outputDir).writeMeetingSchedule(datasetSize)));
+        }
+        executorService.shutdown();
+        try {
+            for (Future<?> future : futureList) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executorService.shutdownNow();
+            throw new IllegalStateException("Interrupted while writing the datasets.", e);
+        } catch (ExecutionException e) {
+            executorService.shutdownNow();
+            throw new IllegalStateException("Writing a dataset failed.", e.getCause());
+        }
     }
 
     private final StringDataGenerator fullNameGenerator = StringDataGenerator.buildFullNames();
+    private final List<String> fullNamePool = new ArrayList<>(FULL_NAME_POOL_SIZE);
+    private int fullNameCount = 0;
 
     protected final SolutionFileIO<MeetingSchedule> solutionFileIO;
     protected final File outputDir;
@@ -57,46 +165,35 @@ public class MeetingSchedulingGenerator {
     protected Random random;
 
     public MeetingSchedulingGenerator() {
-        solutionFileIO = new MeetingSchedulingXlsxFileIO();
-        outputDir = new File(CommonApp.determineDataDir(ExaminationApp.DATA_DIR_NAME), "unsolved");
+        this(new File(CommonApp.determineDataDir(ExaminationApp.DATA_DIR_NAME), "unsolved"));
     }
 
-    private void writeMeetingSchedule(int learnersListSize, int numScenarios,
-        int patientsPerScenario, int roomListSize,
-        Instant startTime,
-        Instant endTime, int durationInGrains) {
-        Duration meetingDuration = Duration.between(startTime, endTime);
-        int timeGrainListSize = (int) (meetingDuration.toMinutes() / GRAIN_LENGTH_IN_MINUTES);
+    public MeetingSchedulingGenerator(File outputDir) {
+        // The larger generated sizes don't fit in memory as a full XSSF workbook
+        solutionFileIO = new MeetingSchedulingXlsxFileIO(true);
+        this.outputDir = outputDir;
+    }
 
-        String fileName = determineFileName(
-            learnersListSize,
-            numScenarios,
-            patientsPerScenario,
-            roomListSize);
+    private void writeMeetingSchedule(DatasetSize datasetSize) {
+        String fileName = datasetSize.determineFileName();
         File outputFile = new File(outputDir,
             fileName + "." + solutionFileIO.getOutputFileExtension());
         MeetingSchedule meetingSchedule = createMeetingSchedule(
             fileName,
-            learnersListSize,
-            numScenarios,
-            patientsPerScenario,
-            startTime,
-            timeGrainListSize,
-            roomListSize,
-            durationInGrains);
+            datasetSize.learnersListSize,
+            datasetSize.numScenarios,
+            datasetSize.patientsPerScenario,
+            DEFAULT_START_TIME,
+            datasetSize.grainsPerDay,
+            datasetSize.dayCount,
+            datasetSize.roomListSize,
+            datasetSize.minimumDurationInGrains,
+            datasetSize.maximumDurationInGrains,
+            datasetSize.seed);
         solutionFileIO.write(meetingSchedule, outputFile);
         logger.info("Saved: {}", outputFile);
     }
 
-    private String determineFileName(int learnersListSize, int numScenarios,
-        int patientsPerScenario, int roomListSize) {
-        return "FAKE-"
-            + learnersListSize + "L-"
-            + numScenarios + "SC-"
-            + patientsPerScenario + "SP-"
-            + roomListSize + "R";
-    }
-
     public MeetingSchedule createMeetingSchedule(
         String fileName,
         int learnersListSize,
@@ -106,8 +203,25 @@ public class MeetingSchedulingGenerator {
         int timeGrainListSize,
         int roomListSize,
         int durationInGrains) {
+        return createMeetingSchedule(fileName, learnersListSize, numScenarios,
+            patientsPerScenario, startTime, timeGrainListSize, 1, roomListSize, durationInGrains,
+            durationInGrains, DEFAULT_SEED);
+    }
 
-        random = new Random(37);
+    public MeetingSchedule createMeetingSchedule(
+        String fileName,
+        int learnersListSize,
+        int numScenarios,
+        int patientsPerScenario,
+        Instant startTime,
+        int grainsPerDay,
+        int dayCount,
+        int roomListSize,
+        int minimumDurationInGrains,
+        int maximumDurationInGrains,
+        long seed) {
+
+        random = new Random(seed);
         MeetingSchedule meetingSchedule = new MeetingSchedule();
         meetingSchedule.setId(0L);
         MeetingConstraintConfiguration constraintConfiguration = new MeetingConstraintConfiguration();
@@ -120,11 +234,13 @@ public class MeetingSchedulingGenerator {
         List<Attendance> learnerList = createLearners(meetingSchedule, learnersListSize);
         createScenariosAndPatients(meetingSchedule, learnersListSize, numScenarios, patientsPerScenario);
         createMeetingListAndAttendanceList(meetingSchedule, learnerList,
-            durationInGrains);
-        createTimeGrainList(meetingSchedule, startTime, timeGrainListSize);
+            () -> minimumDurationInGrains
+                + random.nextInt(maximumDurationInGrains - minimumDurationInGrains + 1));
+        createTimeGrainList(meetingSchedule, startTime, grainsPerDay, dayCount);
         createRoomList(meetingSchedule, roomListSize);
         createMeetingAssignmentList(meetingSchedule);
 
+        int timeGrainListSize = grainsPerDay * dayCount;
         BigInteger possibleSolutionSize = BigInteger
             .valueOf((long) timeGrainListSize * roomListSize)
             .pow(meetingSchedule.getMeetingAssignmentList().size());
@@ -135,7 +251,7 @@ public class MeetingSchedulingGenerator {
             fileName,
             learnersListSize,
             numScenarios,
-            patientsPerScenario,
+            numScenarios * patientsPerScenario,
             timeGrainListSize,
             roomListSize,
             AbstractSolutionImporter.getFlooredPossibleSolutionSize(possibleSolutionSize));
@@ -212,6 +328,11 @@ public class MeetingSchedulingGenerator {
 
     public static void createMeetingListAndAttendanceList(MeetingSchedule meetingSchedule,
         List<Attendance> learnerList, int durationInGrains) {
+        createMeetingListAndAttendanceList(meetingSchedule, learnerList, () -> durationInGrains);
+    }
+
+    public static void createMeetingListAndAttendanceList(MeetingSchedule meetingSchedule,
+        List<Attendance> learnerList, IntSupplier durationInGrainsSupplier) {
 
         List<Meeting> meetingList = new ArrayList<>();
         long meetingId = 0L;
@@ -219,6 +340,7 @@ public class MeetingSchedulingGenerator {
         for(Attendance learner : learnerList) {
             for(Scenario scenario : meetingSchedule.getScenarioList()) {
                 for(Attendance patient : scenario.getPatients()) {
+                    int durationInGrains = durationInGrainsSupplier.getAsInt();
                     Meeting meeting = new Meeting();
                     meeting.setId(meetingId++);
                     meeting.setDurationInGrains(durationInGrains);
@@ -246,12 +368,21 @@ public class MeetingSchedulingGenerator {
 
     public static void createTimeGrainList(MeetingSchedule meetingSchedule, Instant startTime,
         int timeGrainListSize) {
-        List<Day> dayList = new ArrayList<>(timeGrainListSize);
+        createTimeGrainList(meetingSchedule, startTime, timeGrainListSize, 1);
+    }
+
+    /**
+     * Every day has the same grains, starting at the time of day of the startTime.
+     */
+    public static void createTimeGrainList(MeetingSchedule meetingSchedule, Instant startTime,
+        int grainsPerDay, int dayCount) {
+        int timeGrainListSize = grainsPerDay * dayCount;
+        List<Day> dayList = new ArrayList<>(dayCount);
         long dayId = 0;
         Day day = null;
         List<TimeGrain> timeGrainList = new ArrayList<>(timeGrainListSize);
         int[] startingMinuteOfDayOptions = getStartingMinuteOfDayOptions(startTime,
-            timeGrainListSize);
+            grainsPerDay);
         for (int i = 0; i < timeGrainListSize; i++) {
             TimeGrain timeGrain = new TimeGrain();
             timeGrain.setId((long) i);
@@ -308,12 +439,26 @@ public class MeetingSchedulingGenerator {
     private Person createPerson(long id) {
         Person person = new Person();
         person.setId(id);
-        String fullName = fullNameGenerator.generateNextValue();
+        String fullName = nextFullName();
         person.setFullName(fullName);
         logger.trace("Created person with fullName ({}).", fullName);
         return person;
     }
 
+    /**
+     * Past the pool size, the names repeat with a number, because they must stay unique.
+     */
+    private String nextFullName() {
+        int index = fullNameCount++;
+        if (index < FULL_NAME_POOL_SIZE) {
+            String fullName = fullNameGenerator.generateNextValue();
+            fullNamePool.add(fullName);
+            return fullName;
+        }
+        return fullNamePool.get(index % FULL_NAME_POOL_SIZE) + " "
+            + (index / FULL_NAME_POOL_SIZE + 1);
+    }
+
     public static void createMeetingAssignmentList(MeetingSchedule meetingSchedule) {
         List<Meeting> meetingList = meetingSchedule.getMeetingList();
         List<MeetingAssignment> meetingAssignmentList = new ArrayList<>(meetingList.size());
@@ -324,6 +469,69 @@ public class MeetingSchedulingGenerator {
             meetingAssignmentList.add(meetingAssignment);
         }
         meetingSchedule.setMeetingAssignmentList(meetingAssignmentList);
+        meetingSchedule.initializeStartingTimeGrainRanges();
     }
 
+    private static final class DatasetSize {
+
+        private final int learnersListSize;
+        private final int numScenarios;
+        private final int patientsPerScenario;
+        private final int roomListSize;
+        private final int dayCount;
+        private final int grainsPerDay;
+        private final int minimumDurationInGrains;
+        private final int maximumDurationInGrains;
+        private final long seed;
+
+        private DatasetSize(int learnersListSize, int numScenarios, int patientsPerScenario,
+            int roomListSize) {
+            this(learnersListSize, numScenarios, patientsPerScenario, roomListSize, 1,
+                DEFAULT_GRAINS_PER_DAY, 1, 1, DEFAULT_SEED);
+        }
+
+        private DatasetSize(int learnersListSize, int numScenarios, int patientsPerScenario,
+            int roomListSize, int dayCount, int grainsPerDay, int minimumDurationInGrains,
+            int maximumDurationInGrains, long seed) {
+            if (minimumDurationInGrains < 1 || maximumDurationInGrains < minimumDurationInGrains
+                || maximumDurationInGrains > grainsPerDay) {
+                throw new IllegalArgumentException("The minimumDurationInGrains ("
+                    + minimumDurationInGrains + ") and maximumDurationInGrains ("
+                    + maximumDurationInGrains + ") must be between 1 and the grainsPerDay ("
+                    + grainsPerDay + ").");
+            }
+            this.learnersListSize = learnersListSize;
+            this.numScenarios = numScenarios;
+            this.patientsPerScenario = patientsPerScenario;
+            this.roomListSize = roomListSize;
+            this.dayCount = dayCount;
+            this.grainsPerDay = grainsPerDay;
+            this.minimumDurationInGrains = minimumDurationInGrains;
+            this.maximumDurationInGrains = maximumDurationInGrains;
+            this.seed = seed;
+        }
+
+        /**
+         * The default parts are left out, so the benchmark datasets keep their names.
+         */
+        private String determineFileName() {
+            StringBuilder fileName = new StringBuilder("FAKE-")
+                .append(learnersListSize).append("L-")
+                .append(numScenarios).append("SC-")
+                .append(patientsPerScenario).append("SP-")
+                .append(roomListSize).append("R");
+            if (dayCount != 1 || grainsPerDay != DEFAULT_GRAINS_PER_DAY) {
+                fileName.append("-").append(dayCount).append("D")
+                    .append(grainsPerDay).append("G");
+            }
+            if (minimumDurationInGrains != 1 || maximumDurationInGrains != 1) {
+                fileName.append("-").append(minimumDurationInGrains).append("to")
+                    .append(maximumDurationInGrains).append("DUR");
+            }
+            if (seed != DEFAULT_SEED) {
+                fileName.append("-S").append(seed - DEFAULT_SEED);
+            }
+            return fileName.toString();
+        }
+    }
 }
@@ -0,0 +1,662 @@
+package org.blinemedical.examination.persistence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.blinemedical.examination.domain.Attendance;
+import org.blinemedical.examination.domain.Day;
+import org.blinemedical.examination.domain.Meeting;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingConstraintConfiguration;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.domain.TimeGrain;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.persistence.common.api.domain.solution.SolutionFileIO;
+
+/**
+ * Reads and writes a {@link MeetingSchedule} as JSON, token by token, so no JSON tree is ever
+ * built. Every fact and entity has an {@code id} and refers to other objects by their id, for
+ * example {@code {"id": 3, "meeting": 3, "startingTimeGrain": 12, "room": 1, "pinned": false}}.
+ * <p>
+ * The writer puts every list before the lists that refer to it, but the reader accepts the
+ * properties in any order: a reference to an object that isn't read yet is resolved at the end.
+ */
+public class MeetingSchedulingJsonFileIO implements SolutionFileIO<MeetingSchedule> {
+
+    public static final String FILE_EXTENSION = "json";
+
+    private static final int FORMAT_VERSION = 1;
+
+    @Override
+    public String getInputFileExtension() {
+        return FILE_EXTENSION;
+    }
+
+    @Override
+    public MeetingSchedule read(File inputSolutionFile) {
+        try (JsonReader in = new JsonReader(
+            Files.newBufferedReader(inputSolutionFile.toPath(), StandardCharsets.UTF_8))) {
+            return new MeetingSchedulingJsonReader(in).read();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed reading inputSolutionFile ("
+                + inputSolutionFile + ").", e);
+        }
+    }
+
+    /**
+     * Reads a schedule from any JSON source, such as an HTTP request body. The reader is not
+     * closed.
+     */
+    public MeetingSchedule read(Reader reader) throws IOException {
+        return new MeetingSchedulingJsonReader(new JsonReader(reader)).read();
+    }
+
+    @Override
+    public void write(MeetingSchedule solution, File outputSolutionFile) {
+        try (JsonWriter out = new JsonWriter(
+            Files.newBufferedWriter(outputSolutionFile.toPath(), StandardCharsets.UTF_8))) {
+            out.setIndent("  ");
+            new MeetingSchedulingJsonWriter(solution, out).write();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Failed writing outputSolutionFile ("
+                + outputSolutionFile + ") for schedule (" + solution + ").", e);
+        }
+    }
+
+    /**
+     * Writes a schedule to any JSON sink, such as an HTTP response body. The writer is flushed,
+     * but not closed.
+     */
+    public void write(MeetingSchedule solution, Writer writer) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        new MeetingSchedulingJsonWriter(solution, out).write();
+        out.flush();
+    }
+
+    // ************************************************************************
+    // Reader
+    // ************************************************************************
+
+    private static class MeetingSchedulingJsonReader {
+
+        private final JsonReader in;
+
+        private final Map<Long, Day> dayMap = new HashMap<>();
+        private final Map<Long, TimeGrain> timeGrainMap = new HashMap<>();
+        private final Map<Long, Room> roomMap = new HashMap<>();
+        private final Map<Long, Person> personMap = new HashMap<>();
+        private final Map<Long, Meeting> meetingMap = new HashMap<>();
+        private final Map<Long, Attendance> attendanceMap = new HashMap<>();
+        // Only the references to objects that come later in the file
+        private final List<Runnable> forwardReferenceList = new ArrayList<>();
+
+        MeetingSchedulingJsonReader(JsonReader in) {
+            this.in = in;
+        }
+
+        MeetingSchedule read() throws IOException {
+            MeetingSchedule solution = new MeetingSchedule();
+            solution.setId(0L);
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "formatVersion":
+                        int formatVersion = in.nextInt();
+                        if (formatVersion != FORMAT_VERSION) {
+                            throw new IllegalStateException("The formatVersion (" + formatVersion
+                                + ") is not supported, only version (" + FORMAT_VERSION
+                                + ") is.");
+                        }
+                        break;
+                    case "constraintConfiguration":
+                        solution.setConstraintConfiguration(readConstraintConfiguration());
+                        break;
+                    case "score":
+                        solution.setScore(nextScore());
+                        break;
+                    case "days":
+                        solution.setDayList(readList(dayMap, Day::getId, this::readDay));
+                        break;
+                    case "timeGrains":
+                        solution.setTimeGrainList(
+                            readList(timeGrainMap, TimeGrain::getId, this::readTimeGrain));
+                        break;
+                    case "rooms":
+                        solution.setRoomList(readList(roomMap, Room::getId, this::readRoom));
+                        break;
+                    case "persons":
+                        solution.setPersonList(
+                            readList(personMap, Person::getId, this::readPerson));
+                        break;
+                    case "meetings":
+                        solution.setMeetingList(
+                            readList(meetingMap, Meeting::getId, this::readMeeting));
+                        break;
+                    case "attendances":
+                        solution.setAttendanceList(
+                            readList(attendanceMap, Attendance::getId, this::readAttendance));
+                        break;
+                    case "scenarios":
+                        solution.setScenarioList(
+                            readList(new HashMap<>(), Scenario::getId, this::readScenario));
+                        break;
+                    case "meetingAssignments":
+                        solution.setMeetingAssignmentList(
+                            readList(new HashMap<>(), MeetingAssignment::getId,
+                                this::readMeetingAssignment));
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            forwardReferenceList.forEach(Runnable::run);
+            if (solution.getConstraintConfiguration() == null) {
+                MeetingConstraintConfiguration constraintConfiguration =
+                    new MeetingConstraintConfiguration();
+                constraintConfiguration.setId(0L);
+                solution.setConstraintConfiguration(constraintConfiguration);
+            }
+            solution.initializeStartingTimeGrainRanges();
+            return solution;
+        }
+
+        private MeetingConstraintConfiguration readConstraintConfiguration() throws IOException {
+            MeetingConstraintConfiguration constraintConfiguration =
+                new MeetingConstraintConfiguration();
+            constraintConfiguration.setId(0L);
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "roomConflict":
+                        constraintConfiguration.setRoomConflict(nextScore());
+                        break;
+                    case "dontGoInOvertime":
+                        constraintConfiguration.setDontGoInOvertime(nextScore());
+                        break;
+                    case "requiredAttendanceConflict":
+                        constraintConfiguration.setRequiredAttendanceConflict(nextScore());
+                        break;
+                    case "assignedMeetings":
+                        constraintConfiguration.setAssignedMeetings(nextScore());
+                        break;
+                    case "halfAssignedMeetings":
+                        constraintConfiguration.setHalfAssignedMeetings(nextScore());
+                        break;
+                    case "doAllMeetingsAsSoonAsPossible":
+                        constraintConfiguration.setDoAllMeetingsAsSoonAsPossible(nextScore());
+                        break;
+                    case "overlappingMeetings":
+                        constraintConfiguration.setOverlappingMeetings(nextScore());
+                        break;
+                    case "roomStability":
+                        constraintConfiguration.setRoomStability(nextScore());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return constraintConfiguration;
+        }
+
+        private Day readDay() throws IOException {
+            Day day = new Day();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        day.setId(in.nextLong());
+                        break;
+                    case "dayOfYear":
+                        day.setDayOfYear(in.nextInt());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return day;
+        }
+
+        private TimeGrain readTimeGrain() throws IOException {
+            TimeGrain timeGrain = new TimeGrain();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        timeGrain.setId(in.nextLong());
+                        break;
+                    case "grainIndex":
+                        timeGrain.setGrainIndex(in.nextInt());
+                        break;
+                    case "day":
+                        resolve(dayMap, "day", in.nextLong(), timeGrain::setDay);
+                        break;
+                    case "startingMinuteOfDay":
+                        timeGrain.setStartingMinuteOfDay(in.nextInt());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return timeGrain;
+        }
+
+        private Room readRoom() throws IOException {
+            Room room = new Room();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        room.setId(in.nextLong());
+                        break;
+                    case "name":
+                        room.setName(nextNullableString());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return room;
+        }
+
+        private Person readPerson() throws IOException {
+            Person person = new Person();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        person.setId(in.nextLong());
+                        break;
+                    case "personId":
+                        person.setPersonId(nextNullableString());
+                        break;
+                    case "fullName":
+                        person.setFullName(nextNullableString());
+                        break;
+                    case "patient":
+                        person.setPatient(in.nextBoolean());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return person;
+        }
+
+        private Meeting readMeeting() throws IOException {
+            Meeting meeting = new Meeting();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        meeting.setId(in.nextLong());
+                        break;
+                    case "durationInGrains":
+                        meeting.setDurationInGrains(in.nextInt());
+                        break;
+                    case "scenarioId":
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                        } else {
+                            meeting.setScenarioId(in.nextLong());
+                        }
+                        break;
+                    case "requiredLearner":
+                        resolveNullable(attendanceMap, "attendance", meeting::setRequiredLearner);
+                        break;
+                    case "requiredPatient":
+                        resolveNullable(attendanceMap, "attendance", meeting::setRequiredPatient);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return meeting;
+        }
+
+        private Attendance readAttendance() throws IOException {
+            Attendance attendance = new Attendance();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        attendance.setId(in.nextLong());
+                        break;
+                    case "person":
+                        resolve(personMap, "person", in.nextLong(), attendance::setPerson);
+                        break;
+                    case "meeting":
+                        resolve(meetingMap, "meeting", in.nextLong(), attendance::setMeeting);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return attendance;
+        }
+
+        private Scenario readScenario() throws IOException {
+            Scenario scenario = new Scenario();
+            scenario.setPatients(new ArrayList<>());
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        scenario.setId(in.nextLong());
+                        break;
+                    case "name":
+                        scenario.setName(nextNullableString());
+                        break;
+                    case "patients":
+                        List<Attendance> patientList = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            int index = patientList.size();
+                            patientList.add(null);
+                            resolve(attendanceMap, "attendance", in.nextLong(),
+                                patient -> patientList.set(index, patient));
+                        }
+                        in.endArray();
+                        scenario.setPatients(patientList);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return scenario;
+        }
+
+        private MeetingAssignment readMeetingAssignment() throws IOException {
+            MeetingAssignment meetingAssignment = new MeetingAssignment();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                switch (name) {
+                    case "id":
+                        meetingAssignment.setId(in.nextLong());
+                        break;
+                    case "meeting":
+                        resolve(meetingMap, "meeting", in.nextLong(),
+                            meetingAssignment::setMeeting);
+                        break;
+                    case "startingTimeGrain":
+                        resolveNullable(timeGrainMap, "timeGrain",
+                            meetingAssignment::setStartingTimeGrain);
+                        break;
+                    case "room":
+                        resolveNullable(roomMap, "room", meetingAssignment::setRoom);
+                        break;
+                    case "pinned":
+                        meetingAssignment.setPinned(in.nextBoolean());
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            return meetingAssignment;
+        }
+
+        // ************************************************************************
+        // Helper methods
+        // ************************************************************************
+
+        private <T> List<T> readList(Map<Long, T> idMap, Function<T, Long> idFunction,
+            JsonElementReader<T> elementReader) throws IOException {
+            List<T> list = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                T element = elementReader.read();
+                Long id = idFunction.apply(element);
+                if (id == null) {
+                    throw new IllegalStateException("The element (" + element
+                        + ") at index (" + list.size() + ") has no id.");
+                }
+                if (idMap.put(id, element) != null) {
+                    throw new IllegalStateException("The element (" + element
+                        + ") has the same id (" + id + ") as another element.");
+                }
+                list.add(element);
+            }
+            in.endArray();
+            return list;
+        }
+
+        private <T> void resolve(Map<Long, T> idMap, String type, long id, Consumer<T> setter) {
+            T value = idMap.get(id);
+            if (value != null) {
+                setter.accept(value);
+                return;
+            }
+            forwardReferenceList.add(() -> {
+                T forwardValue = idMap.get(id);
+                if (forwardValue == null) {
+                    throw new IllegalStateException("The " + type + " id (" + id
+                        + ") does not exist.");
+                }
+                setter.accept(forwardValue);
+            });
+        }
+
+        private <T> void resolveNullable(Map<Long, T> idMap, String type, Consumer<T> setter)
+            throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                setter.accept(null);
+            } else {
+                resolve(idMap, type, in.nextLong(), setter);
+            }
+        }
+
+        private String nextNullableString() throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextString();
+        }
+
+        private HardMediumSoftScore nextScore() throws IOException {
+            String scoreString = nextNullableString();
+            return scoreString == null ? null : HardMediumSoftScore.parseScore(scoreString);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonElementReader<T> {
+
+        T read() throws IOException;
+    }
+
+    // ************************************************************************
+    // Writer
+    // ************************************************************************
+
+    private static class MeetingSchedulingJsonWriter {
+
+        private final MeetingSchedule solution;
+        private final JsonWriter out;
+
+        MeetingSchedulingJsonWriter(MeetingSchedule solution, JsonWriter out) {
+            this.solution = solution;
+            this.out = out;
+        }
+
+        void write() throws IOException {
+            out.beginObject();
+            out.name("formatVersion").value(FORMAT_VERSION);
+            writeConstraintConfiguration();
+            out.name("score");
+            writeScore(solution.getScore());
+
+            out.name("days").beginArray();
+            for (Day day : solution.getDayList()) {
+                out.beginObject();
+                out.name("id").value(day.getId());
+                out.name("dayOfYear").value(day.getDayOfYear());
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("timeGrains").beginArray();
+            for (TimeGrain timeGrain : solution.getTimeGrainList()) {
+                out.beginObject();
+                out.name("id").value(timeGrain.getId());
+                out.name("grainIndex").value(timeGrain.getGrainIndex());
+                out.name("day").value(timeGrain.getDay().getId());
+                out.name("startingMinuteOfDay").value(timeGrain.getStartingMinuteOfDay());
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("rooms").beginArray();
+            for (Room room : solution.getRoomList()) {
+                out.beginObject();
+                out.name("id").value(room.getId());
+                out.name("name").value(room.getName());
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("persons").beginArray();
+            for (Person person : solution.getPersonList()) {
+                out.beginObject();
+                out.name("id").value(person.getId());
+                out.name("personId").value(person.getPersonId());
+                out.name("fullName").value(person.getFullName());
+                out.name("patient").value(person.isPatient());
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("meetings").beginArray();
+            for (Meeting meeting : solution.getMeetingList()) {
+                out.beginObject();
+                out.name("id").value(meeting.getId());
+                out.name("durationInGrains").value(meeting.getDurationInGrains());
+                out.name("scenarioId").value(meeting.getScenarioId());
+                out.name("requiredLearner").value(
+                    getId(meeting.getRequiredLearner(), Attendance::getId));
+                out.name("requiredPatient").value(
+                    getId(meeting.getRequiredPatient(), Attendance::getId));
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("attendances").beginArray();
+            for (Attendance attendance : solution.getAttendanceList()) {
+                out.beginObject();
+                out.name("id").value(attendance.getId());
+                out.name("person").value(attendance.getPerson().getId());
+                out.name("meeting").value(attendance.getMeeting().getId());
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("scenarios").beginArray();
+            for (Scenario scenario : solution.getScenarioList()) {
+                out.beginObject();
+                out.name("id").value(scenario.getId());
+                out.name("name").value(scenario.getName());
+                out.name("patients").beginArray();
+                for (Attendance patient : scenario.getPatients()) {
+                    out.value(patient.getId());
+                }
+                out.endArray();
+                out.endObject();
+            }
+            out.endArray();
+
+            out.name("meetingAssignments").beginArray();
+            for (MeetingAssignment meetingAssignment : solution.getMeetingAssignmentList()) {
+                out.beginObject();
+                out.name("id").value(meetingAssignment.getId());
+                out.name("meeting").value(meetingAssignment.getMeeting().getId());
+                out.name("startingTimeGrain").value(
+                    getId(meetingAssignment.getStartingTimeGrain(), TimeGrain::getId));
+                out.name("room").value(getId(meetingAssignment.getRoom(), Room::getId));
+                out.name("pinned").value(meetingAssignment.isPinned());
+                out.endObject();
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        private void writeConstraintConfiguration() throws IOException {
+            MeetingConstraintConfiguration constraintConfiguration = solution
+                .getConstraintConfiguration();
+            out.name("constraintConfiguration").beginObject();
+            out.name("roomConflict");
+            writeScore(constraintConfiguration.getRoomConflict());
+            out.name("dontGoInOvertime");
+            writeScore(constraintConfiguration.getDontGoInOvertime());
+            out.name("requiredAttendanceConflict");
+            writeScore(constraintConfiguration.getRequiredAttendanceConflict());
+            out.name("assignedMeetings");
+            writeScore(constraintConfiguration.getAssignedMeetings());
+            out.name("halfAssignedMeetings");
+            writeScore(constraintConfiguration.getHalfAssignedMeetings());
+            out.name("doAllMeetingsAsSoonAsPossible");
+            writeScore(constraintConfiguration.getDoAllMeetingsAsSoonAsPossible());
+            out.name("overlappingMeetings");
+            writeScore(constraintConfiguration.getOverlappingMeetings());
+            out.name("roomStability");
+            writeScore(constraintConfiguration.getRoomStability());
+            out.endObject();
+        }
+
+        private void writeScore(HardMediumSoftScore score) throws IOException {
+            if (score == null) {
+                out.nullValue();
+            } else {
+                out.value(score.toString());
+            }
+        }
+
+        private static <T> Long getId(T value, Function<T, Long> idFunction) {
+            return value == null ? null : idFunction.apply(value);
+        }
+    }
+}
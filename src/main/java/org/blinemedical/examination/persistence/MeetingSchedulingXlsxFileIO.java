@@ -21,9 +21,7 @@ import static org.blinemedical.examination.domain.MeetingConstraintConfiguration
 import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.ROOM_STABILITY;
 import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.ROOM_STABILITY_DESCRIPTION;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,19 +33,43 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.ClientAnchor;
 import org.apache.poi.ss.usermodel.Comment;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.streaming.SXSSFCell;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.blinemedical.examination.app.ExaminationApp;
 import org.blinemedical.examination.domain.Attendance;
@@ -64,172 +86,251 @@ import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore
 import org.optaplanner.core.api.score.constraint.ConstraintMatch;
 import org.optaplanner.core.api.score.constraint.Indictment;
 import org.optaplanner.examples.common.persistence.AbstractXlsxSolutionFileIO;
-import org.optaplanner.examples.meetingscheduling.app.MeetingSchedulingApp;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<MeetingSchedule> {
 
     private static final String COMMA_DELIMITER = ", ";
 
+    private static final List<String> VIEW_CONSTRAINT_NAMES = Arrays.asList(
+        ROOM_CONFLICT,
+        DONT_GO_IN_OVERTIME,
+        REQUIRED_ATTENDANCE_CONFLICT,
+
+        ASSIGNED_MEETINGS,
+        HALF_ASSIGNED_MEETINGS,
+
+        DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE,
+        OVERLAPPING_MEETINGS,
+        ROOM_STABILITY);
+
+    /**
+     * Output files with this name ending are always written {@link #isLightweight() lightweight}.
+     */
+    public static final String LIGHTWEIGHT_FILE_NAME_SUFFIX = ".data.xlsx";
+
+    private final boolean streaming;
+    private final boolean lightweight;
+
+    public MeetingSchedulingXlsxFileIO() {
+        this(false);
+    }
+
+    /**
+     * @param streaming true to write through a {@link SXSSFWorkbook}, which keeps only a window
+     * of rows in memory, see {@link MeetingSchedulingStreamingXlsxWriter}
+     */
+    public MeetingSchedulingXlsxFileIO(boolean streaming) {
+        this(streaming, false);
+    }
+
+    /**
+     * @param streaming see {@link #MeetingSchedulingXlsxFileIO(boolean)}
+     * @param lightweight true to write only the input sheets and the Meetings sheet, without the
+     * views, the score view and the indictment comments, see
+     * {@link MeetingSchedulingInputXlsxWriter}
+     */
+    public MeetingSchedulingXlsxFileIO(boolean streaming, boolean lightweight) {
+        this.streaming = streaming;
+        this.lightweight = lightweight;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public boolean isLightweight() {
+        return lightweight;
+    }
+
     @Override
     public MeetingSchedule read(File inputScheduleFile) {
-        try (InputStream in = new BufferedInputStream(new FileInputStream(inputScheduleFile))) {
-            XSSFWorkbook workbook = new XSSFWorkbook(in);
-            return new MeetingSchedulingXlsxReader(workbook).read();
-        } catch (IOException | RuntimeException e) {
+        try {
+            return new MeetingSchedulingXlsxReader(inputScheduleFile).read();
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException
+            | RuntimeException e) {
             throw new IllegalStateException("Failed reading inputScheduleFile ("
                 + inputScheduleFile + ").", e);
         }
     }
 
-    private static class MeetingSchedulingXlsxReader extends
-        AbstractXlsxReader<MeetingSchedule, HardMediumSoftScore> {
+    /**
+     * Reads the input sheets with POI's event model: each sheet is parsed with SAX and its rows
+     * are turned into domain objects as they stream in. The views and the score view, which make
+     * up most of a solved workbook, are never parsed.
+     */
+    private static class MeetingSchedulingXlsxReader {
 
-        MeetingSchedulingXlsxReader(XSSFWorkbook workbook) {
-            super(workbook, MeetingSchedulingApp.SOLVER_CONFIG);
-        }
+        private static final String DISALLOW_DOCTYPE_DECL_FEATURE =
+            "http://apache.org/xml/features/disallow-doctype-decl";
+
+        private final File inputScheduleFile;
+        private final MeetingSchedule solution = new MeetingSchedule();
+
+        private StylesTable styles;
+        private ReadOnlySharedStringsTable sharedStrings;
+        private Map<String, PackagePart> sheetPartMap;
+
+        private String currentSheetName;
+        private int currentRowNumber;
+        private int currentColumnNumber;
+        private List<String> currentRow;
 
-        public MeetingSchedule read() {
-            solution = new MeetingSchedule();
-            readConfiguration();
-            readDayList();
-            readRoomList();
-            readPersonList();
-            readMeetingList();
-            readScenarios();
+        // Used while the Meetings sheet streams in
+        private Map<String, Person> personMap;
+        private Map<LocalDateTime, TimeGrain> timeGrainMap;
+        private Map<String, Room> roomMap;
+        private long attendanceId;
 
+        MeetingSchedulingXlsxReader(File inputScheduleFile) {
+            this.inputScheduleFile = inputScheduleFile;
+        }
+
+        public MeetingSchedule read()
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+            try (OPCPackage opcPackage = OPCPackage.open(inputScheduleFile, PackageAccess.READ)) {
+                XSSFReader xssfReader = new XSSFReader(opcPackage);
+                styles = xssfReader.getStylesTable();
+                sharedStrings = new ReadOnlySharedStringsTable(opcPackage);
+                sheetPartMap = createSheetPartMap(xssfReader);
+
+                readConfiguration();
+                readDayList();
+                readRoomList();
+                readPersonList();
+                readMeetingList();
+                readScenarios();
+            }
             return solution;
         }
 
-        private void readConfiguration() {
-            nextSheet("Configuration");
-            nextRow();
-            nextRow(true);
-            readHeaderCell("Constraint");
-            readHeaderCell("Weight");
-            readHeaderCell("Description");
+        private Map<String, PackagePart> createSheetPartMap(XSSFReader xssfReader)
+            throws IOException, InvalidFormatException {
+            Map<String, PackagePart> sheetPartMap = new HashMap<>();
+            XSSFReader.SheetIterator sheetIterator =
+                (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            while (sheetIterator.hasNext()) {
+                // Only the part is kept, each sheet is opened again when it is read
+                try (InputStream sheetInputStream = sheetIterator.next()) {
+                    sheetPartMap.put(sheetIterator.getSheetName(), sheetIterator.getSheetPart());
+                }
+            }
+            return sheetPartMap;
+        }
+
+        private void readConfiguration()
+            throws IOException, SAXException, ParserConfigurationException {
+            Map<String, Integer> weightMap = new HashMap<>();
+            // The first row holds the time of the export
+            readSheet("Configuration", 1, new String[] {"Constraint", "Weight", "Description"},
+                () -> {
+                    String constraintName = nextStringCell();
+                    double weightDouble = nextNumericCell();
+                    if (weightDouble != Math.floor(weightDouble)) {
+                        throw new IllegalStateException(
+                            currentPosition() + ": The constraint (" + constraintName
+                                + ")'s weight (" + weightDouble + ") isn't an integer number.");
+                    }
+                    weightMap.put(constraintName, (int) weightDouble);
+                });
 
             MeetingConstraintConfiguration constraintConfiguration = new MeetingConstraintConfiguration();
             constraintConfiguration.setId(0L);
 
-            // TODO refactor this to allow setting pos/neg, weight and score level
             // Hard
-            readIntConstraintParameterLine(ROOM_CONFLICT,
-                hardScore -> constraintConfiguration
-                    .setRoomConflict(HardMediumSoftScore.ofHard(hardScore)),
-                ROOM_CONFLICT_DESCRIPTION);
-            readIntConstraintParameterLine(DONT_GO_IN_OVERTIME,
-                hardScore -> constraintConfiguration
-                    .setDontGoInOvertime(HardMediumSoftScore.ofHard(hardScore)),
-                DONT_GO_IN_OVERTIME_DESCRIPTION);
-            readIntConstraintParameterLine(REQUIRED_ATTENDANCE_CONFLICT,
-                hardScore -> constraintConfiguration
-                    .setRequiredAttendanceConflict(HardMediumSoftScore.ofHard(hardScore)),
-                REQUIRED_ATTENDANCE_CONFLICT_DESCRIPTION);
+            constraintConfiguration.setRoomConflict(HardMediumSoftScore.ofHard(
+                getWeight(weightMap, ROOM_CONFLICT)));
+            constraintConfiguration.setDontGoInOvertime(HardMediumSoftScore.ofHard(
+                getWeight(weightMap, DONT_GO_IN_OVERTIME)));
+            constraintConfiguration.setRequiredAttendanceConflict(HardMediumSoftScore.ofHard(
+                getWeight(weightMap, REQUIRED_ATTENDANCE_CONFLICT)));
             // Medium
-            readIntConstraintParameterLine(ASSIGNED_MEETINGS,
-                mediumScore -> constraintConfiguration
-                    .setAssignedMeetings(HardMediumSoftScore.ofMedium(mediumScore)),
-                ASSIGNED_MEETINGS_DESCRIPTION);
-            readIntConstraintParameterLine(HALF_ASSIGNED_MEETINGS,
-                mediumScore -> constraintConfiguration
-                    .setHalfAssignedMeetings(HardMediumSoftScore.ofMedium(mediumScore)),
-                HALF_ASSIGNED_MEETINGS_DESCRIPTION);
+            constraintConfiguration.setAssignedMeetings(HardMediumSoftScore.ofMedium(
+                getWeight(weightMap, ASSIGNED_MEETINGS)));
+            constraintConfiguration.setHalfAssignedMeetings(HardMediumSoftScore.ofMedium(
+                getWeight(weightMap, HALF_ASSIGNED_MEETINGS)));
             // Soft
-            readIntConstraintParameterLine(DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE,
-                softScore -> constraintConfiguration
-                    .setDoAllMeetingsAsSoonAsPossible(HardMediumSoftScore.ofSoft(softScore)),
-                DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE_DESCRIPTION);
-            readIntConstraintParameterLine(OVERLAPPING_MEETINGS,
-                softScore -> constraintConfiguration
-                    .setOverlappingMeetings(HardMediumSoftScore.ofSoft(softScore)),
-                OVERLAPPING_MEETINGS_DESCRIPTION);
-            readIntConstraintParameterLine(ROOM_STABILITY,
-                softScore -> constraintConfiguration
-                    .setRoomStability(HardMediumSoftScore.ofSoft(softScore)),
-                ROOM_STABILITY_DESCRIPTION);
+            constraintConfiguration.setDoAllMeetingsAsSoonAsPossible(HardMediumSoftScore.ofSoft(
+                getWeight(weightMap, DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE)));
+            constraintConfiguration.setOverlappingMeetings(HardMediumSoftScore.ofSoft(
+                getWeight(weightMap, OVERLAPPING_MEETINGS)));
+            constraintConfiguration.setRoomStability(HardMediumSoftScore.ofSoft(
+                getWeight(weightMap, ROOM_STABILITY)));
 
             solution.setConstraintConfiguration(constraintConfiguration);
         }
 
-        private void readPersonList() {
-            nextSheet("Persons");
-            nextRow(false);
-            readHeaderCell("Full name");
-            readHeaderCell("Patient");
-            readHeaderCell("Id");
-            List<Person> personList = new ArrayList<>(currentSheet.getLastRowNum() - 1);
-            while (nextRow()) {
+        private int getWeight(Map<String, Integer> weightMap, String constraintName) {
+            Integer weight = weightMap.get(constraintName);
+            if (weight == null) {
+                throw new IllegalStateException("The sheet (Configuration) has no weight for the"
+                    + " constraint (" + constraintName + ").");
+            }
+            return weight;
+        }
+
+        private void readPersonList()
+            throws IOException, SAXException, ParserConfigurationException {
+            List<Person> personList = new ArrayList<>();
+            readSheet("Persons", 0, new String[] {"Full name", "Patient", "Id"}, () -> {
                 Person person = new Person();
-                person.setFullName(nextStringCell().getStringCellValue());
+                person.setFullName(nextStringCell());
                 if (!VALID_NAME_PATTERN.matcher(person.getFullName()).matches()) {
                     throw new IllegalStateException(
                         currentPosition() + ": The person name (" + person.getFullName()
                             + ") must match to the regular expression (" + VALID_NAME_PATTERN
                             + ").");
                 }
-                person.setPatient(nextStringCell().getStringCellValue().equalsIgnoreCase("y"));
-                person.setId((long) nextCell().getNumericCellValue());
+                person.setPatient(nextStringCell().equalsIgnoreCase("y"));
+                person.setId((long) nextNumericCell());
                 personList.add(person);
-            }
+            });
             solution.setPersonList(personList);
         }
 
-        private void readMeetingList() {
-            Map<String, Person> personMap = solution.getPersonList().stream().collect(
+        private void readMeetingList()
+            throws IOException, SAXException, ParserConfigurationException {
+            personMap = solution.getPersonList().stream().collect(
                 toMap(Person::getFullName, person -> person));
-            nextSheet("Meetings");
-            nextRow(false);
-            readHeaderCell("Duration");
-            readHeaderCell("Required Learner");
-            readHeaderCell("Required Patient");
-            readHeaderCell("Scenario Id");
-            readHeaderCell("Day");
-            readHeaderCell("Starting time");
-            readHeaderCell("Room");
-
-            List<Meeting> meetingList = new ArrayList<>(currentSheet.getLastRowNum() - 1);
-            List<MeetingAssignment> meetingAssignmentList = new ArrayList<>(
-                currentSheet.getLastRowNum() - 1);
-            List<Attendance> attendanceList = new ArrayList<>(currentSheet.getLastRowNum() - 1);
-            long meetingId = 0L, meetingAssignmentId = 0L, attendanceId = 0L;
-            Map<LocalDateTime, TimeGrain> timeGrainMap = solution.getTimeGrainList().stream()
+            timeGrainMap = solution.getTimeGrainList().stream()
                 .collect(
                     Collectors.toMap(TimeGrain::getDateTime, Function.identity()));
-            Map<String, Room> roomMap = solution.getRoomList().stream().collect(
+            roomMap = solution.getRoomList().stream().collect(
                 Collectors.toMap(Room::getName, Function.identity()));
 
-            while (nextRow()) {
+            List<Meeting> meetingList = new ArrayList<>();
+            List<MeetingAssignment> meetingAssignmentList = new ArrayList<>();
+            List<Attendance> attendanceList = new ArrayList<>();
+            attendanceId = 0L;
+            readSheet("Meetings", 0, new String[] {"Duration", "Required Learner",
+                "Required Patient", "Scenario Id", "Day", "Starting time", "Room"}, () -> {
                 Meeting meeting = new Meeting();
                 MeetingAssignment meetingAssignment = new MeetingAssignment();
-                meeting.setId(meetingId++);
-                meetingAssignment.setId(meetingAssignmentId++);
+                meeting.setId((long) meetingList.size());
+                meetingAssignment.setId((long) meetingAssignmentList.size());
 
                 readMeetingDuration(meeting);
 
-                List<Attendance> meetingAttendanceList = getAttendanceLists(meeting, personMap,
-                    attendanceId);
-                meeting.setScenarioId(Long.parseLong(nextStringCell().getStringCellValue()));
-                attendanceId += meetingAttendanceList.size();
+                List<Attendance> meetingAttendanceList = getAttendanceLists(meeting);
+                meeting.setScenarioId(Long.parseLong(nextStringCell()));
                 attendanceList.addAll(meetingAttendanceList);
 
-                meetingAssignment.setStartingTimeGrain(extractTimeGrain(meeting, timeGrainMap));
-                meetingAssignment.setRoom(extractRoom(meeting, roomMap));
+                meetingAssignment.setStartingTimeGrain(extractTimeGrain(meeting));
+                meetingAssignment.setRoom(extractRoom(meeting));
                 meetingList.add(meeting);
                 meetingAssignment.setMeeting(meeting);
                 meetingAssignmentList.add(meetingAssignment);
-            }
+            });
             solution.setMeetingList(meetingList);
             solution.setMeetingAssignmentList(meetingAssignmentList);
             solution.setAttendanceList(attendanceList);
+            solution.initializeStartingTimeGrainRanges();
         }
 
-        private void readScenarios() {
-            nextSheet("Scenarios");
-            nextRow(false);
-            readHeaderCell("Name");
-            readHeaderCell("Patients");
-            readHeaderCell("Id");
-
+        private void readScenarios()
+            throws IOException, SAXException, ParserConfigurationException {
             Map<Long, List<Attendance>> personIdToAttendanceMap = new HashMap<>();
             for (Attendance attendance : solution.getAttendanceList()) {
                 List<Attendance> attendances = personIdToAttendanceMap
@@ -237,30 +338,34 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
                 attendances.add(attendance);
             }
 
-            List<Scenario> scenarioList = new ArrayList<>(currentSheet.getLastRowNum() - 1);
-            long scenarioId = 0L;
-            while (nextRow()) {
+            List<Scenario> scenarioList = new ArrayList<>();
+            readSheet("Scenarios", 0, new String[] {"Name", "Patients", "Id"}, () -> {
                 Scenario scenario = new Scenario();
-                scenario.setId(scenarioId++);
-                scenario.setName(nextStringCell().getStringCellValue());
+                scenario.setName(nextStringCell());
 
                 scenario.setPatients(
-                    Arrays.stream(nextStringCell().getStringCellValue().split(COMMA_DELIMITER))
+                    Arrays.stream(nextStringCell().split(COMMA_DELIMITER))
                         .filter(personId -> !personId.isEmpty())
                         .flatMap(personIdString -> {
                             Long personId = Long.parseLong(personIdString);
                             List<Attendance> attendances = personIdToAttendanceMap.get(personId);
+                            if (attendances == null) {
+                                throw new IllegalStateException(
+                                    currentPosition() + ": The scenario (" + scenario.getName()
+                                        + ") has a patient id (" + personId
+                                        + ") that doesn't attend any meeting.");
+                            }
                             return attendances.stream();
                         })
                         .collect(toList()));
-                scenario.setId((long) nextCell().getNumericCellValue());
+                scenario.setId((long) nextNumericCell());
                 scenarioList.add(scenario);
-            }
+            });
             solution.setScenarioList(scenarioList);
         }
 
         private void readMeetingDuration(Meeting meeting) {
-            double durationDouble = nextNumericCell().getNumericCellValue();
+            double durationDouble = nextNumericCell();
             if (durationDouble <= 0 || durationDouble != Math.floor(durationDouble)) {
                 throw new IllegalStateException(
                     currentPosition() + ": The meeting with id (" + meeting.getId()
@@ -276,14 +381,13 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             meeting.setDurationInGrains((int) durationDouble / TimeGrain.GRAIN_LENGTH_IN_MINUTES);
         }
 
-        private List<Attendance> getAttendanceLists(Meeting meeting, Map<String, Person> personMap,
-            long attendanceId) {
-            List<Attendance> attendanceList = new ArrayList<>(currentSheet.getLastRowNum() - 1);
+        private List<Attendance> getAttendanceLists(Meeting meeting) {
+            List<Attendance> attendanceList = new ArrayList<>(2);
             Set<Person> requiredPersonSet = new HashSet<>();
 
-            Attendance requiredLearner = getRequiredAttendee(meeting, personMap, requiredPersonSet);
+            Attendance requiredLearner = getRequiredAttendee(meeting, requiredPersonSet);
             requiredLearner.setId(attendanceId++);
-            Attendance requiredPatient = getRequiredAttendee(meeting, personMap, requiredPersonSet);
+            Attendance requiredPatient = getRequiredAttendee(meeting, requiredPersonSet);
             requiredPatient.setId(attendanceId++);
 
             meeting.setRequiredLearner(requiredLearner);
@@ -294,9 +398,8 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             return attendanceList;
         }
 
-        private Attendance getRequiredAttendee(Meeting meeting, Map<String, Person> personMap,
-            Set<Person> requiredPersonSet) {
-            String personName = nextStringCell().getStringCellValue();
+        private Attendance getRequiredAttendee(Meeting meeting, Set<Person> requiredPersonSet) {
+            String personName = nextStringCell();
             Attendance requiredAttendance = new Attendance();
             Person person = personMap.get(personName);
             if (person == null) {
@@ -316,10 +419,9 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             return requiredAttendance;
         }
 
-        private TimeGrain extractTimeGrain(Meeting meeting,
-            Map<LocalDateTime, TimeGrain> timeGrainMap) {
-            String dateString = nextStringCell().getStringCellValue();
-            String startTimeString = nextStringCell().getStringCellValue();
+        private TimeGrain extractTimeGrain(Meeting meeting) {
+            String dateString = nextStringCell();
+            String startTimeString = nextStringCell();
             if (!dateString.isEmpty() || !startTimeString.isEmpty()) {
                 LocalDateTime dateTime;
                 try {
@@ -346,8 +448,8 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             return null;
         }
 
-        private Room extractRoom(Meeting meeting, Map<String, Room> roomMap) {
-            String roomName = nextStringCell().getStringCellValue();
+        private Room extractRoom(Meeting meeting) {
+            String roomName = nextStringCell();
             if (!roomName.isEmpty()) {
                 Room room = roomMap.get(roomName);
                 if (room == null) {
@@ -361,27 +463,19 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             return null;
         }
 
-        private void readDayList() {
-            nextSheet("Days");
-            nextRow(false);
-            readHeaderCell("Day");
-            readHeaderCell("Start");
-            readHeaderCell("End");
-            List<Day> dayList = new ArrayList<>(currentSheet.getLastRowNum() - 1);
+        private void readDayList()
+            throws IOException, SAXException, ParserConfigurationException {
+            List<Day> dayList = new ArrayList<>();
             List<TimeGrain> timeGrainList = new ArrayList<>();
-            long dayId = 0L, timeGrainId = 0L;
-            while (nextRow()) {
+            readSheet("Days", 0, new String[] {"Day", "Start", "End"}, () -> {
                 Day day = new Day();
-                day.setId(dayId++);
+                day.setId((long) dayList.size());
                 day.setDayOfYear(
-                    LocalDate.parse(nextStringCell().getStringCellValue(), DAY_FORMATTER)
-                        .getDayOfYear());
+                    LocalDate.parse(nextStringCell(), DAY_FORMATTER).getDayOfYear());
                 dayList.add(day);
 
-                LocalTime startTime = LocalTime
-                    .parse(nextStringCell().getStringCellValue(), TIME_FORMATTER);
-                LocalTime endTime = LocalTime
-                    .parse(nextStringCell().getStringCellValue(), TIME_FORMATTER);
+                LocalTime startTime = LocalTime.parse(nextStringCell(), TIME_FORMATTER);
+                LocalTime endTime = LocalTime.parse(nextStringCell(), TIME_FORMATTER);
                 int startMinuteOfDay = startTime.getHour() * 60 + startTime.getMinute();
                 int endMinuteOfDay = endTime.getHour() * 60 + endTime.getMinute();
                 for (int i = 0;
@@ -391,27 +485,24 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
                         i * TimeGrain.GRAIN_LENGTH_IN_MINUTES + startMinuteOfDay;
 
                     TimeGrain timeGrain = new TimeGrain();
-                    timeGrain.setId(timeGrainId);
-                    timeGrain.setGrainIndex((int) timeGrainId++);
+                    timeGrain.setId((long) timeGrainList.size());
+                    timeGrain.setGrainIndex(timeGrainList.size());
                     timeGrain.setDay(day);
                     timeGrain.setStartingMinuteOfDay(timeGrainStartingMinuteOfDay);
                     timeGrainList.add(timeGrain);
                 }
-            }
+            });
             solution.setDayList(dayList);
             solution.setTimeGrainList(timeGrainList);
         }
 
-        private void readRoomList() {
-            nextSheet("Rooms");
-            nextRow();
-            readHeaderCell("Name");
-            List<Room> roomList = new ArrayList<>(currentSheet.getLastRowNum() - 1);
-            long id = 0L;
-            while (nextRow()) {
+        private void readRoomList()
+            throws IOException, SAXException, ParserConfigurationException {
+            List<Room> roomList = new ArrayList<>();
+            readSheet("Rooms", 0, new String[] {"Name"}, () -> {
                 Room room = new Room();
-                room.setId(id++);
-                room.setName(nextStringCell().getStringCellValue());
+                room.setId((long) roomList.size());
+                room.setName(nextStringCell());
                 if (!VALID_NAME_PATTERN.matcher(room.getName()).matches()) {
                     throw new IllegalStateException(
                         currentPosition() + ": The room name (" + room.getName()
@@ -419,28 +510,446 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
                             + ").");
                 }
                 roomList.add(room);
-            }
+            });
             solution.setRoomList(roomList);
         }
+
+        // ************************************************************************
+        // Helper methods
+        // ************************************************************************
+
+        /**
+         * Streams the sheet and calls the rowReader for every non-empty row after the header.
+         * @param skippedRowCount the number of non-empty rows above the header row
+         */
+        private void readSheet(String sheetName, int skippedRowCount, String[] headers,
+            Runnable rowReader) throws IOException, SAXException, ParserConfigurationException {
+            PackagePart sheetPart = sheetPartMap.get(sheetName);
+            if (sheetPart == null) {
+                throw new IllegalStateException("The workbook does not contain a sheet with name ("
+                    + sheetName + ").");
+            }
+            currentSheetName = sheetName;
+            // Hardened against external entities; a sheet never needs a DOCTYPE, so reject it
+            XMLReader xmlReader = SAXHelper.newXMLReader();
+            xmlReader.setFeature(DISALLOW_DOCTYPE_DECL_FEATURE, true);
+            xmlReader.setContentHandler(new XSSFSheetXMLHandler(styles, sharedStrings,
+                new RowHandler(skippedRowCount, headers, rowReader), new RawNumberFormatter(),
+                false));
+            try (InputStream sheetInputStream = sheetPart.getInputStream()) {
+                xmlReader.parse(new InputSource(sheetInputStream));
+            }
+            currentRow = null;
+        }
+
+        private String nextStringCell() {
+            currentColumnNumber++;
+            return currentColumnNumber < currentRow.size() ? currentRow.get(currentColumnNumber)
+                : "";
+        }
+
+        private double nextNumericCell() {
+            String value = nextStringCell();
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException(
+                    currentPosition() + ": The cell value (" + value + ") is not a number.", e);
+            }
+        }
+
+        private String currentPosition() {
+            return "Sheet (" + currentSheetName + ") cell ("
+                + new CellReference(currentRowNumber, Math.max(currentColumnNumber, 0))
+                .formatAsString() + ")";
+        }
+
+        /**
+         * Formats a number as its raw value, like {@code getNumericCellValue()}, instead of
+         * through its number format, because the General format switches long ids to scientific
+         * notation.
+         */
+        private static class RawNumberFormatter extends DataFormatter {
+
+            // Above this a double no longer holds every whole number
+            private static final double MAXIMUM_EXACT_WHOLE_NUMBER = 1L << 53;
+
+            @Override
+            public String formatRawCellContents(double value, int formatIndex,
+                String formatString) {
+                if (value == Math.rint(value) && Math.abs(value) <= MAXIMUM_EXACT_WHOLE_NUMBER) {
+                    return Long.toString((long) value);
+                }
+                return Double.toString(value);
+            }
+        }
+
+        /**
+         * Collects the cell values of each row, numbers unformatted. Missing cells are read as an
+         * empty string, like a blank cell.
+         */
+        private class RowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+            private final int skippedRowCount;
+            private final String[] headers;
+            private final Runnable rowReader;
+
+            private final List<String> cellValueList = new ArrayList<>();
+            private int nonEmptyRowCount = 0;
+
+            RowHandler(int skippedRowCount, String[] headers, Runnable rowReader) {
+                this.skippedRowCount = skippedRowCount;
+                this.headers = headers;
+                this.rowReader = rowReader;
+            }
+
+            @Override
+            public void startRow(int rowNum) {
+                currentRowNumber = rowNum;
+                cellValueList.clear();
+            }
+
+            @Override
+            public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                int columnIndex = cellReference == null ? cellValueList.size()
+                    : new CellReference(cellReference).getCol();
+                while (cellValueList.size() < columnIndex) {
+                    cellValueList.add("");
+                }
+                cellValueList.add(formattedValue == null ? "" : formattedValue);
+            }
+
+            @Override
+            public void endRow(int rowNum) {
+                if (cellValueList.stream().allMatch(String::isEmpty)) {
+                    return;
+                }
+                nonEmptyRowCount++;
+                if (nonEmptyRowCount <= skippedRowCount) {
+                    return;
+                }
+                currentRow = cellValueList;
+                currentColumnNumber = -1;
+                if (nonEmptyRowCount == skippedRowCount + 1) {
+                    for (String header : headers) {
+                        String value = nextStringCell();
+                        if (!value.equals(header)) {
+                            throw new IllegalStateException(
+                                currentPosition() + ": The cell (" + value
+                                    + ") does not contain the expected header (" + header
+                                    + ").");
+                        }
+                    }
+                } else {
+                    rowReader.run();
+                }
+            }
+
+            @Override
+            public void headerFooter(String text, boolean isHeader, String tagName) {
+                // Not used by the input sheets
+            }
+        }
     }
 
     @Override
     public void write(MeetingSchedule solution, File outputScheduleFile) {
+        Workbook workbook = null;
         try (FileOutputStream out = new FileOutputStream(outputScheduleFile)) {
-            Workbook workbook = new MeetingSchedulingXlsxWriter(solution).write();
+            if (lightweight
+                || outputScheduleFile.getName().endsWith(LIGHTWEIGHT_FILE_NAME_SUFFIX)) {
+                workbook = new MeetingSchedulingInputXlsxWriter(solution).write();
+            } else {
+                MeetingSchedulingXlsxWriter writer = streaming
+                    ? new MeetingSchedulingStreamingXlsxWriter(solution)
+                    : new MeetingSchedulingXlsxWriter(solution);
+                workbook = writer.write();
+            }
             workbook.write(out);
         } catch (IOException | RuntimeException e) {
             throw new IllegalStateException(
                 "Failed writing outputScheduleFile (" + outputScheduleFile
                     + ") for schedule (" + solution + ").", e);
+        } finally {
+            if (workbook instanceof SXSSFWorkbook) {
+                // Deletes the temporary files of the flushed rows
+                ((SXSSFWorkbook) workbook).dispose();
+            }
+        }
+    }
+
+    private static String formatJustificationList(List<Object> justificationList) {
+        return justificationList.stream()
+            .filter(o -> o instanceof MeetingAssignment)
+            .map(Object::toString)
+            .collect(joining(COMMA_DELIMITER));
+    }
+
+    /**
+     * Writes only the sheets {@link MeetingSchedulingXlsxReader} reads, through a
+     * {@link SXSSFWorkbook}. It doesn't extend {@link AbstractXlsxWriter}, whose constructor
+     * builds a solver factory and explains the score, so a lightweight file costs no score
+     * calculation at all.
+     */
+    private static class MeetingSchedulingInputXlsxWriter {
+
+        private static final int ROW_ACCESS_WINDOW_SIZE = 100;
+        // Flushed rows can't be measured, so the columns get a fixed width
+        private static final int COLUMN_WIDTH = 5000;
+
+        private final MeetingSchedule solution;
+        private final SXSSFWorkbook workbook;
+        private final CellStyle headerStyle;
+        private final CellStyle defaultStyle;
+
+        private SXSSFSheet sheet;
+        private SXSSFRow row;
+        private int rowNumber;
+        private int columnNumber;
+
+        MeetingSchedulingInputXlsxWriter(MeetingSchedule solution) {
+            this.solution = solution;
+            workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW_SIZE);
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(headerFont);
+            defaultStyle = workbook.createCellStyle();
+        }
+
+        /**
+         * Writes into the workbook of {@link MeetingSchedulingStreamingXlsxWriter}, with its styles.
+         */
+        MeetingSchedulingInputXlsxWriter(MeetingSchedule solution, SXSSFWorkbook workbook,
+            CellStyle headerStyle, CellStyle defaultStyle) {
+            this.solution = solution;
+            this.workbook = workbook;
+            this.headerStyle = headerStyle;
+            this.defaultStyle = defaultStyle;
+        }
+
+        SXSSFWorkbook write() {
+            writeConfiguration();
+            writeDays();
+            writeRooms();
+            writePersons();
+            writeScenarios();
+            writeMeetings();
+            return workbook;
+        }
+
+        private void writeConfiguration() {
+            nextSheet("Configuration", 1, 3);
+            nextRow();
+            LocalDateTime now = LocalDateTime.now();
+            nextCell().setCellValue(DAY_FORMATTER.format(now) + " " + TIME_FORMATTER.format(now));
+            nextRow();
+            nextRow();
+            nextHeaderCell("Constraint");
+            nextHeaderCell("Weight");
+            nextHeaderCell("Description");
+
+            MeetingConstraintConfiguration constraintConfiguration = solution
+                .getConstraintConfiguration();
+            // Hard
+            writeConstraintWeightLine(ROOM_CONFLICT,
+                constraintConfiguration.getRoomConflict().getHardScore(),
+                ROOM_CONFLICT_DESCRIPTION);
+            writeConstraintWeightLine(DONT_GO_IN_OVERTIME,
+                constraintConfiguration.getDontGoInOvertime().getHardScore(),
+                DONT_GO_IN_OVERTIME_DESCRIPTION);
+            writeConstraintWeightLine(REQUIRED_ATTENDANCE_CONFLICT,
+                constraintConfiguration.getRequiredAttendanceConflict().getHardScore(),
+                REQUIRED_ATTENDANCE_CONFLICT_DESCRIPTION);
+            nextRow();
+            // Medium
+            writeConstraintWeightLine(ASSIGNED_MEETINGS,
+                constraintConfiguration.getAssignedMeetings().getMediumScore(),
+                ASSIGNED_MEETINGS_DESCRIPTION);
+            writeConstraintWeightLine(HALF_ASSIGNED_MEETINGS,
+                constraintConfiguration.getHalfAssignedMeetings().getMediumScore(),
+                HALF_ASSIGNED_MEETINGS_DESCRIPTION);
+            nextRow();
+            // Soft
+            writeConstraintWeightLine(DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE,
+                constraintConfiguration.getDoAllMeetingsAsSoonAsPossible().getSoftScore(),
+                DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE_DESCRIPTION);
+            writeConstraintWeightLine(OVERLAPPING_MEETINGS,
+                constraintConfiguration.getOverlappingMeetings().getSoftScore(),
+                OVERLAPPING_MEETINGS_DESCRIPTION);
+            writeConstraintWeightLine(ROOM_STABILITY,
+                constraintConfiguration.getRoomStability().getSoftScore(),
+                ROOM_STABILITY_DESCRIPTION);
+            setColumnWidths(3);
+        }
+
+        private void writeConstraintWeightLine(String constraintName, int weight,
+            String description) {
+            nextRow();
+            nextHeaderCell(constraintName);
+            nextCell().setCellValue(weight);
+            nextCell().setCellValue(description);
+        }
+
+        private void writeDays() {
+            nextSheet("Days", 1, 1);
+            nextRow();
+            nextHeaderCell("Day");
+            nextHeaderCell("Start");
+            nextHeaderCell("End");
+            Map<Day, List<TimeGrain>> dayTimeGrainMap = solution.getTimeGrainList().stream()
+                .collect(groupingBy(TimeGrain::getDay, toList()));
+            for (Day day : solution.getDayList()) {
+                nextRow();
+                int startMinuteOfDay = 24 * 60, endMinuteOfDay = 0;
+                for (TimeGrain timeGrain : dayTimeGrainMap.getOrDefault(day,
+                    Collections.emptyList())) {
+                    startMinuteOfDay = Math.min(timeGrain.getStartingMinuteOfDay(),
+                        startMinuteOfDay);
+                    endMinuteOfDay = Math.max(
+                        timeGrain.getStartingMinuteOfDay() + TimeGrain.GRAIN_LENGTH_IN_MINUTES,
+                        endMinuteOfDay);
+                }
+                nextCell().setCellValue(DAY_FORMATTER.format(day.toDate()));
+                nextCell().setCellValue(TIME_FORMATTER.format(
+                    LocalTime.ofSecondOfDay(startMinuteOfDay * 60)));
+                nextCell().setCellValue(TIME_FORMATTER.format(
+                    LocalTime.ofSecondOfDay(endMinuteOfDay * 60)));
+            }
+            setColumnWidths(3);
+        }
+
+        private void writeRooms() {
+            nextSheet("Rooms", 1, 1);
+            nextRow();
+            nextHeaderCell("Name");
+            for (Room room : solution.getRoomList()) {
+                nextRow();
+                nextCell().setCellValue(room.getName());
+            }
+            setColumnWidths(1);
+        }
+
+        private void writePersons() {
+            nextSheet("Persons", 1, 0);
+            nextRow();
+            nextHeaderCell("Full name");
+            nextHeaderCell("Patient");
+            nextHeaderCell("Id");
+            for (Person person : solution.getPersonList()) {
+                nextRow();
+                nextCell().setCellValue(person.getFullName());
+                nextCell().setCellValue(person.isPatient() ? "Y" : "");
+                nextCell().setCellValue(person.getId());
+            }
+            setColumnWidths(3);
+        }
+
+        private void writeScenarios() {
+            nextSheet("Scenarios", 1, 0);
+            nextRow();
+            nextHeaderCell("Name");
+            nextHeaderCell("Patients");
+            nextHeaderCell("Id");
+            for (Scenario scenario : solution.getScenarioList()) {
+                nextRow();
+                nextCell().setCellValue(scenario.getName());
+                nextCell().setCellValue(scenario.getPatients().stream()
+                    .map(Attendance::getPerson)
+                    .map(Person::getId)
+                    .map(Object::toString)
+                    .collect(joining(COMMA_DELIMITER)));
+                nextCell().setCellValue(scenario.getId());
+            }
+            setColumnWidths(3);
+        }
+
+        void writeMeetings() {
+            nextSheet("Meetings", 1, 1);
+            nextRow();
+            nextHeaderCell("Duration");
+            nextHeaderCell("Required Learner");
+            nextHeaderCell("Required Patient");
+            nextHeaderCell("Scenario Id");
+            nextHeaderCell("Day");
+            nextHeaderCell("Starting time");
+            nextHeaderCell("Room");
+            Map<Meeting, List<MeetingAssignment>> meetingAssignmentMap = solution
+                .getMeetingAssignmentList().stream()
+                .collect(groupingBy(MeetingAssignment::getMeeting, toList()));
+            for (Meeting meeting : solution.getMeetingList()) {
+                nextRow();
+                nextCell().setCellValue(
+                    meeting.getDurationInGrains() * TimeGrain.GRAIN_LENGTH_IN_MINUTES);
+                nextCell().setCellValue(meeting.getRequiredLearner().getPerson().getFullName());
+                nextCell().setCellValue(meeting.getRequiredPatient().getPerson().getFullName());
+                nextCell().setCellValue(meeting.getScenarioId().toString());
+                List<MeetingAssignment> meetingAssignmentList = meetingAssignmentMap.get(meeting);
+                if (meetingAssignmentList == null || meetingAssignmentList.size() != 1) {
+                    throw new IllegalStateException("Impossible state: the meeting (" + meeting
+                        + ") does not have exactly one assignment, but "
+                        + (meetingAssignmentList == null ? 0 : meetingAssignmentList.size())
+                        + " assignments instead.");
+                }
+                MeetingAssignment meetingAssignment = meetingAssignmentList.get(0);
+                TimeGrain startingTimeGrain = meetingAssignment.getStartingTimeGrain();
+                nextCell().setCellValue(startingTimeGrain == null ? ""
+                    : DAY_FORMATTER.format(startingTimeGrain.getDate()));
+                nextCell().setCellValue(startingTimeGrain == null ? ""
+                    : TIME_FORMATTER.format(startingTimeGrain.getTime()));
+                nextCell().setCellValue(meetingAssignment.getRoom() == null ? ""
+                    : meetingAssignment.getRoom().getName());
+            }
+            setColumnWidths(7);
+        }
+
+        private void nextSheet(String sheetName, int colSplit, int rowSplit) {
+            sheet = workbook.createSheet(sheetName);
+            sheet.createFreezePane(colSplit, rowSplit);
+            row = null;
+            rowNumber = -1;
+            columnNumber = -1;
+        }
+
+        private void nextRow() {
+            rowNumber++;
+            row = sheet.createRow(rowNumber);
+            columnNumber = -1;
+        }
+
+        private void nextHeaderCell(String value) {
+            nextCell(headerStyle).setCellValue(value);
+        }
+
+        private SXSSFCell nextCell() {
+            return nextCell(defaultStyle);
+        }
+
+        private SXSSFCell nextCell(CellStyle cellStyle) {
+            columnNumber++;
+            SXSSFCell cell = row.createCell(columnNumber);
+            cell.setCellStyle(cellStyle);
+            return cell;
+        }
+
+        private void setColumnWidths(int columnCount) {
+            for (int i = 0; i < columnCount; i++) {
+                sheet.setColumnWidth(i, COLUMN_WIDTH);
+            }
         }
     }
 
     private static class MeetingSchedulingXlsxWriter extends
         AbstractXlsxWriter<MeetingSchedule, HardMediumSoftScore> {
 
-        MeetingSchedulingXlsxWriter(
-            MeetingSchedule solution) {
+        private static final int ROW_BATCH_SIZE = 1000;
+
+        // Built once per export by createViewIndexes()
+        Map<Room, List<MeetingAssignment>> roomMeetingAssignmentMap;
+        Map<Person, List<MeetingAssignment>> personMeetingAssignmentMap;
+        Map<MeetingAssignment, IndictmentSummary> indictmentSummaryMap;
+
+        MeetingSchedulingXlsxWriter(MeetingSchedule solution) {
             super(solution, ExaminationApp.SOLVER_CONFIG);
         }
 
@@ -455,17 +964,15 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             writePersons();
             writeScenarios();
             writeMeetings();
+            createViewIndexes();
             writeRoomsView();
             writePersonsView();
             writePrintedFormView();
-            writeScoreView(justificationList -> justificationList.stream()
-                .filter(o -> o instanceof MeetingAssignment)
-                .map(Object::toString)
-                .collect(joining(COMMA_DELIMITER)));
+            writeScoreView(MeetingSchedulingXlsxFileIO::formatJustificationList);
             return workbook;
         }
 
-        private void writeConfiguration() {
+        void writeConfiguration() {
             nextSheet("Configuration", 1, 3, false);
             nextRow();
             nextCell()
@@ -495,10 +1002,10 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
 
             // Medium
             writeIntConstraintParameterLine(ASSIGNED_MEETINGS,
-                constraintConfiguration.getHalfAssignedMeetings().getMediumScore(),
+                constraintConfiguration.getAssignedMeetings().getMediumScore(),
                 ASSIGNED_MEETINGS_DESCRIPTION);
             writeIntConstraintParameterLine(HALF_ASSIGNED_MEETINGS,
-                constraintConfiguration.getAssignedMeetings().getMediumScore(),
+                constraintConfiguration.getHalfAssignedMeetings().getMediumScore(),
                 HALF_ASSIGNED_MEETINGS_DESCRIPTION);
             nextRow();
 
@@ -516,7 +1023,7 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             autoSizeColumnsWithHeader();
         }
 
-        private void writeScenarios() {
+        void writeScenarios() {
             nextSheet("Scenarios", 1, 0, false);
             nextRow();
             nextHeaderCell("Name");
@@ -536,7 +1043,7 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             autoSizeColumnsWithHeader();
         }
 
-        private void writePersons() {
+        void writePersons() {
             nextSheet("Persons", 1, 0, false);
             nextRow();
             nextHeaderCell("Full name");
@@ -590,7 +1097,7 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             setSizeColumnsWithHeader(5000);
         }
 
-        private void writeDays() {
+        void writeDays() {
             nextSheet("Days", 1, 1, false);
             nextRow();
             nextHeaderCell("Day");
@@ -621,7 +1128,7 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             autoSizeColumnsWithHeader();
         }
 
-        private void writeRooms() {
+        void writeRooms() {
             nextSheet("Rooms", 1, 1, false);
             nextRow();
             nextHeaderCell("Name");
@@ -640,16 +1147,14 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             nextRow();
             nextHeaderCell("Room");
             writeTimeGrainHoursHeaders();
-            for (Room room : solution.getRoomList()) {
-                nextRow();
-                currentRow.setHeightInPoints(2 * currentSheet.getDefaultRowHeightInPoints());
-                nextCell().setCellValue(room.getName());
-                List<MeetingAssignment> roomMeetingAssignmentList = solution
-                    .getMeetingAssignmentList().stream()
-                    .filter(meetingAssignment -> meetingAssignment.getRoom() == room)
-                    .collect(toList());
-                writeMeetingAssignmentList(roomMeetingAssignmentList);
-            }
+            forEachMeetingAssignmentListRow(solution.getRoomList(), roomMeetingAssignmentMap,
+                true, (room, meetingAssignmentListRow) -> {
+                    nextRow();
+                    currentRow.setHeightInPoints(
+                        2 * currentSheet.getDefaultRowHeightInPoints());
+                    nextCell().setCellValue(room.getName());
+                    writeMeetingAssignmentListRow(meetingAssignmentListRow);
+                });
             autoSizeColumnsWithHeader();
         }
 
@@ -662,164 +1167,284 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             nextRow();
             nextHeaderCell("Person");
             writeTimeGrainHoursHeaders();
-            for (Person person : solution.getPersonList()) {
-                writePersonMeetingList(person);
-            }
+            forEachMeetingAssignmentListRow(solution.getPersonList(), personMeetingAssignmentMap,
+                true, (person, meetingAssignmentListRow) -> {
+                    nextRow();
+                    currentRow.setHeightInPoints(
+                        2 * currentSheet.getDefaultRowHeightInPoints());
+                    nextHeaderCell(person.getFullName());
+                    writeMeetingAssignmentListRow(meetingAssignmentListRow);
+                });
             autoSizeColumnsWithHeader();
         }
 
-        private void writePersonMeetingList(Person person) {
-            nextRow();
-            currentRow.setHeightInPoints(2 * currentSheet.getDefaultRowHeightInPoints());
-            nextHeaderCell(person.getFullName());
-
-            List<Meeting> personMeetingList = solution.getAttendanceList().stream()
-                .filter(attendance -> attendance.getPerson().equals(person))
-                .map(Attendance::getMeeting)
-                .collect(toList());
-
-            List<MeetingAssignment> personMeetingAssignmentList = solution
-                .getMeetingAssignmentList().stream()
-                .filter(
-                    meetingAssignment -> personMeetingList.contains(meetingAssignment.getMeeting()))
-                .collect(toList());
-            writeMeetingAssignmentList(personMeetingAssignmentList);
-        }
-
         private void writePrintedFormView() {
             nextSheet("Printed form view", 1, 1, true);
             nextRow();
             nextHeaderCell("");
             writeTimeGrainsHoursVertically(30);
+            List<Room> printedRoomList = getPrintedRoomList();
+            List<PrintedFormColumn> printedFormColumnList =
+                createPrintedFormColumnList(printedRoomList);
             currentColumnNumber = 0;
-            for (Room room : solution.getRoomList()) {
-                List<MeetingAssignment> roomMeetingAssignmentList = solution
-                    .getMeetingAssignmentList().stream()
-                    .filter(meetingAssignment -> meetingAssignment.getRoom() == room)
-                    .collect(toList());
-                if (roomMeetingAssignmentList.isEmpty()) {
-                    continue;
-                }
-
+            for (int i = 0; i < printedRoomList.size(); i++) {
+                PrintedFormColumn printedFormColumn = printedFormColumnList.get(i);
                 currentColumnNumber++;
                 currentRowNumber = -1;
-                nextHeaderCellVertically(room.getName());
-                writeMeetingAssignmentListVertically(roomMeetingAssignmentList);
+                nextHeaderCellVertically(printedRoomList.get(i).getName());
+                for (String value : printedFormColumn.getValues()) {
+                    XSSFCell cell = nextCellVertically();
+                    if (value != null) {
+                        cell.setCellValue(value);
+                    }
+                }
+                for (int[] mergedRowRange : printedFormColumn.getMergedRowRangeList()) {
+                    currentSheet.addMergedRegion(
+                        new CellRangeAddress(mergedRowRange[0], mergedRowRange[1],
+                            currentColumnNumber, currentColumnNumber));
+                }
             }
             setSizeColumnsWithHeader(6000);
         }
 
-        private void writeMeetingAssignmentListVertically(
-            List<MeetingAssignment> roomMeetingAssignmentList) {
+        // ************************************************************************
+        // View row data
+        // ************************************************************************
+
+        /**
+         * Groups the assignments per room and per attended person once, instead of filtering all
+         * assignments for every row of the views, and summarizes their indictments.
+         */
+        void createViewIndexes() {
+            roomMeetingAssignmentMap = solution.getMeetingAssignmentList().stream()
+                .filter(meetingAssignment -> meetingAssignment.getRoom() != null)
+                .collect(groupingBy(MeetingAssignment::getRoom, toList()));
+            personMeetingAssignmentMap = createPersonMeetingAssignmentMap();
+            indictmentSummaryMap = createIndictmentSummaryMap();
+        }
+
+        private Map<MeetingAssignment, IndictmentSummary> createIndictmentSummaryMap() {
+            Map<MeetingAssignment, IndictmentSummary> indictmentSummaryMap = new HashMap<>(
+                indictmentMap.size());
+            for (Map.Entry<Object, Indictment<HardMediumSoftScore>> entry : indictmentMap
+                .entrySet()) {
+                if (entry.getKey() instanceof MeetingAssignment) {
+                    MeetingAssignment meetingAssignment = (MeetingAssignment) entry.getKey();
+                    indictmentSummaryMap.put(meetingAssignment,
+                        new IndictmentSummary(meetingAssignment, entry.getValue()));
+                }
+            }
+            return indictmentSummaryMap;
+        }
+
+        /**
+         * @return the assignments of the meetings each person attends, in the order of the
+         * meeting assignment list
+         */
+        private Map<Person, List<MeetingAssignment>> createPersonMeetingAssignmentMap() {
+            Map<Meeting, List<Person>> meetingPersonMap = solution.getAttendanceList().stream()
+                .collect(groupingBy(Attendance::getMeeting,
+                    Collectors.mapping(Attendance::getPerson, toList())));
+            Map<Person, List<MeetingAssignment>> personMeetingAssignmentMap = new HashMap<>();
+            for (MeetingAssignment meetingAssignment : solution.getMeetingAssignmentList()) {
+                List<Person> personList = meetingPersonMap.getOrDefault(
+                    meetingAssignment.getMeeting(), Collections.emptyList());
+                for (Person person : personList) {
+                    List<MeetingAssignment> personMeetingAssignmentList = personMeetingAssignmentMap
+                        .computeIfAbsent(person, key -> new ArrayList<>());
+                    // A person with several attendances for the same meeting sees it once
+                    if (personMeetingAssignmentList.isEmpty()
+                        || personMeetingAssignmentList.get(personMeetingAssignmentList.size() - 1)
+                        != meetingAssignment) {
+                        personMeetingAssignmentList.add(meetingAssignment);
+                    }
+                }
+            }
+            return personMeetingAssignmentMap;
+        }
+
+        private Map<TimeGrain, List<MeetingAssignment>> groupByStartingTimeGrain(
+            List<MeetingAssignment> meetingAssignmentList) {
+            return meetingAssignmentList.stream()
+                .filter(meetingAssignment -> meetingAssignment.getStartingTimeGrain() != null)
+                .collect(groupingBy(MeetingAssignment::getStartingTimeGrain, toList()));
+        }
+
+        /**
+         * Builds the rows of a view in parallel, a batch at a time, and passes them in order to
+         * the rowWriter, which fills the workbook on the calling thread.
+         */
+        <Key_> void forEachMeetingAssignmentListRow(List<Key_> keyList,
+            Map<Key_, List<MeetingAssignment>> meetingAssignmentListMap, boolean withComments,
+            BiConsumer<Key_, MeetingAssignmentListRow> rowWriter) {
+            for (int batchStart = 0; batchStart < keyList.size(); batchStart += ROW_BATCH_SIZE) {
+                List<Key_> batchKeyList = keyList.subList(batchStart,
+                    Math.min(batchStart + ROW_BATCH_SIZE, keyList.size()));
+                List<MeetingAssignmentListRow> rowList = batchKeyList.parallelStream()
+                    .map(key -> createMeetingAssignmentListRow(
+                        meetingAssignmentListMap.getOrDefault(key, Collections.emptyList()),
+                        withComments))
+                    .collect(toList());
+                for (int i = 0; i < batchKeyList.size(); i++) {
+                    rowWriter.accept(batchKeyList.get(i), rowList.get(i));
+                }
+            }
+        }
+
+        private MeetingAssignmentListRow createMeetingAssignmentListRow(
+            List<MeetingAssignment> meetingAssignmentList, boolean withComments) {
+            List<TimeGrain> timeGrainList = solution.getTimeGrainList();
+            Map<TimeGrain, List<MeetingAssignment>> timeGrainMeetingAssignmentMap =
+                groupByStartingTimeGrain(meetingAssignmentList);
+            MeetingAssignmentListCell[] cells = new MeetingAssignmentListCell[timeGrainList.size()];
+            List<int[]> mergedColumnRangeList = new ArrayList<>();
             int mergeStart = -1;
             int previousMeetingRemainingTimeGrains = 0;
-            boolean mergingPreviousTimeGrain = false;
-            for (TimeGrain timeGrain : solution.getTimeGrainList()) {
-                List<MeetingAssignment> meetingAssignmentList = roomMeetingAssignmentList.stream()
-                    .filter(
-                        meetingAssignment -> meetingAssignment.getStartingTimeGrain() == timeGrain)
-                    .collect(toList());
-                if (meetingAssignmentList.isEmpty() && mergingPreviousTimeGrain
+            boolean mergingPreviousMeetingList = false;
+
+            for (int i = 0; i < timeGrainList.size(); i++) {
+                List<MeetingAssignment> timeGrainMeetingAssignmentList =
+                    timeGrainMeetingAssignmentMap.getOrDefault(timeGrainList.get(i),
+                        Collections.emptyList());
+                if (timeGrainMeetingAssignmentList.isEmpty() && mergingPreviousMeetingList
                     && previousMeetingRemainingTimeGrains > 0) {
+                    // An empty cell under the merged region of the previous meetings
                     previousMeetingRemainingTimeGrains--;
-                    nextCellVertically();
                 } else {
-                    if (mergingPreviousTimeGrain && mergeStart < currentRowNumber) {
-                        currentSheet.addMergedRegion(
-                            new CellRangeAddress(mergeStart, currentRowNumber, currentColumnNumber,
-                                currentColumnNumber));
-                    }
-
-                    StringBuilder meetingInfo = new StringBuilder();
-                    for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
-                        String startTimeString = getTimeString(
-                            meetingAssignment.getStartingTimeGrain().getStartingMinuteOfDay());
-                        int lastTimeGrainIndex = meetingAssignment.getLastTimeGrainIndex()
-                            <= solution.getTimeGrainList().size()
-                            - 1 ? meetingAssignment.getLastTimeGrainIndex()
-                            : solution.getTimeGrainList().size() - 1;
-                        String endTimeString = getTimeString(
-                            solution.getTimeGrainList().get(lastTimeGrainIndex)
-                                .getStartingMinuteOfDay()
-                                + TimeGrain.GRAIN_LENGTH_IN_MINUTES);
-                        meetingInfo
-                            .append("\n  ")
-                            .append(startTimeString).append(" - ").append(endTimeString)
-                            .append(" (")
-                            .append(meetingAssignment.getMeeting().getDurationInGrains()
-                                * TimeGrain.GRAIN_LENGTH_IN_MINUTES)
-                            .append(" mins)");
+                    if (mergingPreviousMeetingList && mergeStart < i - 1) {
+                        mergedColumnRangeList.add(new int[] {mergeStart, i - 1});
                     }
-                    nextCellVertically().setCellValue(meetingInfo.toString());
-
+                    HardMediumSoftScore score = calculateMeetingAssignmentListScore(
+                        timeGrainMeetingAssignmentList);
+                    String comment = withComments && !timeGrainMeetingAssignmentList.isEmpty()
+                        ? getMeetingAssignmentListString(timeGrainMeetingAssignmentList) : null;
+                    cells[i] = new MeetingAssignmentListCell(
+                        timeGrainMeetingAssignmentList.size(), score, comment);
+                    mergingPreviousMeetingList = !timeGrainMeetingAssignmentList.isEmpty();
+                    mergeStart = i;
                     previousMeetingRemainingTimeGrains =
-                        getLongestDurationInGrains(meetingAssignmentList) - 1;
-                    mergingPreviousTimeGrain = previousMeetingRemainingTimeGrains > 0;
-                    mergeStart = currentRowNumber;
+                        getLongestDurationInGrains(timeGrainMeetingAssignmentList) - 1;
                 }
             }
-            if (mergeStart < currentRowNumber) {
-                currentSheet.addMergedRegion(
-                    new CellRangeAddress(mergeStart, currentRowNumber, currentColumnNumber,
-                        currentColumnNumber));
+
+            if (mergingPreviousMeetingList && mergeStart < cells.length - 1) {
+                mergedColumnRangeList.add(new int[] {mergeStart, cells.length - 1});
             }
+            return new MeetingAssignmentListRow(cells, mergedColumnRangeList);
         }
 
-        private String getTimeString(int minuteOfDay) {
-            return TIME_FORMATTER.format(LocalTime.ofSecondOfDay(minuteOfDay * 60));
+        List<Room> getPrintedRoomList() {
+            return solution.getRoomList().stream()
+                .filter(roomMeetingAssignmentMap::containsKey)
+                .collect(toList());
         }
 
-        private void writeMeetingAssignmentList(List<MeetingAssignment> meetingAssignmentList) {
-            String[] filteredConstraintNames = {
-                ROOM_CONFLICT,
-                DONT_GO_IN_OVERTIME,
-                REQUIRED_ATTENDANCE_CONFLICT,
-
-                ASSIGNED_MEETINGS,
-                HALF_ASSIGNED_MEETINGS,
+        List<PrintedFormColumn> createPrintedFormColumnList(List<Room> printedRoomList) {
+            return printedRoomList.parallelStream()
+                .map(room -> createPrintedFormColumn(roomMeetingAssignmentMap.get(room)))
+                .collect(toList());
+        }
 
-                DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE,
-                OVERLAPPING_MEETINGS,
-                ROOM_STABILITY
-            };
+        private PrintedFormColumn createPrintedFormColumn(
+            List<MeetingAssignment> roomMeetingAssignmentList) {
+            List<TimeGrain> timeGrainList = solution.getTimeGrainList();
+            Map<TimeGrain, List<MeetingAssignment>> timeGrainMeetingAssignmentMap =
+                groupByStartingTimeGrain(roomMeetingAssignmentList);
+            String[] values = new String[timeGrainList.size()];
+            List<int[]> mergedRowRangeList = new ArrayList<>();
+            // Row 0 is the header
+            int rowNumber = 0;
             int mergeStart = -1;
             int previousMeetingRemainingTimeGrains = 0;
-            boolean mergingPreviousMeetingList = false;
-
-            for (TimeGrain timeGrain : solution.getTimeGrainList()) {
-                List<MeetingAssignment> timeGrainMeetingAssignmentList = meetingAssignmentList
-                    .stream()
-                    .filter(
-                        meetingAssignment -> meetingAssignment.getStartingTimeGrain() == timeGrain)
-                    .collect(toList());
-                if (timeGrainMeetingAssignmentList.isEmpty() && mergingPreviousMeetingList
+            boolean mergingPreviousTimeGrain = false;
+            for (int i = 0; i < timeGrainList.size(); i++) {
+                List<MeetingAssignment> meetingAssignmentList = timeGrainMeetingAssignmentMap
+                    .getOrDefault(timeGrainList.get(i), Collections.emptyList());
+                if (meetingAssignmentList.isEmpty() && mergingPreviousTimeGrain
                     && previousMeetingRemainingTimeGrains > 0) {
                     previousMeetingRemainingTimeGrains--;
-                    nextCell();
+                    rowNumber++;
                 } else {
-                    if (mergingPreviousMeetingList && mergeStart < currentColumnNumber) {
-                        currentSheet.addMergedRegion(
-                            new CellRangeAddress(currentRowNumber, currentRowNumber, mergeStart,
-                                currentColumnNumber));
+                    if (mergingPreviousTimeGrain && mergeStart < rowNumber) {
+                        mergedRowRangeList.add(new int[] {mergeStart, rowNumber});
                     }
-                    nextMeetingAssignmentListCell(
-                        timeGrainMeetingAssignmentList,
-                        Arrays.asList(filteredConstraintNames));
-                    mergingPreviousMeetingList = !timeGrainMeetingAssignmentList.isEmpty();
-                    mergeStart = currentColumnNumber;
+                    rowNumber++;
+                    values[i] = getPrintedFormMeetingInfo(meetingAssignmentList);
                     previousMeetingRemainingTimeGrains =
-                        getLongestDurationInGrains(timeGrainMeetingAssignmentList) - 1;
+                        getLongestDurationInGrains(meetingAssignmentList) - 1;
+                    mergingPreviousTimeGrain = previousMeetingRemainingTimeGrains > 0;
+                    mergeStart = rowNumber;
                 }
             }
+            if (mergeStart < rowNumber) {
+                mergedRowRangeList.add(new int[] {mergeStart, rowNumber});
+            }
+            return new PrintedFormColumn(values, mergedRowRangeList);
+        }
+
+        String getPrintedFormMeetingInfo(List<MeetingAssignment> meetingAssignmentList) {
+            StringBuilder meetingInfo = new StringBuilder();
+            for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+                String startTimeString = getTimeString(
+                    meetingAssignment.getStartingTimeGrain().getStartingMinuteOfDay());
+                int lastTimeGrainIndex = meetingAssignment.getLastTimeGrainIndex()
+                    <= solution.getTimeGrainList().size()
+                    - 1 ? meetingAssignment.getLastTimeGrainIndex()
+                    : solution.getTimeGrainList().size() - 1;
+                String endTimeString = getTimeString(
+                    solution.getTimeGrainList().get(lastTimeGrainIndex)
+                        .getStartingMinuteOfDay()
+                        + TimeGrain.GRAIN_LENGTH_IN_MINUTES);
+                meetingInfo
+                    .append("\n  ")
+                    .append(startTimeString).append(" - ").append(endTimeString)
+                    .append(" (")
+                    .append(meetingAssignment.getMeeting().getDurationInGrains()
+                        * TimeGrain.GRAIN_LENGTH_IN_MINUTES)
+                    .append(" mins)");
+            }
+            return meetingInfo.toString();
+        }
 
-            if (mergingPreviousMeetingList && mergeStart < currentColumnNumber) {
+        String getTimeString(int minuteOfDay) {
+            return TIME_FORMATTER.format(LocalTime.ofSecondOfDay(minuteOfDay * 60));
+        }
+
+        private void writeMeetingAssignmentListRow(
+            MeetingAssignmentListRow meetingAssignmentListRow) {
+            int firstColumnNumber = currentColumnNumber + 1;
+            for (MeetingAssignmentListCell meetingAssignmentListCell
+                : meetingAssignmentListRow.getCells()) {
+                if (meetingAssignmentListCell == null) {
+                    nextCell();
+                    continue;
+                }
+                XSSFCell cell = nextCell(
+                    getCellStyleOfScore(meetingAssignmentListCell.getScore()));
+                if (meetingAssignmentListCell.getComment() != null) {
+                    ClientAnchor anchor = creationHelper.createClientAnchor();
+                    anchor.setCol1(cell.getColumnIndex());
+                    anchor.setCol2(cell.getColumnIndex() + 4);
+                    anchor.setRow1(currentRow.getRowNum());
+                    anchor.setRow2(currentRow.getRowNum() + 4);
+                    Comment comment = currentDrawing.createCellComment(anchor);
+                    comment.setString(creationHelper.createRichTextString(
+                        meetingAssignmentListCell.getComment()));
+                    cell.setCellComment(comment);
+                }
+                currentRow.setHeightInPoints(Math.max(currentRow.getHeightInPoints(),
+                    meetingAssignmentListCell.getMeetingAssignmentCount()
+                        * currentSheet.getDefaultRowHeightInPoints()));
+            }
+            for (int[] mergedColumnRange : meetingAssignmentListRow.getMergedColumnRangeList()) {
                 currentSheet.addMergedRegion(
-                    new CellRangeAddress(currentRowNumber, currentRowNumber, mergeStart,
-                        currentColumnNumber));
+                    new CellRangeAddress(currentRowNumber, currentRowNumber,
+                        firstColumnNumber + mergedColumnRange[0],
+                        firstColumnNumber + mergedColumnRange[1]));
             }
         }
 
-        private int getLongestDurationInGrains(List<MeetingAssignment> meetingAssignmentList) {
+        int getLongestDurationInGrains(List<MeetingAssignment> meetingAssignmentList) {
             int longestDurationInGrains = 1;
             for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
                 if (meetingAssignment.getMeeting().getDurationInGrains()
@@ -883,39 +1508,19 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
             }
         }
 
-        void nextMeetingAssignmentListCell(
-            List<MeetingAssignment> meetingAssignmentList,
-            List<String> filteredConstraintNames) {
-            if (meetingAssignmentList == null) {
-                meetingAssignmentList = Collections.emptyList();
-            }
-            HardMediumSoftScore score = meetingAssignmentList.stream()
-                .map(indictmentMap::get).filter(Objects::nonNull)
-                .flatMap(indictment -> indictment.getConstraintMatchSet().stream())
-                // Filter out filtered constraints
-                .filter(constraintMatch -> filteredConstraintNames == null
-                    || filteredConstraintNames.contains(constraintMatch.getConstraintName()))
-                .map(ConstraintMatch::getScore)
-                // Filter out positive constraints
-                .filter(indictmentScore -> !(indictmentScore.getHardScore() >= 0
-                    && indictmentScore.getSoftScore() >= 0))
-                .reduce(HardMediumSoftScore::add).orElse(HardMediumSoftScore.ZERO);
-
-            XSSFCell cell = getXSSFCellOfScore(score);
-
-            if (!meetingAssignmentList.isEmpty()) {
-                ClientAnchor anchor = creationHelper.createClientAnchor();
-                anchor.setCol1(cell.getColumnIndex());
-                anchor.setCol2(cell.getColumnIndex() + 4);
-                anchor.setRow1(currentRow.getRowNum());
-                anchor.setRow2(currentRow.getRowNum() + 4);
-                Comment comment = currentDrawing.createCellComment(anchor);
-                String commentString = getMeetingAssignmentListString(meetingAssignmentList);
-                comment.setString(creationHelper.createRichTextString(commentString));
-                cell.setCellComment(comment);
+        /**
+         * @return the penalties of the view constraints on the assignments
+         */
+        HardMediumSoftScore calculateMeetingAssignmentListScore(
+            List<MeetingAssignment> meetingAssignmentList) {
+            HardMediumSoftScore score = HardMediumSoftScore.ZERO;
+            for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+                IndictmentSummary indictmentSummary = indictmentSummaryMap.get(meetingAssignment);
+                if (indictmentSummary != null) {
+                    score = score.add(indictmentSummary.getViewPenaltyScore());
+                }
             }
-            currentRow.setHeightInPoints(Math.max(currentRow.getHeightInPoints(),
-                meetingAssignmentList.size() * currentSheet.getDefaultRowHeightInPoints()));
+            return score;
         }
 
         private String getMeetingAssignmentListString(
@@ -936,55 +1541,495 @@ public class MeetingSchedulingXlsxFileIO extends AbstractXlsxSolutionFileIO<Meet
                     .append("Scenario Id: ").append(meetingAssignment.getMeeting().getScenarioId())
                     .append("\n");
 
-                Indictment<HardMediumSoftScore> indictment = indictmentMap.get(meetingAssignment);
-                if (indictment != null) {
-                    commentString.append("\n").append(indictment.getScore().toShortString())
-                        .append(" total");
-                    Set<ConstraintMatch<HardMediumSoftScore>> constraintMatchSet = indictment
-                        .getConstraintMatchSet();
-                    List<String> constraintNameList = constraintMatchSet.stream()
-                        .map(ConstraintMatch::getConstraintName).distinct().collect(toList());
-                    for (String constraintName : constraintNameList) {
-                        List<ConstraintMatch<HardMediumSoftScore>> filteredConstraintMatchList = constraintMatchSet
-                            .stream()
-                            .filter(constraintMatch -> constraintMatch.getConstraintName()
-                                .equals(constraintName))
-                            .collect(toList());
-                        HardMediumSoftScore sum = filteredConstraintMatchList.stream()
-                            .map(ConstraintMatch::getScore)
-                            .reduce(HardMediumSoftScore::add)
-                            .orElse(HardMediumSoftScore.ZERO);
-                        String justificationTalkCodes = filteredConstraintMatchList.stream()
-                            .flatMap(
-                                constraintMatch -> constraintMatch.getJustificationList().stream())
-                            .filter(justification -> justification instanceof MeetingAssignment
-                                && justification != meetingAssignment)
-                            .distinct()
-                            .map(o -> Long.toString(((MeetingAssignment) o).getMeeting().getId()))
-                            .collect(joining(COMMA_DELIMITER));
-                        commentString.append("\n    ").append(sum.toShortString())
-                            .append(" for ").append(filteredConstraintMatchList.size())
-                            .append(" ").append(constraintName).append("s")
-                            .append("\n        ").append(justificationTalkCodes);
-                    }
+                IndictmentSummary indictmentSummary = indictmentSummaryMap.get(meetingAssignment);
+                if (indictmentSummary != null) {
+                    commentString.append(indictmentSummary.getCommentString());
                 }
                 commentString.append("\n\n");
             }
             return commentString.toString();
         }
 
-        private XSSFCell getXSSFCellOfScore(HardMediumSoftScore score) {
-            XSSFCell cell;
+        XSSFCellStyle getCellStyleOfScore(HardMediumSoftScore score) {
             if (!score.isFeasible()) {
-                cell = nextCell(hardPenaltyStyle);
+                return hardPenaltyStyle;
             } else if (score.getMediumScore() < 0) {
-                cell = nextCell(mediumPenaltyStyle);
+                return mediumPenaltyStyle;
             } else if (score.getSoftScore() < 0) {
-                cell = nextCell(softPenaltyStyle);
+                return softPenaltyStyle;
             } else {
-                cell = nextCell(wrappedStyle);
+                return wrappedStyle;
+            }
+        }
+    }
+
+    /**
+     * Writes the same sheets as {@link MeetingSchedulingXlsxWriter}, but streams the sheets that
+     * grow with the schedule: "Meetings", the views and the score view. Their rows are created in
+     * order and flushed to a temporary file once they leave the window, so the printed form view,
+     * which is filled column by column, is computed before its rows are written. "Meetings" is
+     * written by {@link MeetingSchedulingInputXlsxWriter}, the small input sheets by the superclass
+     * into the wrapped {@link XSSFWorkbook}.
+     * <p>
+     * The view cells don't get an indictment {@link Comment}, because POI keeps all comments of a
+     * sheet in memory until the end. The cells keep their penalty style and the score view lists
+     * the same constraint matches.
+     */
+    private static class MeetingSchedulingStreamingXlsxWriter extends MeetingSchedulingXlsxWriter {
+
+        private static final int ROW_ACCESS_WINDOW_SIZE = 100;
+
+        private SXSSFWorkbook streamingWorkbook;
+        private SXSSFSheet streamingSheet;
+        private SXSSFRow streamingRow;
+        private int streamingRowNumber;
+        private int streamingColumnNumber;
+
+        MeetingSchedulingStreamingXlsxWriter(MeetingSchedule solution) {
+            super(solution);
+        }
+
+        @Override
+        public Workbook write() {
+            workbook = new XSSFWorkbook();
+            creationHelper = workbook.getCreationHelper();
+            createStyles();
+            writeConfiguration();
+            writeDays();
+            writeRooms();
+            writePersons();
+            writeScenarios();
+            // Only the sheets created through the streaming workbook are flushed
+            streamingWorkbook = new SXSSFWorkbook(workbook, ROW_ACCESS_WINDOW_SIZE);
+            new MeetingSchedulingInputXlsxWriter(solution, streamingWorkbook, headerStyle,
+                defaultStyle).writeMeetings();
+            createViewIndexes();
+            writeStreamingRoomsView();
+            writeStreamingPersonsView();
+            writeStreamingPrintedFormView();
+            writeStreamingScoreView();
+            return streamingWorkbook;
+        }
+
+        private void writeStreamingRoomsView() {
+            nextStreamingSheet("Rooms view", 1, 2);
+            nextStreamingRow();
+            nextStreamingHeaderCell("");
+            writeStreamingTimeGrainDaysHeaders();
+            nextStreamingRow();
+            nextStreamingHeaderCell("Room");
+            writeStreamingTimeGrainHoursHeaders();
+            forEachMeetingAssignmentListRow(solution.getRoomList(), roomMeetingAssignmentMap,
+                false, (room, meetingAssignmentListRow) -> {
+                    nextStreamingRow();
+                    streamingRow.setHeightInPoints(
+                        2 * streamingSheet.getDefaultRowHeightInPoints());
+                    nextStreamingCell().setCellValue(room.getName());
+                    writeStreamingMeetingAssignmentListRow(meetingAssignmentListRow);
+                });
+            setStreamingViewColumnWidths();
+        }
+
+        private void writeStreamingPersonsView() {
+            nextStreamingSheet("Persons view", 1, 2);
+            nextStreamingRow();
+            nextStreamingHeaderCell("");
+            nextStreamingHeaderCell("");
+            writeStreamingTimeGrainDaysHeaders();
+            nextStreamingRow();
+            nextStreamingHeaderCell("Person");
+            writeStreamingTimeGrainHoursHeaders();
+            forEachMeetingAssignmentListRow(solution.getPersonList(), personMeetingAssignmentMap,
+                false, (person, meetingAssignmentListRow) -> {
+                    nextStreamingRow();
+                    streamingRow.setHeightInPoints(
+                        2 * streamingSheet.getDefaultRowHeightInPoints());
+                    nextStreamingHeaderCell(person.getFullName());
+                    writeStreamingMeetingAssignmentListRow(meetingAssignmentListRow);
+                });
+            setStreamingViewColumnWidths();
+        }
+
+        private void writeStreamingPrintedFormView() {
+            nextStreamingSheet("Printed form view", 1, 1);
+            List<TimeGrain> timeGrainList = solution.getTimeGrainList();
+            // The columns are filled top-down, so compute them before streaming the rows
+            List<Room> printedRoomList = getPrintedRoomList();
+            List<PrintedFormColumn> printedFormColumnList =
+                createPrintedFormColumnList(printedRoomList);
+
+            nextStreamingRow();
+            nextStreamingHeaderCell("");
+            for (Room room : printedRoomList) {
+                nextStreamingHeaderCell(room.getName());
+            }
+            double interval = Math.ceil(30 * 1.0 / TimeGrain.GRAIN_LENGTH_IN_MINUTES);
+            int mergeStart = -1;
+            for (int i = 0; i < timeGrainList.size(); i++) {
+                TimeGrain timeGrain = timeGrainList.get(i);
+                nextStreamingRow();
+                if (timeGrain.getGrainIndex() % interval == 0) {
+                    nextStreamingCell().setCellValue(timeGrain.getDateTimeString());
+                    mergeStart = streamingRowNumber;
+                } else {
+                    streamingColumnNumber++;
+                }
+                for (PrintedFormColumn printedFormColumn : printedFormColumnList) {
+                    SXSSFCell cell = nextStreamingCell();
+                    String value = printedFormColumn.getValues()[i];
+                    if (value != null) {
+                        cell.setCellValue(value);
+                    }
+                }
+            }
+            if (mergeStart < streamingRowNumber) {
+                streamingSheet.addMergedRegion(
+                    new CellRangeAddress(mergeStart, streamingRowNumber, 0, 0));
+            }
+            for (int i = 0; i < printedFormColumnList.size(); i++) {
+                for (int[] mergedRowRange : printedFormColumnList.get(i).getMergedRowRangeList()) {
+                    streamingSheet.addMergedRegion(new CellRangeAddress(
+                        mergedRowRange[0], mergedRowRange[1], i + 1, i + 1));
+                }
+            }
+            setStreamingColumnWidths(printedRoomList.size() + 1, 6000);
+        }
+
+        private void writeStreamingScoreView() {
+            nextStreamingSheet("Score view", 1, 3);
+            nextStreamingRow();
+            nextStreamingHeaderCell("Score");
+            HardMediumSoftScore score = solution.getScore();
+            nextStreamingCell().setCellValue(
+                score == null ? "Not yet solved" : score.toShortString());
+            nextStreamingRow();
+            nextStreamingRow();
+            nextStreamingHeaderCell("Constraint match");
+            nextStreamingHeaderCell("Match score");
+            nextStreamingHeaderCell("Total score");
+
+            // Every constraint match is in the indictment of each of its justifications
+            Map<String, List<ConstraintMatch<HardMediumSoftScore>>> constraintMatchListMap =
+                indictmentMap.values().stream()
+                    .flatMap(indictment -> indictment.getConstraintMatchSet().stream())
+                    .distinct()
+                    .collect(groupingBy(ConstraintMatch::getConstraintName, toList()));
+            List<String> constraintNameList = constraintMatchListMap.entrySet().stream()
+                .sorted(Comparator.comparing(entry -> sumScores(entry.getValue())))
+                .map(Map.Entry::getKey)
+                .collect(toList());
+            for (String constraintName : constraintNameList) {
+                List<ConstraintMatch<HardMediumSoftScore>> constraintMatchList =
+                    constraintMatchListMap.get(constraintName);
+                nextStreamingRow();
+                nextStreamingHeaderCell(constraintName);
+                nextStreamingCell();
+                nextStreamingCell().setCellValue(sumScores(constraintMatchList).toShortString());
+                constraintMatchList.sort(Comparator.comparing(ConstraintMatch::getScore));
+                for (ConstraintMatch<HardMediumSoftScore> constraintMatch : constraintMatchList) {
+                    nextStreamingRow();
+                    nextStreamingCell().setCellValue(
+                        "    " + formatJustificationList(constraintMatch.getJustificationList()));
+                    nextStreamingCell().setCellValue(constraintMatch.getScore().toShortString());
+                    nextStreamingCell();
+                }
+            }
+            streamingSheet.setColumnWidth(0, 20000);
+            streamingSheet.setColumnWidth(1, 5000);
+            streamingSheet.setColumnWidth(2, 5000);
+        }
+
+        private void writeStreamingMeetingAssignmentListRow(
+            MeetingAssignmentListRow meetingAssignmentListRow) {
+            int firstColumnNumber = streamingColumnNumber + 1;
+            for (MeetingAssignmentListCell meetingAssignmentListCell
+                : meetingAssignmentListRow.getCells()) {
+                if (meetingAssignmentListCell == null) {
+                    nextStreamingCell();
+                    continue;
+                }
+                nextStreamingCell(getCellStyleOfScore(meetingAssignmentListCell.getScore()));
+                streamingRow.setHeightInPoints(Math.max(streamingRow.getHeightInPoints(),
+                    meetingAssignmentListCell.getMeetingAssignmentCount()
+                        * streamingSheet.getDefaultRowHeightInPoints()));
+            }
+            for (int[] mergedColumnRange : meetingAssignmentListRow.getMergedColumnRangeList()) {
+                streamingSheet.addMergedRegion(
+                    new CellRangeAddress(streamingRowNumber, streamingRowNumber,
+                        firstColumnNumber + mergedColumnRange[0],
+                        firstColumnNumber + mergedColumnRange[1]));
             }
+        }
+
+        private void writeStreamingTimeGrainDaysHeaders() {
+            Day previousTimeGrainDay = null;
+            int mergeStart = -1;
+
+            for (TimeGrain timeGrain : solution.getTimeGrainList()) {
+                Day timeGrainDay = timeGrain.getDay();
+                if (timeGrainDay.equals(previousTimeGrainDay)) {
+                    nextStreamingHeaderCell("");
+                } else {
+                    if (previousTimeGrainDay != null) {
+                        streamingSheet.addMergedRegion(
+                            new CellRangeAddress(streamingRowNumber, streamingRowNumber,
+                                mergeStart, streamingColumnNumber));
+                    }
+                    nextStreamingHeaderCell(DAY_FORMATTER.format(
+                        LocalDate.ofYearDay(Year.now().getValue(), timeGrainDay.getDayOfYear())));
+                    previousTimeGrainDay = timeGrainDay;
+                    mergeStart = streamingColumnNumber;
+                }
+            }
+            if (previousTimeGrainDay != null) {
+                streamingSheet.addMergedRegion(
+                    new CellRangeAddress(streamingRowNumber, streamingRowNumber, mergeStart,
+                        streamingColumnNumber));
+            }
+        }
+
+        private void writeStreamingTimeGrainHoursHeaders() {
+            for (TimeGrain timeGrain : solution.getTimeGrainList()) {
+                LocalTime startTime = LocalTime
+                    .ofSecondOfDay(timeGrain.getStartingMinuteOfDay() * 60L);
+                nextStreamingHeaderCell(TIME_FORMATTER.format(startTime));
+            }
+        }
+
+        // ************************************************************************
+        // Helper methods
+        // ************************************************************************
+
+        private static HardMediumSoftScore sumScores(
+            List<ConstraintMatch<HardMediumSoftScore>> constraintMatchList) {
+            return constraintMatchList.stream()
+                .map(ConstraintMatch::getScore)
+                .reduce(HardMediumSoftScore::add).orElse(HardMediumSoftScore.ZERO);
+        }
+
+        private void nextStreamingSheet(String sheetName, int colSplit, int rowSplit) {
+            streamingSheet = streamingWorkbook.createSheet(sheetName);
+            streamingSheet.createFreezePane(colSplit, rowSplit);
+            streamingRow = null;
+            streamingRowNumber = -1;
+            streamingColumnNumber = -1;
+        }
+
+        private void nextStreamingRow() {
+            streamingRowNumber++;
+            streamingRow = streamingSheet.createRow(streamingRowNumber);
+            streamingColumnNumber = -1;
+        }
+
+        private void nextStreamingHeaderCell(String value) {
+            nextStreamingCell(headerStyle).setCellValue(value);
+        }
+
+        private SXSSFCell nextStreamingCell() {
+            return nextStreamingCell(defaultStyle);
+        }
+
+        private SXSSFCell nextStreamingCell(CellStyle cellStyle) {
+            streamingColumnNumber++;
+            SXSSFCell cell = streamingRow.createCell(streamingColumnNumber);
+            cell.setCellStyle(cellStyle);
             return cell;
         }
+
+        /**
+         * Flushed rows can't be measured, so the columns get a fixed width instead of
+         * {@link #autoSizeColumnsWithHeader()}.
+         */
+        private void setStreamingColumnWidths(int columnCount, int width) {
+            for (int i = 0; i < columnCount; i++) {
+                streamingSheet.setColumnWidth(i, width);
+            }
+        }
+
+        private void setStreamingViewColumnWidths() {
+            streamingSheet.setColumnWidth(0, 6000);
+            for (int i = 1; i <= solution.getTimeGrainList().size(); i++) {
+                streamingSheet.setColumnWidth(i, 3000);
+            }
+        }
+    }
+
+    /**
+     * The cells of one row of the rooms or persons view, one per time grain. They are computed
+     * without touching the workbook, so the rows can be built in parallel.
+     */
+    private static final class MeetingAssignmentListRow {
+
+        // A null cell is covered by the merged region of the meetings before it
+        private final MeetingAssignmentListCell[] cells;
+        // Inclusive time grain positions
+        private final List<int[]> mergedColumnRangeList;
+
+        MeetingAssignmentListRow(MeetingAssignmentListCell[] cells,
+            List<int[]> mergedColumnRangeList) {
+            this.cells = cells;
+            this.mergedColumnRangeList = mergedColumnRangeList;
+        }
+
+        MeetingAssignmentListCell[] getCells() {
+            return cells;
+        }
+
+        List<int[]> getMergedColumnRangeList() {
+            return mergedColumnRangeList;
+        }
+    }
+
+    private static final class MeetingAssignmentListCell {
+
+        private final int meetingAssignmentCount;
+        private final HardMediumSoftScore score;
+        private final String comment;
+
+        MeetingAssignmentListCell(int meetingAssignmentCount, HardMediumSoftScore score,
+            String comment) {
+            this.meetingAssignmentCount = meetingAssignmentCount;
+            this.score = score;
+            this.comment = comment;
+        }
+
+        int getMeetingAssignmentCount() {
+            return meetingAssignmentCount;
+        }
+
+        HardMediumSoftScore getScore() {
+            return score;
+        }
+
+        /**
+         * @return null if the cell has no meetings or the comments are not written
+         */
+        String getComment() {
+            return comment;
+        }
+    }
+
+    /**
+     * The cells of one room of the printed form view, one per time grain.
+     */
+    private static final class PrintedFormColumn {
+
+        // A null value is an empty cell
+        private final String[] values;
+        // Inclusive sheet row numbers
+        private final List<int[]> mergedRowRangeList;
+
+        PrintedFormColumn(String[] values, List<int[]> mergedRowRangeList) {
+            this.values = values;
+            this.mergedRowRangeList = mergedRowRangeList;
+        }
+
+        String[] getValues() {
+            return values;
+        }
+
+        List<int[]> getMergedRowRangeList() {
+            return mergedRowRangeList;
+        }
+    }
+
+    /**
+     * The indictment of one assignment, summed per constraint in one pass over its constraint
+     * matches. Built once per export and shared by the cell styles and comments of all views.
+     */
+    private static final class IndictmentSummary {
+
+        private final HardMediumSoftScore totalScore;
+        // Only the penalties of the VIEW_CONSTRAINT_NAMES, for the cell style
+        private final HardMediumSoftScore viewPenaltyScore;
+        // In the order the constraints first appear in the constraint match set
+        private final List<ConstraintSummary> constraintSummaryList;
+        // Built lazily, only the views with comments need it. Racing threads build equal strings.
+        private String commentString = null;
+
+        IndictmentSummary(MeetingAssignment meetingAssignment,
+            Indictment<HardMediumSoftScore> indictment) {
+            totalScore = indictment.getScore();
+            HardMediumSoftScore viewPenaltyScore = HardMediumSoftScore.ZERO;
+            Map<String, ConstraintSummary> constraintSummaryMap = new LinkedHashMap<>();
+            for (ConstraintMatch<HardMediumSoftScore> constraintMatch : indictment
+                .getConstraintMatchSet()) {
+                HardMediumSoftScore matchScore = constraintMatch.getScore();
+                if (VIEW_CONSTRAINT_NAMES.contains(constraintMatch.getConstraintName())
+                    && !(matchScore.getHardScore() >= 0 && matchScore.getSoftScore() >= 0)) {
+                    viewPenaltyScore = viewPenaltyScore.add(matchScore);
+                }
+                constraintSummaryMap
+                    .computeIfAbsent(constraintMatch.getConstraintName(), ConstraintSummary::new)
+                    .addConstraintMatch(meetingAssignment, constraintMatch);
+            }
+            this.viewPenaltyScore = viewPenaltyScore;
+            constraintSummaryList = new ArrayList<>(constraintSummaryMap.values());
+        }
+
+        HardMediumSoftScore getViewPenaltyScore() {
+            return viewPenaltyScore;
+        }
+
+        String getCommentString() {
+            if (commentString == null) {
+                StringBuilder commentStringBuilder = new StringBuilder();
+                commentStringBuilder.append("\n").append(totalScore.toShortString())
+                    .append(" total");
+                for (ConstraintSummary constraintSummary : constraintSummaryList) {
+                    commentStringBuilder.append("\n    ")
+                        .append(constraintSummary.getScore().toShortString())
+                        .append(" for ").append(constraintSummary.getMatchCount())
+                        .append(" ").append(constraintSummary.getConstraintName()).append("s")
+                        .append("\n        ").append(constraintSummary.getJustificationMeetingIds()
+                        .stream().map(Object::toString).collect(joining(COMMA_DELIMITER)));
+                }
+                commentString = commentStringBuilder.toString();
+            }
+            return commentString;
+        }
+    }
+
+    private static final class ConstraintSummary {
+
+        private final String constraintName;
+        private HardMediumSoftScore score = HardMediumSoftScore.ZERO;
+        private int matchCount = 0;
+        // The other assignments in the matches, each once
+        private final Set<MeetingAssignment> justificationSet = new LinkedHashSet<>();
+
+        ConstraintSummary(String constraintName) {
+            this.constraintName = constraintName;
+        }
+
+        void addConstraintMatch(MeetingAssignment meetingAssignment,
+            ConstraintMatch<HardMediumSoftScore> constraintMatch) {
+            score = score.add(constraintMatch.getScore());
+            matchCount++;
+            for (Object justification : constraintMatch.getJustificationList()) {
+                if (justification instanceof MeetingAssignment
+                    && justification != meetingAssignment) {
+                    justificationSet.add((MeetingAssignment) justification);
+                }
+            }
+        }
+
+        String getConstraintName() {
+            return constraintName;
+        }
+
+        HardMediumSoftScore getScore() {
+            return score;
+        }
+
+        int getMatchCount() {
+            return matchCount;
+        }
+
+        List<Long> getJustificationMeetingIds() {
+            return justificationSet.stream()
+                .map(meetingAssignment -> meetingAssignment.getMeeting().getId())
+                .collect(toList());
+        }
     }
-}
\ No newline at end of file
+}
@@ -7,28 +7,26 @@ import static org.blinemedical.examination.persistence.MeetingSchedulingGenerato
 
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpHeaders;
-import com.google.api.client.http.HttpRequest;
 import com.google.api.client.http.HttpRequestFactory;
 import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.client.http.HttpTransport;
 import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.JsonObjectParser;
-import com.google.api.client.json.jackson2.JacksonFactory;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.math.BigInteger;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
 
@@ -43,6 +41,9 @@ import org.blinemedical.examination.domain.MeetingSchedule;
 import org.blinemedical.examination.domain.Person;
 import org.blinemedical.examination.domain.Room;
 import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.persistence.MeteorSampleData.MeteorPerson;
+import org.blinemedical.examination.persistence.MeteorSampleData.MeteorRoom;
+import org.blinemedical.examination.persistence.MeteorSampleData.MeteorScenario;
 import org.optaplanner.examples.common.app.CommonApp;
 import org.optaplanner.examples.common.persistence.AbstractSolutionImporter;
 import org.optaplanner.persistence.common.api.domain.solution.SolutionFileIO;
@@ -51,7 +52,6 @@ public class MeteorDataGenerator {
 
     private static final Logger logger = LogManager.getLogger(MeteorDataGenerator.class);
     static HttpTransport HTTP_TRANSPORT = new NetHttpTransport();
-    static JsonFactory JSON_FACTORY = new JacksonFactory();
 
     public static void main(String[] args) throws IOException {
         //String DATA_DIR_SYSTEM_PROPERTY = "org.optaplanner.examples.dataDir";
@@ -59,6 +59,7 @@ public class MeteorDataGenerator {
         File configFile = new File(".config");
         String courseId = "";
         String token = "";
+        String baseUrl = DEFAULT_BASE_URL;
         try {
             Scanner myReader = new Scanner(configFile);
             while (myReader.hasNextLine()) {
@@ -68,6 +69,8 @@ public class MeteorDataGenerator {
                     token = data.replace("token=", "");
                 } else if(data.contains("courseId=")) {
                     courseId = data.replace("courseId=", "");
+                } else if (data.contains("baseUrl=")) {
+                    baseUrl = data.replace("baseUrl=", "");
                 }
             }
             myReader.close();
@@ -93,70 +96,125 @@ public class MeteorDataGenerator {
         logger.debug("Using courseId: ({})", courseId);
         
         
-        MeteorDataGenerator generator = new MeteorDataGenerator();
+        File dataDir = CommonApp.determineDataDir(ExaminationApp.DATA_DIR_NAME);
+        MeteorDataGenerator generator = new MeteorDataGenerator(baseUrl,
+            new File(dataDir, "unsolved"), HTTP_TRANSPORT,
+            new MeteorResponseCache(new File(dataDir, "meteorCache")));
 
         Instant startTime = Instant.parse("2020-12-18T08:00:00.00Z");
         Instant endTime = Instant.parse("2020-12-18T16:00:00.00Z");
         Duration meetingDuration = Duration.ofHours(GRAIN_LENGTH_IN_MINUTES);
         int meetingDurationInGrains = (int) (meetingDuration.toMinutes() / GRAIN_LENGTH_IN_MINUTES);
 
-        HttpRequestFactory requestFactory = HTTP_TRANSPORT.createRequestFactory(
-            (HttpRequest request) -> request.setParser(new JsonObjectParser(JSON_FACTORY)));
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("token", token);
-
         // all users
-        HttpRequest request = requestFactory
-            .buildGetRequest(new GenericUrl("http://localhost:8080/api/sample-data"))
-            .setHeaders(headers);
-        HttpResponse response = request.execute();
-
-        JsonElement el = JsonParser.parseString(response.parseAsString());
-        JsonArray rooms = el.getAsJsonObject().get("rooms").getAsJsonArray();
-        logger.trace("Found ({}) rooms from meteor", rooms.size());
-
-        JsonArray learners = el.getAsJsonObject().get("learners").getAsJsonArray();
-        JsonArray patients = el.getAsJsonObject().get("patients").getAsJsonArray();
-        JsonArray scenarios = el.getAsJsonObject().get("scenarios").getAsJsonArray();
-
-        generator.writeMeetingSchedule(learners, patients, rooms, scenarios, startTime, endTime,
-            meetingDurationInGrains, "allCourses");
+        MeteorSampleData sampleData = generator.fetchSampleData(token, null);
+        logger.trace("Found ({}) rooms from meteor", sampleData.getRoomList().size());
+        generator.writeMeetingSchedule(sampleData, startTime, endTime, meetingDurationInGrains,
+            "allCourses");
 
         if (!courseId.equals("")) {
             // course only
-            HttpRequest request2 = requestFactory.buildGetRequest(new GenericUrl(
-                "http://localhost:8080/api/sample-data?courseId=" + courseId))
-                .setHeaders(headers);
-            HttpResponse response2 = request2.execute();
-
-            JsonElement el2 = JsonParser.parseString(response2.parseAsString());
-            JsonArray courseRooms = el2.getAsJsonObject().get("rooms").getAsJsonArray();
-            JsonArray courseLearners = el2.getAsJsonObject().get("learners").getAsJsonArray();
-            JsonArray coursePatients = el2.getAsJsonObject().get("patients").getAsJsonArray();
-            JsonArray courseScenarios = el2.getAsJsonObject().get("scenarios").getAsJsonArray();
-            generator.writeMeetingSchedule(courseLearners, coursePatients, courseRooms, courseScenarios,
-                startTime, endTime, meetingDurationInGrains, "course-" + courseId);
+            MeteorSampleData courseSampleData;
+            if (sampleData.hasCourseIds()) {
+                courseSampleData = sampleData.filterByCourse(courseId);
+            } else {
+                logger.info("Not every learner and scenario has a course id,"
+                    + " fetching course ({}) separately.", courseId);
+                courseSampleData = generator.fetchSampleData(token, courseId);
+            }
+            generator.writeMeetingSchedule(courseSampleData, startTime, endTime,
+                meetingDurationInGrains, "course-" + courseId);
         }
     }
 
+    public static final String DEFAULT_BASE_URL = "http://localhost:8080";
+    public static final String SAMPLE_DATA_PATH = "/api/sample-data";
+
     protected final SolutionFileIO<MeetingSchedule> solutionFileIO;
     protected final File outputDir;
+    protected final String baseUrl;
+    protected final HttpRequestFactory requestFactory;
+    protected final MeteorResponseCache responseCache;
 
     protected Random random;
 
     public MeteorDataGenerator() {
+        this(DEFAULT_BASE_URL,
+            new File(CommonApp.determineDataDir(ExaminationApp.DATA_DIR_NAME), "unsolved"));
+    }
+
+    /**
+     * @param baseUrl for example {@code http://localhost:8080}, or the address of a stub server
+     * @param outputDir where the unsolved schedules are written
+     */
+    public MeteorDataGenerator(String baseUrl, File outputDir) {
+        this(baseUrl, outputDir, HTTP_TRANSPORT);
+    }
+
+    public MeteorDataGenerator(String baseUrl, File outputDir, HttpTransport httpTransport) {
+        this(baseUrl, outputDir, httpTransport, null);
+    }
+
+    /**
+     * @param responseCache null to download every response
+     */
+    public MeteorDataGenerator(String baseUrl, File outputDir, HttpTransport httpTransport,
+        MeteorResponseCache responseCache) {
         solutionFileIO = new MeetingSchedulingXlsxFileIO();
-        outputDir = new File(CommonApp.determineDataDir(ExaminationApp.DATA_DIR_NAME), "unsolved");
+        this.outputDir = outputDir;
+        this.baseUrl = baseUrl;
+        requestFactory = httpTransport.createRequestFactory();
+        this.responseCache = responseCache;
     }
 
-    private void writeMeetingSchedule(JsonArray learners, JsonArray patients, JsonArray rooms,
-        JsonArray scenarios, Instant startTime,
-        Instant endTime, int durationInGrains,
-        String fileNameSuffix) {
-        int roomListSize = rooms.size();
-        int learnersListSize = learners.size();
-        int patientsListSize = patients.size();
-        int scenarioListSize = scenarios.size();
+    /**
+     * With a {@link MeteorResponseCache}, the request is conditional and an unchanged response is
+     * read from the cache instead of being downloaded again.
+     * @param courseId null or empty for all courses
+     */
+    public MeteorSampleData fetchSampleData(String token, String courseId) throws IOException {
+        GenericUrl url = new GenericUrl(baseUrl + SAMPLE_DATA_PATH);
+        if (courseId != null && !courseId.isEmpty()) {
+            url.set("courseId", courseId);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("token", token);
+        if (responseCache != null) {
+            responseCache.addValidators(url, token, headers);
+        }
+        HttpResponse response = requestFactory.buildGetRequest(url)
+            .setHeaders(headers)
+            .setThrowExceptionOnExecuteError(false)
+            .execute();
+        try {
+            if (responseCache != null
+                && response.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+                logger.info("The response of ({}) is not modified, reading it from the cache ({}).",
+                    url, responseCache.getCacheDir());
+            } else if (!response.isSuccessStatusCode()) {
+                throw new HttpResponseException(response);
+            } else if (responseCache != null) {
+                responseCache.store(url, token, response);
+            } else {
+                try (JsonReader in = new JsonReader(new BufferedReader(new InputStreamReader(
+                    response.getContent(), response.getContentCharset())))) {
+                    return MeteorSampleData.read(in);
+                }
+            }
+        } finally {
+            response.disconnect();
+        }
+        try (JsonReader in = new JsonReader(responseCache.openBody(url, token))) {
+            return MeteorSampleData.read(in);
+        }
+    }
+
+    public File writeMeetingSchedule(MeteorSampleData sampleData, Instant startTime,
+        Instant endTime, int durationInGrains, String fileNameSuffix) {
+        int roomListSize = sampleData.getRoomList().size();
+        int learnersListSize = sampleData.getLearnerList().size();
+        int patientsListSize = sampleData.getPatientList().size();
+        int scenarioListSize = sampleData.getScenarioList().size();
         Duration meetingDuration = Duration.between(startTime, endTime);
         int timeGrainListSize = (int) (meetingDuration.toMinutes() / GRAIN_LENGTH_IN_MINUTES);
 
@@ -170,15 +228,13 @@ public class MeteorDataGenerator {
             fileName + "." + solutionFileIO.getOutputFileExtension());
         MeetingSchedule meetingSchedule = createMeetingSchedule(
             fileName,
-            learners,
-            patients,
+            sampleData,
             startTime,
             timeGrainListSize,
-            rooms,
-            scenarios,
             durationInGrains);
         solutionFileIO.write(meetingSchedule, outputFile);
         logger.info("Saved: {}", outputFile);
+        return outputFile;
     }
 
     private String determineFileName(int learnersListSize, int patientsListSize, int roomListSize,
@@ -193,18 +249,15 @@ public class MeteorDataGenerator {
 
     public MeetingSchedule createMeetingSchedule(
         String fileName,
-        JsonArray learners,
-        JsonArray patients,
+        MeteorSampleData sampleData,
         Instant startTime,
         int timeGrainListSize,
-        JsonArray rooms,
-        JsonArray scenarios,
         int durationInGrains) {
 
-        int roomListSize = rooms.size();
-        int learnersListSize = learners.size();
-        int patientsListSize = patients.size();
-        int numScenarios = scenarios.size();
+        int roomListSize = sampleData.getRoomList().size();
+        int learnersListSize = sampleData.getLearnerList().size();
+        int patientsListSize = sampleData.getPatientList().size();
+        int numScenarios = sampleData.getScenarioList().size();
 
         random = new Random(37);
         MeetingSchedule meetingSchedule = new MeetingSchedule();
@@ -216,13 +269,16 @@ public class MeteorDataGenerator {
         meetingSchedule.setAttendanceList(new ArrayList<>());
         meetingSchedule.setPersonList(new ArrayList<>());
 
-        List<Attendance> learnerList = createLearners(meetingSchedule, learners);
-        List<Attendance> patientList = createPatients(meetingSchedule, patients, learnersListSize);
-        createScenariosAndAddPatients(meetingSchedule, scenarios, patientList);
+        List<Attendance> learnerList = createLearners(meetingSchedule,
+            sampleData.getLearnerList());
+        List<Attendance> patientList = createPatients(meetingSchedule,
+            sampleData.getPatientList(), learnersListSize);
+        createScenariosAndAddPatients(meetingSchedule, sampleData.getScenarioList(),
+            patientList);
         createMeetingListAndAttendanceList(meetingSchedule, learnerList,
             durationInGrains);
         createTimeGrainList(meetingSchedule, startTime, timeGrainListSize);
-        createRoomList(meetingSchedule, rooms);
+        createRoomList(meetingSchedule, sampleData.getRoomList());
         createMeetingAssignmentList(meetingSchedule);
 
         BigInteger possibleSolutionSize = BigInteger
@@ -242,7 +298,8 @@ public class MeteorDataGenerator {
         return meetingSchedule;
     }
 
-    private List<Attendance> createLearners(MeetingSchedule meetingSchedule, JsonArray learners) {
+    private List<Attendance> createLearners(MeetingSchedule meetingSchedule,
+        List<MeteorPerson> learners) {
         int learnersListSize = learners.size();
 
         List<Attendance> learnerList = new ArrayList<>(learnersListSize);
@@ -251,12 +308,12 @@ public class MeteorDataGenerator {
         long attendanceId = 0L;
         long personId = 0L;
 
-        for (int learnerIdx = 0; learnerIdx < learnersListSize; learnerIdx++) {
+        for (MeteorPerson learnerData : learners) {
             Attendance learner = new Attendance();
             learner.setId(attendanceId);
             attendanceId++;
 
-            Person person = createPerson(personId++, learners.get(learnerIdx).getAsJsonObject());
+            Person person = createPerson(personId++, learnerData);
             person.setPatient(false);
             learner.setPerson(person);
             personList.add(person);
@@ -272,8 +329,8 @@ public class MeteorDataGenerator {
         return learnerList;
     }
 
-    private List<Attendance> createPatients(MeetingSchedule meetingSchedule, JsonArray patients,
-        int learnersListSize) {
+    private List<Attendance> createPatients(MeetingSchedule meetingSchedule,
+        List<MeteorPerson> patients, int learnersListSize) {
         int patientsListSize = patients.size();
 
         List<Attendance> patientList = new ArrayList<>(patientsListSize);
@@ -282,12 +339,12 @@ public class MeteorDataGenerator {
         long attendanceId = learnersListSize;
         long personId = learnersListSize;
 
-        for (int patientIdx = 0; patientIdx < patientsListSize; patientIdx++) {
+        for (MeteorPerson patientData : patients) {
             Attendance patient = new Attendance();
             patient.setId(attendanceId);
             attendanceId++;
 
-            Person person = createPerson(personId++, patients.get(patientIdx).getAsJsonObject());
+            Person person = createPerson(personId++, patientData);
             person.setPatient(true);
             patient.setPerson(person);
             personList.add(person);
@@ -305,45 +362,35 @@ public class MeteorDataGenerator {
 
     private void createScenariosAndAddPatients(
         MeetingSchedule meetingSchedule,
-        JsonArray scenarios,
+        List<MeteorScenario> scenarios,
         List<Attendance> patientList) {
         int numScenarios = scenarios.size();
 
         List<Scenario> scenarioList = new ArrayList<>(numScenarios);
+        Map<String, Attendance> patientIndex = createPatientIndex(patientList);
 
         long scenarioId = 0L;
 
-        for (int scenarioIdx = 0; scenarioIdx < numScenarios; scenarioIdx++) {
-            JsonObject scenarioData = scenarios.get(scenarioIdx).getAsJsonObject();
+        for (MeteorScenario scenarioData : scenarios) {
             Scenario scenario = new Scenario();
             scenario.setId(scenarioId);
-            String scenarioName = scenarioData.get("privateTitle").getAsString();
-            scenario.setName(scenarioName);
+            scenario.setName(scenarioData.getPrivateTitle());
             scenarioId++;
 
-            JsonArray patientsData = scenarioData.get("patients").getAsJsonArray();
-            int patientsPerScenario = patientsData.size();
-            scenario.setPatients(new ArrayList<>());
-
-            for (int patientIdx = 0; patientIdx < patientsPerScenario; patientIdx++) {
-                JsonObject patientData = patientsData.get(patientIdx).getAsJsonObject();
-                String patientDataId = patientData.get("userId").getAsString();
-                String patientDataName = patientData.get("name").getAsString();
+            List<MeteorPerson> patientsData = scenarioData.getPatientList();
+            scenario.setPatients(new ArrayList<>(patientsData.size()));
 
+            for (MeteorPerson patientData : patientsData) {
                 logger.trace("Looking for name ({}), id ({}), in scenario ({}).",
-                    patientDataName, patientDataId, scenario.getName());
-                Optional<Attendance> patientToAdd = patientList.stream()
-                    .filter(patient -> patient.getPerson().getPersonId()
-                        .equalsIgnoreCase(patientDataId))
-                    .findAny();
-                if (patientToAdd.isPresent()) {
-                    Attendance patient = patientToAdd.get();
+                    patientData.getName(), patientData.getUserId(), scenario.getName());
+                Attendance patient = patientIndex.get(patientData.getUserIdKey());
+                if (patient != null) {
                     scenario.getPatients().add(patient);
                     logger.trace("Found patient ({}), adding them to scenario ({}).",
                         patient.getPerson().getFullName(), scenario.getName());
                 } else {
                     logger.error("Did not find patient ({}) in scenario ({}).",
-                        patientDataName, scenario.getName());
+                        patientData.getName(), scenario.getName());
                 }
             }
 
@@ -355,27 +402,38 @@ public class MeteorDataGenerator {
         meetingSchedule.setScenarioList(scenarioList);
     }
 
-    private void createRoomList(MeetingSchedule meetingSchedule, JsonArray rooms) {
+    /**
+     * The Meteor user ids are compared case-insensitively. With duplicate ids, the first patient
+     * wins.
+     */
+    private static Map<String, Attendance> createPatientIndex(List<Attendance> patientList) {
+        Map<String, Attendance> patientIndex = new HashMap<>(patientList.size() * 2);
+        for (Attendance patient : patientList) {
+            patientIndex.putIfAbsent(
+                MeteorPerson.toUserIdKey(patient.getPerson().getPersonId()), patient);
+        }
+        return patientIndex;
+    }
+
+    private void createRoomList(MeetingSchedule meetingSchedule, List<MeteorRoom> rooms) {
         int roomListSize = rooms.size();
         List<Room> roomList = new ArrayList<>(roomListSize);
         for (int i = 0; i < roomListSize; i++) {
-            JsonObject roomData = rooms.get(i).getAsJsonObject();
             Room room = new Room();
             room.setId((long) i);
-            String name = roomData.get("name").getAsString();
+            String name = rooms.get(i).getName();
             room.setName(name);
-            //int capacity = roomData.get("capacity").getAsInt();
             logger.trace("Created room with name ({}).", name);
             roomList.add(room);
         }
         meetingSchedule.setRoomList(roomList);
     }
 
-    private Person createPerson(long id, JsonObject personData) {
+    private Person createPerson(long id, MeteorPerson personData) {
         Person person = new Person();
         person.setId(id);
-        person.setPersonId(personData.get("userId").getAsString());
-        String fullName = personData.get("name").getAsString();
+        person.setPersonId(personData.getUserId());
+        String fullName = personData.getName();
         person.setFullName(fullName);
         logger.trace("Created person with fullName ({}).",
             fullName);
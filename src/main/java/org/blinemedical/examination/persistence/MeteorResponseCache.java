@@ -0,0 +1,159 @@
+package org.blinemedical.examination.persistence;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Keeps the last body of every Meteor URL on disk, with its {@code ETag} and
+ * {@code Last-Modified} validators. A request for a cached URL is sent as a conditional request
+ * and a {@code 304 Not Modified} answer is served from the cached body.
+ * <p>
+ * Meteor answers with the data the token may see, so every token gets its own entry. The token
+ * is only stored as a hash in the file names.
+ */
+public class MeteorResponseCache {
+
+    private static final Logger logger = LogManager.getLogger(MeteorResponseCache.class);
+
+    private static final String BODY_FILE_EXTENSION = ".json";
+    private static final String METADATA_FILE_EXTENSION = ".properties";
+
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "lastModified";
+    private static final String CHARSET_KEY = "charset";
+
+    private final File cacheDir;
+
+    public MeteorResponseCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    public File getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * Adds the validators of the cached response, if any, to the request headers.
+     */
+    public void addValidators(GenericUrl url, String token, HttpHeaders requestHeaders)
+        throws IOException {
+        Properties metadata = readMetadata(url, token);
+        if (metadata == null) {
+            return;
+        }
+        String etag = metadata.getProperty(ETAG_KEY);
+        if (etag != null) {
+            requestHeaders.setIfNoneMatch(etag);
+        }
+        String lastModified = metadata.getProperty(LAST_MODIFIED_KEY);
+        if (lastModified != null) {
+            requestHeaders.setIfModifiedSince(lastModified);
+        }
+    }
+
+    /**
+     * Streams a {@code 200 OK} body to the cache. The previous body is only replaced once the
+     * new one is complete.
+     */
+    public void store(GenericUrl url, String token, HttpResponse response) throws IOException {
+        Files.createDirectories(cacheDir.toPath());
+        Path bodyPath = getBodyFile(url, token).toPath();
+        Path tmpBodyPath = Files.createTempFile(cacheDir.toPath(), "body", ".tmp");
+        try (InputStream content = response.getContent()) {
+            Files.copy(content, tmpBodyPath, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(tmpBodyPath, bodyPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpBodyPath);
+        }
+
+        Properties metadata = new Properties();
+        HttpHeaders responseHeaders = response.getHeaders();
+        if (responseHeaders.getETag() != null) {
+            metadata.setProperty(ETAG_KEY, responseHeaders.getETag());
+        }
+        if (responseHeaders.getLastModified() != null) {
+            metadata.setProperty(LAST_MODIFIED_KEY, responseHeaders.getLastModified());
+        }
+        metadata.setProperty(CHARSET_KEY, response.getContentCharset().name());
+        try (Writer writer = Files.newBufferedWriter(getMetadataFile(url, token).toPath(),
+            StandardCharsets.UTF_8)) {
+            metadata.store(writer, url.build());
+        }
+        logger.debug("Cached the response of ({}) in ({}).", url, bodyPath);
+    }
+
+    /**
+     * @return a reader of the cached body, never null
+     * @throws IllegalStateException if the URL has no cached body
+     */
+    public Reader openBody(GenericUrl url, String token) throws IOException {
+        Properties metadata = readMetadata(url, token);
+        File bodyFile = getBodyFile(url, token);
+        if (metadata == null || !bodyFile.exists()) {
+            throw new IllegalStateException("The url (" + url + ") has no cached body ("
+                + bodyFile + ").");
+        }
+        Charset charset = Charset.forName(metadata.getProperty(CHARSET_KEY,
+            StandardCharsets.UTF_8.name()));
+        return Files.newBufferedReader(bodyFile.toPath(), charset);
+    }
+
+    // ************************************************************************
+    // Helper methods
+    // ************************************************************************
+
+    private Properties readMetadata(GenericUrl url, String token) throws IOException {
+        File metadataFile = getMetadataFile(url, token);
+        if (!metadataFile.exists() || !getBodyFile(url, token).exists()) {
+            return null;
+        }
+        Properties metadata = new Properties();
+        try (Reader reader = Files.newBufferedReader(metadataFile.toPath(),
+            StandardCharsets.UTF_8)) {
+            metadata.load(reader);
+        }
+        return metadata;
+    }
+
+    private File getBodyFile(GenericUrl url, String token) {
+        return new File(cacheDir, toFileName(url, token) + BODY_FILE_EXTENSION);
+    }
+
+    private File getMetadataFile(GenericUrl url, String token) {
+        return new File(cacheDir, toFileName(url, token) + METADATA_FILE_EXTENSION);
+    }
+
+    private static String toFileName(GenericUrl url, String token) {
+        return url.build().replaceAll("[^A-Za-z0-9._-]", "_") + "-" + hashToken(token);
+    }
+
+    private static String hashToken(String token) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every Java platform supports SHA-256.", e);
+        }
+        byte[] hash = digest.digest(String.valueOf(token).getBytes(StandardCharsets.UTF_8));
+        // 64 bits keep the file names short and are plenty to tell a few tokens apart
+        return String.format("%016x", ByteBuffer.wrap(hash).getLong());
+    }
+}
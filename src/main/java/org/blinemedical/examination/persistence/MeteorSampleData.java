@@ -0,0 +1,351 @@
+package org.blinemedical.examination.persistence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The learners, patients, rooms and scenarios of a Meteor {@code /api/sample-data} response. It is
+ * read token by token, keeping only the fields the {@link MeteorDataGenerator} uses, so the
+ * response is never held as a string or as a JSON tree.
+ * <p>
+ * When every learner and scenario carries a {@code courseId} or {@code courseIds} field, an all
+ * courses response can be sliced per course with {@link #filterByCourse(String)}.
+ */
+public class MeteorSampleData {
+
+    private final List<MeteorPerson> learnerList;
+    private final List<MeteorPerson> patientList;
+    private final List<MeteorRoom> roomList;
+    private final List<MeteorScenario> scenarioList;
+
+    public MeteorSampleData(List<MeteorPerson> learnerList, List<MeteorPerson> patientList,
+        List<MeteorRoom> roomList, List<MeteorScenario> scenarioList) {
+        this.learnerList = learnerList;
+        this.patientList = patientList;
+        this.roomList = roomList;
+        this.scenarioList = scenarioList;
+    }
+
+    public List<MeteorPerson> getLearnerList() {
+        return learnerList;
+    }
+
+    public List<MeteorPerson> getPatientList() {
+        return patientList;
+    }
+
+    public List<MeteorRoom> getRoomList() {
+        return roomList;
+    }
+
+    public List<MeteorScenario> getScenarioList() {
+        return scenarioList;
+    }
+
+    /**
+     * A patient without a course id still belongs to the courses of its scenarios and a room
+     * without one is shared, but a learner or a scenario without one would be silently dropped.
+     * @return true if every learner and every scenario has a course id, so
+     * {@link #filterByCourse(String)} slices the same data as a per course request
+     */
+    public boolean hasCourseIds() {
+        return !learnerList.isEmpty() && !scenarioList.isEmpty()
+            && learnerList.stream().allMatch(MeteorElement::hasCourseIds)
+            && scenarioList.stream().allMatch(MeteorElement::hasCourseIds);
+    }
+
+    /**
+     * Keeps the learners and scenarios of the course, the patients of the course or of its
+     * scenarios, and the rooms of the course or without any course.
+     */
+    public MeteorSampleData filterByCourse(String courseId) {
+        List<MeteorPerson> courseLearnerList = learnerList.stream()
+            .filter(learner -> learner.isInCourse(courseId))
+            .collect(Collectors.toList());
+        List<MeteorScenario> courseScenarioList = scenarioList.stream()
+            .filter(scenario -> scenario.isInCourse(courseId))
+            .collect(Collectors.toList());
+        Set<String> scenarioPatientKeySet = new HashSet<>();
+        for (MeteorScenario scenario : courseScenarioList) {
+            for (MeteorPerson patient : scenario.getPatientList()) {
+                scenarioPatientKeySet.add(patient.getUserIdKey());
+            }
+        }
+        List<MeteorPerson> coursePatientList = patientList.stream()
+            .filter(patient -> patient.isInCourse(courseId)
+                || scenarioPatientKeySet.contains(patient.getUserIdKey()))
+            .collect(Collectors.toList());
+        List<MeteorRoom> courseRoomList = roomList.stream()
+            .filter(room -> !room.hasCourseIds() || room.isInCourse(courseId))
+            .collect(Collectors.toList());
+        return new MeteorSampleData(courseLearnerList, coursePatientList, courseRoomList,
+            courseScenarioList);
+    }
+
+    // ************************************************************************
+    // Streaming parser
+    // ************************************************************************
+
+    /**
+     * Reads one response object. A missing list is read as empty, unknown fields are skipped.
+     */
+    public static MeteorSampleData read(JsonReader in) throws IOException {
+        List<MeteorPerson> learnerList = Collections.emptyList();
+        List<MeteorPerson> patientList = Collections.emptyList();
+        List<MeteorRoom> roomList = Collections.emptyList();
+        List<MeteorScenario> scenarioList = Collections.emptyList();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "learners":
+                    learnerList = readPersonList(in);
+                    break;
+                case "patients":
+                    patientList = readPersonList(in);
+                    break;
+                case "rooms":
+                    roomList = readRoomList(in);
+                    break;
+                case "scenarios":
+                    scenarioList = readScenarioList(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new MeteorSampleData(learnerList, patientList, roomList, scenarioList);
+    }
+
+    private static List<MeteorPerson> readPersonList(JsonReader in) throws IOException {
+        List<MeteorPerson> personList = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            personList.add(readPerson(in));
+        }
+        in.endArray();
+        return personList;
+    }
+
+    private static MeteorPerson readPerson(JsonReader in) throws IOException {
+        String userId = null;
+        String name = null;
+        Set<String> courseIdSet = new LinkedHashSet<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "userId":
+                    userId = nextNullableString(in);
+                    break;
+                case "name":
+                    name = nextNullableString(in);
+                    break;
+                case "courseId":
+                case "courseIds":
+                    readCourseIds(in, courseIdSet);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        if (userId == null) {
+            throw new IllegalStateException("The person with name (" + name
+                + ") has no userId.");
+        }
+        return new MeteorPerson(userId, name, courseIdSet);
+    }
+
+    private static List<MeteorRoom> readRoomList(JsonReader in) throws IOException {
+        List<MeteorRoom> roomList = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            String name = null;
+            Set<String> courseIdSet = new LinkedHashSet<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = nextNullableString(in);
+                        break;
+                    case "courseId":
+                    case "courseIds":
+                        readCourseIds(in, courseIdSet);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            roomList.add(new MeteorRoom(name, courseIdSet));
+        }
+        in.endArray();
+        return roomList;
+    }
+
+    private static List<MeteorScenario> readScenarioList(JsonReader in) throws IOException {
+        List<MeteorScenario> scenarioList = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            String privateTitle = null;
+            List<MeteorPerson> patientList = Collections.emptyList();
+            Set<String> courseIdSet = new LinkedHashSet<>();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "privateTitle":
+                        privateTitle = nextNullableString(in);
+                        break;
+                    case "patients":
+                        patientList = readPersonList(in);
+                        break;
+                    case "courseId":
+                    case "courseIds":
+                        readCourseIds(in, courseIdSet);
+                        break;
+                    default:
+                        in.skipValue();
+                        break;
+                }
+            }
+            in.endObject();
+            scenarioList.add(new MeteorScenario(privateTitle, patientList, courseIdSet));
+        }
+        in.endArray();
+        return scenarioList;
+    }
+
+    /**
+     * Accepts a single id, an array of ids or null.
+     */
+    private static void readCourseIds(JsonReader in, Set<String> courseIdSet)
+        throws IOException {
+        if (in.peek() == JsonToken.BEGIN_ARRAY) {
+            in.beginArray();
+            while (in.hasNext()) {
+                String courseId = nextNullableString(in);
+                if (courseId != null) {
+                    courseIdSet.add(courseId);
+                }
+            }
+            in.endArray();
+        } else {
+            String courseId = nextNullableString(in);
+            if (courseId != null) {
+                courseIdSet.add(courseId);
+            }
+        }
+    }
+
+    private static String nextNullableString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    // ************************************************************************
+    // Response elements
+    // ************************************************************************
+
+    public abstract static class MeteorElement {
+
+        private final Set<String> courseIdSet;
+
+        protected MeteorElement(Set<String> courseIdSet) {
+            this.courseIdSet = courseIdSet;
+        }
+
+        public Set<String> getCourseIdSet() {
+            return courseIdSet;
+        }
+
+        public boolean hasCourseIds() {
+            return !courseIdSet.isEmpty();
+        }
+
+        public boolean isInCourse(String courseId) {
+            return courseIdSet.contains(courseId);
+        }
+    }
+
+    public static class MeteorPerson extends MeteorElement {
+
+        private final String userId;
+        private final String name;
+
+        public MeteorPerson(String userId, String name, Set<String> courseIdSet) {
+            super(courseIdSet);
+            this.userId = userId;
+            this.name = name;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        /**
+         * The Meteor user ids are compared case-insensitively.
+         */
+        public String getUserIdKey() {
+            return toUserIdKey(userId);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public static String toUserIdKey(String userId) {
+            return userId.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static class MeteorRoom extends MeteorElement {
+
+        private final String name;
+
+        public MeteorRoom(String name, Set<String> courseIdSet) {
+            super(courseIdSet);
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class MeteorScenario extends MeteorElement {
+
+        private final String privateTitle;
+        private final List<MeteorPerson> patientList;
+
+        public MeteorScenario(String privateTitle, List<MeteorPerson> patientList,
+            Set<String> courseIdSet) {
+            super(courseIdSet);
+            this.privateTitle = privateTitle;
+            this.patientList = patientList;
+        }
+
+        public String getPrivateTitle() {
+            return privateTitle;
+        }
+
+        public List<MeteorPerson> getPatientList() {
+            return patientList;
+        }
+    }
+}
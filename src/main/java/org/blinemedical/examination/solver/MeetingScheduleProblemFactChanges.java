@@ -0,0 +1,425 @@
+package org.blinemedical.examination.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.blinemedical.examination.domain.Attendance;
+import org.blinemedical.examination.domain.Meeting;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.api.solver.ProblemFactChange;
+
+/**
+ * {@link ProblemFactChange}s that add or remove learners, patients, scenarios and rooms while the
+ * solver runs, so it keeps its current solution instead of starting over.
+ * <p>
+ * The problem facts are shared with the best solution and the solutions published before it, so
+ * every change replaces a list with a changed copy, and a scenario whose patients change with a
+ * changed copy, instead of changing it in place. The one exception is an attendance that the
+ * generators share between meetings, see {@link #removeMeetings(ScoreDirector, Predicate)}.
+ * Entities are added after and removed before the facts they refer to, because the incremental
+ * score calculator rebuilds itself on every fact change.
+ */
+public final class MeetingScheduleProblemFactChanges {
+
+    /**
+     * Like {@link org.blinemedical.examination.persistence.MeetingSchedulingGenerator}, the learner
+     * gets a meeting with every patient of every scenario.
+     */
+    public static ProblemFactChange<MeetingSchedule> addLearner(String personId, String fullName,
+        int durationInGrains) {
+        return scoreDirector -> {
+            MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+            Person learner = addPerson(scoreDirector, personId, fullName, false);
+            List<Meeting> meetingList = new ArrayList<>();
+            for (Scenario scenario : schedule.getScenarioList()) {
+                for (Person patient : getPatientSet(scenario)) {
+                    meetingList.add(createMeeting(scenario, learner, patient, durationInGrains));
+                }
+            }
+            addMeetings(scoreDirector, meetingList);
+        };
+    }
+
+    /**
+     * The patient joins the scenario and gets a meeting with every learner.
+     */
+    public static ProblemFactChange<MeetingSchedule> addPatient(String personId, String fullName,
+        Scenario scenario, int durationInGrains) {
+        return scoreDirector -> {
+            MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+            Scenario workingScenario = scoreDirector.lookUpWorkingObject(scenario);
+            Person patient = addPerson(scoreDirector, personId, fullName, true);
+            List<Meeting> meetingList = new ArrayList<>();
+            for (Person learner : schedule.getPersonList()) {
+                if (!learner.isPatient()) {
+                    meetingList.add(createMeeting(workingScenario, learner, patient,
+                        durationInGrains));
+                }
+            }
+            addMeetings(scoreDirector, meetingList);
+        };
+    }
+
+    /**
+     * Removes a learner or a patient, with its meetings and its attendances.
+     */
+    public static ProblemFactChange<MeetingSchedule> removePerson(Person person) {
+        return scoreDirector -> {
+            MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+            Person workingPerson = scoreDirector.lookUpWorkingObject(person);
+            removeMeetings(scoreDirector, meeting ->
+                meeting.getRequiredLearner().getPerson() == workingPerson
+                    || meeting.getRequiredPatient().getPerson() == workingPerson);
+            // A generated learner without scenarios still has an attendance
+            removeAttendances(scoreDirector,
+                attendance -> attendance.getPerson() == workingPerson);
+            removeProblemFacts(scoreDirector, schedule.getPersonList(), schedule::setPersonList,
+                p -> p == workingPerson);
+        };
+    }
+
+    /**
+     * The scenario starts without patients, add them with
+     * {@link #addPatient(String, String, Scenario, int)}.
+     */
+    public static ProblemFactChange<MeetingSchedule> addScenario(String name) {
+        return scoreDirector -> {
+            MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+            Scenario scenario = new Scenario();
+            scenario.setId(nextId(schedule.getScenarioList(), Scenario::getId));
+            scenario.setName(name);
+            scenario.setPatients(new ArrayList<>());
+            addProblemFact(scoreDirector, schedule.getScenarioList(), schedule::setScenarioList,
+                scenario);
+        };
+    }
+
+    /**
+     * Removes the scenario and its meetings. Its patients stay, to be reused by other scenarios.
+     */
+    public static ProblemFactChange<MeetingSchedule> removeScenario(Scenario scenario) {
+        return scoreDirector -> {
+            MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+            Scenario workingScenario = scoreDirector.lookUpWorkingObject(scenario);
+            removeMeetings(scoreDirector,
+                meeting -> workingScenario.getId().equals(meeting.getScenarioId()));
+            // Removing its meetings replaced the scenario with a copy without their patients
+            removeProblemFacts(scoreDirector, schedule.getScenarioList(),
+                schedule::setScenarioList, s -> s.getId().equals(workingScenario.getId()));
+        };
+    }
+
+    public static ProblemFactChange<MeetingSchedule> addRoom(String name) {
+        return scoreDirector -> {
+            MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+            Room room = new Room();
+            room.setId(nextId(schedule.getRoomList(), Room::getId));
+            room.setName(name);
+            addProblemFact(scoreDirector, schedule.getRoomList(), schedule::setRoomList, room);
+        };
+    }
+
+    /**
+     * The meetings in the room lose their room, and their pin, so the solver moves them.
+     */
+    public static ProblemFactChange<MeetingSchedule> removeRoom(Room room) {
+        return scoreDirector -> {
+            MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+            Room workingRoom = scoreDirector.lookUpWorkingObject(room);
+            for (MeetingAssignment meetingAssignment : schedule.getMeetingAssignmentList()) {
+                if (meetingAssignment.getRoom() == workingRoom) {
+                    meetingAssignment.setPinned(false);
+                    scoreDirector.beforeVariableChanged(meetingAssignment, "room");
+                    meetingAssignment.setRoom(null);
+                    scoreDirector.afterVariableChanged(meetingAssignment, "room");
+                }
+            }
+            removeProblemFacts(scoreDirector, schedule.getRoomList(), schedule::setRoomList,
+                r -> r == workingRoom);
+            scoreDirector.triggerVariableListeners();
+        };
+    }
+
+    // ************************************************************************
+    // Helper methods
+    // ************************************************************************
+
+    private static Person addPerson(ScoreDirector<MeetingSchedule> scoreDirector,
+        String personId, String fullName, boolean patient) {
+        MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+        Person person = new Person();
+        person.setId(nextId(schedule.getPersonList(), Person::getId));
+        person.setPersonId(personId);
+        person.setFullName(fullName);
+        person.setPatient(patient);
+        addProblemFact(scoreDirector, schedule.getPersonList(), schedule::setPersonList, person);
+        return person;
+    }
+
+    /**
+     * A scenario lists every attendance of its patients, one per meeting.
+     */
+    private static Set<Person> getPatientSet(Scenario scenario) {
+        Set<Person> patientSet = new LinkedHashSet<>();
+        for (Attendance attendance : scenario.getPatients()) {
+            patientSet.add(attendance.getPerson());
+        }
+        return patientSet;
+    }
+
+    /**
+     * Like MeetingSchedulingXlsxFileIO, the meeting gets its own attendance per person. The ids
+     * are set by {@link #addMeetings(ScoreDirector, List)}.
+     */
+    private static Meeting createMeeting(Scenario scenario, Person learner, Person patient,
+        int durationInGrains) {
+        Meeting meeting = new Meeting();
+        meeting.setDurationInGrains(durationInGrains);
+        meeting.setScenarioId(scenario.getId());
+        meeting.setRequiredLearner(createAttendance(meeting, learner));
+        meeting.setRequiredPatient(createAttendance(meeting, patient));
+        return meeting;
+    }
+
+    private static Attendance createAttendance(Meeting meeting, Person person) {
+        Attendance attendance = new Attendance();
+        attendance.setMeeting(meeting);
+        attendance.setPerson(person);
+        return attendance;
+    }
+
+    /**
+     * Adds the meetings with their attendances, the patient attendances to their scenario, and
+     * then the meeting assignments.
+     */
+    private static void addMeetings(ScoreDirector<MeetingSchedule> scoreDirector,
+        List<Meeting> meetingList) {
+        if (meetingList.isEmpty()) {
+            return;
+        }
+        MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+        long meetingId = nextId(schedule.getMeetingList(), Meeting::getId);
+        long attendanceId = nextId(schedule.getAttendanceList(), Attendance::getId);
+        List<Attendance> attendanceList = new ArrayList<>(meetingList.size() * 2);
+        Map<Long, List<Attendance>> scenarioPatientListMap = new HashMap<>();
+        for (Meeting meeting : meetingList) {
+            meeting.setId(meetingId++);
+            meeting.getRequiredLearner().setId(attendanceId++);
+            meeting.getRequiredPatient().setId(attendanceId++);
+            attendanceList.add(meeting.getRequiredLearner());
+            attendanceList.add(meeting.getRequiredPatient());
+            scenarioPatientListMap.computeIfAbsent(meeting.getScenarioId(),
+                scenarioId -> new ArrayList<>()).add(meeting.getRequiredPatient());
+        }
+        addProblemFacts(scoreDirector, schedule.getMeetingList(), schedule::setMeetingList,
+            meetingList);
+        addProblemFacts(scoreDirector, schedule.getAttendanceList(),
+            schedule::setAttendanceList, attendanceList);
+        replaceScenarios(scoreDirector, scenario -> {
+            List<Attendance> addedPatientList = scenarioPatientListMap.get(scenario.getId());
+            if (addedPatientList == null) {
+                return null;
+            }
+            List<Attendance> patientList = new ArrayList<>(scenario.getPatients());
+            patientList.addAll(addedPatientList);
+            return patientList;
+        });
+        addMeetingAssignments(scoreDirector, meetingList);
+    }
+
+    private static void addMeetingAssignments(ScoreDirector<MeetingSchedule> scoreDirector,
+        List<Meeting> meetingList) {
+        MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+        List<MeetingAssignment> meetingAssignmentList = new ArrayList<>(
+            schedule.getMeetingAssignmentList());
+        schedule.setMeetingAssignmentList(meetingAssignmentList);
+        long meetingAssignmentId = nextId(meetingAssignmentList, MeetingAssignment::getId);
+        List<MeetingAssignment> addedMeetingAssignmentList = new ArrayList<>(meetingList.size());
+        for (Meeting meeting : meetingList) {
+            MeetingAssignment meetingAssignment = new MeetingAssignment();
+            meetingAssignment.setId(meetingAssignmentId++);
+            meetingAssignment.setMeeting(meeting);
+            addedMeetingAssignmentList.add(meetingAssignment);
+        }
+        for (MeetingAssignment meetingAssignment : addedMeetingAssignmentList) {
+            scoreDirector.beforeEntityAdded(meetingAssignment);
+            meetingAssignmentList.add(meetingAssignment);
+            scoreDirector.afterEntityAdded(meetingAssignment);
+        }
+        // The new assignments need a value range before the solver moves them
+        schedule.initializeStartingTimeGrainRanges();
+        scoreDirector.triggerVariableListeners();
+    }
+
+    /**
+     * Removes the matching meetings, after their assignments, and the attendances no remaining
+     * meeting requires. An attendance that a remaining meeting still requires, as the generators
+     * share one per person, points to that meeting instead. That attendance is changed in place:
+     * a copy would have to replace every meeting that requires it, and in turn every attendance
+     * that points to those. The solutions published before still resolve it, because the meeting
+     * it points to now was in them too.
+     */
+    private static void removeMeetings(ScoreDirector<MeetingSchedule> scoreDirector,
+        Predicate<Meeting> meetingFilter) {
+        MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+        Set<Meeting> removedMeetingSet = schedule.getMeetingList().stream()
+            .filter(meetingFilter)
+            .collect(Collectors.toCollection(HashSet::new));
+        if (removedMeetingSet.isEmpty()) {
+            return;
+        }
+        List<MeetingAssignment> meetingAssignmentList = new ArrayList<>(
+            schedule.getMeetingAssignmentList());
+        schedule.setMeetingAssignmentList(meetingAssignmentList);
+        List<MeetingAssignment> removedMeetingAssignmentList = meetingAssignmentList.stream()
+            .filter(meetingAssignment -> removedMeetingSet.contains(
+                meetingAssignment.getMeeting()))
+            .collect(Collectors.toList());
+        for (MeetingAssignment meetingAssignment : removedMeetingAssignmentList) {
+            scoreDirector.beforeEntityRemoved(meetingAssignment);
+            meetingAssignmentList.remove(meetingAssignment);
+            scoreDirector.afterEntityRemoved(meetingAssignment);
+        }
+        scoreDirector.triggerVariableListeners();
+
+        Map<Attendance, Meeting> requiredAttendanceMap = new IdentityHashMap<>();
+        for (Meeting meeting : schedule.getMeetingList()) {
+            if (!removedMeetingSet.contains(meeting)) {
+                requiredAttendanceMap.put(meeting.getRequiredLearner(), meeting);
+                requiredAttendanceMap.put(meeting.getRequiredPatient(), meeting);
+            }
+        }
+        for (Attendance attendance : schedule.getAttendanceList()) {
+            Meeting requiredMeeting = requiredAttendanceMap.get(attendance);
+            if (requiredMeeting != null && removedMeetingSet.contains(attendance.getMeeting())) {
+                scoreDirector.beforeProblemPropertyChanged(attendance);
+                attendance.setMeeting(requiredMeeting);
+                schedule.resetMeetingConflictGraph();
+                scoreDirector.afterProblemPropertyChanged(attendance);
+            }
+        }
+        removeAttendances(scoreDirector, attendance ->
+            removedMeetingSet.contains(attendance.getMeeting())
+                && !requiredAttendanceMap.containsKey(attendance));
+        removeProblemFacts(scoreDirector, schedule.getMeetingList(), schedule::setMeetingList,
+            removedMeetingSet::contains);
+    }
+
+    /**
+     * Removes the matching attendances, after taking them out of the patients of every scenario.
+     */
+    private static void removeAttendances(ScoreDirector<MeetingSchedule> scoreDirector,
+        Predicate<Attendance> attendanceFilter) {
+        MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+        Set<Attendance> removedAttendanceSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Attendance attendance : schedule.getAttendanceList()) {
+            if (attendanceFilter.test(attendance)) {
+                removedAttendanceSet.add(attendance);
+            }
+        }
+        if (removedAttendanceSet.isEmpty()) {
+            return;
+        }
+        replaceScenarios(scoreDirector, scenario -> {
+            if (scenario.getPatients().stream().noneMatch(removedAttendanceSet::contains)) {
+                return null;
+            }
+            return scenario.getPatients().stream()
+                .filter(patient -> !removedAttendanceSet.contains(patient))
+                .collect(Collectors.toList());
+        });
+        removeProblemFacts(scoreDirector, schedule.getAttendanceList(),
+            schedule::setAttendanceList, removedAttendanceSet::contains);
+    }
+
+    /**
+     * Replaces every scenario whose patients change with a copy that has the changed patients.
+     * The copy keeps the id, so {@link ScoreDirector#lookUpWorkingObject(Object)} finds it.
+     * @param patientListFunction the changed patients of a scenario, or null if they don't change
+     */
+    private static void replaceScenarios(ScoreDirector<MeetingSchedule> scoreDirector,
+        Function<Scenario, List<Attendance>> patientListFunction) {
+        MeetingSchedule schedule = scoreDirector.getWorkingSolution();
+        List<Scenario> scenarioList = new ArrayList<>(schedule.getScenarioList());
+        schedule.setScenarioList(scenarioList);
+        for (int i = 0; i < scenarioList.size(); i++) {
+            Scenario scenario = scenarioList.get(i);
+            List<Attendance> patientList = patientListFunction.apply(scenario);
+            if (patientList == null) {
+                continue;
+            }
+            Scenario changedScenario = new Scenario();
+            changedScenario.setId(scenario.getId());
+            changedScenario.setName(scenario.getName());
+            changedScenario.setPatients(patientList);
+            // Removed first, the working objects are looked up by id
+            scoreDirector.beforeProblemFactRemoved(scenario);
+            scenarioList.remove(i);
+            scoreDirector.afterProblemFactRemoved(scenario);
+            scoreDirector.beforeProblemFactAdded(changedScenario);
+            scenarioList.add(i, changedScenario);
+            schedule.resetMeetingConflictGraph();
+            scoreDirector.afterProblemFactAdded(changedScenario);
+        }
+    }
+
+    private static <T> void addProblemFact(ScoreDirector<MeetingSchedule> scoreDirector,
+        List<T> list, Consumer<List<T>> listSetter, T problemFact) {
+        addProblemFacts(scoreDirector, list, listSetter, List.of(problemFact));
+    }
+
+    private static <T> void addProblemFacts(ScoreDirector<MeetingSchedule> scoreDirector,
+        List<T> list, Consumer<List<T>> listSetter, List<T> problemFactList) {
+        List<T> changedList = new ArrayList<>(list.size() + problemFactList.size());
+        changedList.addAll(list);
+        listSetter.accept(changedList);
+        for (T problemFact : problemFactList) {
+            scoreDirector.beforeProblemFactAdded(problemFact);
+            changedList.add(problemFact);
+            scoreDirector.getWorkingSolution().resetMeetingConflictGraph();
+            scoreDirector.afterProblemFactAdded(problemFact);
+        }
+    }
+
+    private static <T> void removeProblemFacts(ScoreDirector<MeetingSchedule> scoreDirector,
+        List<T> list, Consumer<List<T>> listSetter, Predicate<T> filter) {
+        List<T> removedList = list.stream().filter(filter).collect(Collectors.toList());
+        if (removedList.isEmpty()) {
+            return;
+        }
+        List<T> changedList = new ArrayList<>(list);
+        listSetter.accept(changedList);
+        for (T problemFact : removedList) {
+            scoreDirector.beforeProblemFactRemoved(problemFact);
+            changedList.remove(problemFact);
+            scoreDirector.getWorkingSolution().resetMeetingConflictGraph();
+            scoreDirector.afterProblemFactRemoved(problemFact);
+        }
+    }
+
+    private static <T> long nextId(List<T> list, Function<T, Long> idFunction) {
+        long maximumId = -1L;
+        for (T element : list) {
+            maximumId = Math.max(maximumId, idFunction.apply(element));
+        }
+        return maximumId + 1L;
+    }
+
+    private MeetingScheduleProblemFactChanges() {
+    }
+}
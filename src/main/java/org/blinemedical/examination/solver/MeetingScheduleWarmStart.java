@@ -0,0 +1,189 @@
+package org.blinemedical.examination.solver;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import org.blinemedical.examination.domain.Meeting;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.domain.TimeGrain;
+
+/**
+ * Prepares a problem to be solved again after small changes: it starts from the assignments of
+ * the previous solution and the meetings that already started stay where they are. The
+ * construction heuristic skips the assignments that are already initialized.
+ */
+public final class MeetingScheduleWarmStart {
+
+    /**
+     * Copies the starting time grain, room and pin of every previous assignment to the assignment
+     * of the same learner, patient and scenario. Persons match on their person id, or their full
+     * name if they have none, scenarios on their name, time grains on their day and starting
+     * minute, and rooms on their name. A value that no longer exists, or that the assignment can't
+     * start on, is left empty for the solver. An assignment that the problem already pins, or
+     * gives a time grain or room, keeps its own values.
+     * @return the number of assignments that got a previous value
+     */
+    public static int applyPreviousSolution(MeetingSchedule problem,
+        MeetingSchedule previousSolution) {
+        Map<AssignmentKey, Queue<MeetingAssignment>> previousAssignmentMap = new HashMap<>();
+        Map<Long, String> previousScenarioNameMap = createScenarioNameMap(previousSolution);
+        for (MeetingAssignment previousAssignment : previousSolution.getMeetingAssignmentList()) {
+            previousAssignmentMap.computeIfAbsent(
+                new AssignmentKey(previousAssignment.getMeeting(), previousScenarioNameMap),
+                key -> new ArrayDeque<>()).add(previousAssignment);
+        }
+        Map<GrainKey, TimeGrain> timeGrainMap = new HashMap<>(problem.getTimeGrainList().size());
+        for (TimeGrain timeGrain : problem.getTimeGrainList()) {
+            timeGrainMap.put(new GrainKey(timeGrain), timeGrain);
+        }
+        Map<String, Room> roomMap = new HashMap<>(problem.getRoomList().size());
+        for (Room room : problem.getRoomList()) {
+            roomMap.putIfAbsent(room.getName(), room);
+        }
+
+        Map<Long, String> scenarioNameMap = createScenarioNameMap(problem);
+        Map<List<TimeGrain>, Set<TimeGrain>> startingTimeGrainSetMap = new IdentityHashMap<>();
+        int appliedCount = 0;
+        for (MeetingAssignment meetingAssignment : problem.getMeetingAssignmentList()) {
+            Queue<MeetingAssignment> previousAssignmentQueue = previousAssignmentMap.get(
+                new AssignmentKey(meetingAssignment.getMeeting(), scenarioNameMap));
+            MeetingAssignment previousAssignment = previousAssignmentQueue == null ? null
+                : previousAssignmentQueue.poll();
+            // Polled even when skipped, so a duplicate meeting doesn't take this one's match
+            if (previousAssignment == null || meetingAssignment.isPinned()
+                || meetingAssignment.getStartingTimeGrain() != null
+                || meetingAssignment.getRoom() != null) {
+                continue;
+            }
+            TimeGrain startingTimeGrain = previousAssignment.getStartingTimeGrain() == null ? null
+                : timeGrainMap.get(new GrainKey(previousAssignment.getStartingTimeGrain()));
+            // The ranges are shared by duration, so their sets are too
+            Set<TimeGrain> startingTimeGrainSet = startingTimeGrainSetMap.computeIfAbsent(
+                meetingAssignment.getStartingTimeGrainRange(), HashSet::new);
+            if (startingTimeGrain != null && !startingTimeGrainSet.contains(startingTimeGrain)) {
+                startingTimeGrain = null;
+            }
+            Room room = previousAssignment.getRoom() == null ? null
+                : roomMap.get(previousAssignment.getRoom().getName());
+            meetingAssignment.setStartingTimeGrain(startingTimeGrain);
+            meetingAssignment.setRoom(room);
+            // A pin only holds if the whole assignment was carried over
+            meetingAssignment.setPinned(previousAssignment.isPinned()
+                && startingTimeGrain != null && room != null);
+            if (startingTimeGrain != null || room != null) {
+                appliedCount++;
+            }
+        }
+        return appliedCount;
+    }
+
+    /**
+     * Pins every assigned meeting that starts before the given time grain, so the solver doesn't
+     * move a meeting that already started or ended. The cutoff is a grain of the schedule, because
+     * a {@link TimeGrain}'s date is only its day of the current year, not a date on the calendar.
+     * @param grainIndex the {@link TimeGrain#getGrainIndex()} of the first grain that stays free
+     * @return the number of newly pinned assignments
+     */
+    public static int pinPastAssignments(MeetingSchedule schedule, int grainIndex) {
+        int pinnedCount = 0;
+        for (MeetingAssignment meetingAssignment : schedule.getMeetingAssignmentList()) {
+            TimeGrain startingTimeGrain = meetingAssignment.getStartingTimeGrain();
+            if (!meetingAssignment.isPinned() && startingTimeGrain != null
+                && startingTimeGrain.getGrainIndex() < grainIndex) {
+                meetingAssignment.setPinned(true);
+                pinnedCount++;
+            }
+        }
+        return pinnedCount;
+    }
+
+    // ************************************************************************
+    // Helper methods
+    // ************************************************************************
+
+    private static Map<Long, String> createScenarioNameMap(MeetingSchedule schedule) {
+        Map<Long, String> scenarioNameMap = new HashMap<>(schedule.getScenarioList().size());
+        for (Scenario scenario : schedule.getScenarioList()) {
+            scenarioNameMap.put(scenario.getId(), scenario.getName());
+        }
+        return scenarioNameMap;
+    }
+
+    private static String getPersonKey(Person person) {
+        return person.getPersonId() != null ? person.getPersonId() : person.getFullName();
+    }
+
+    private static final class AssignmentKey {
+
+        private final String learnerKey;
+        private final String patientKey;
+        private final String scenarioName;
+
+        AssignmentKey(Meeting meeting, Map<Long, String> scenarioNameMap) {
+            learnerKey = getPersonKey(meeting.getRequiredLearner().getPerson());
+            patientKey = getPersonKey(meeting.getRequiredPatient().getPerson());
+            scenarioName = scenarioNameMap.get(meeting.getScenarioId());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AssignmentKey)) {
+                return false;
+            }
+            AssignmentKey other = (AssignmentKey) o;
+            return Objects.equals(learnerKey, other.learnerKey)
+                && Objects.equals(patientKey, other.patientKey)
+                && Objects.equals(scenarioName, other.scenarioName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(learnerKey, patientKey, scenarioName);
+        }
+    }
+
+    private static final class GrainKey {
+
+        private final int dayOfYear;
+        private final int startingMinuteOfDay;
+
+        GrainKey(TimeGrain timeGrain) {
+            dayOfYear = timeGrain.getDay().getDayOfYear();
+            startingMinuteOfDay = timeGrain.getStartingMinuteOfDay();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GrainKey)) {
+                return false;
+            }
+            GrainKey other = (GrainKey) o;
+            return dayOfYear == other.dayOfYear
+                && startingMinuteOfDay == other.startingMinuteOfDay;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * dayOfYear + startingMinuteOfDay;
+        }
+    }
+
+    private MeetingScheduleWarmStart() {
+    }
+}
@@ -0,0 +1,174 @@
+package org.blinemedical.examination.solver;
+
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.ASSIGNED_MEETINGS;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.DONT_GO_IN_OVERTIME;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.HALF_ASSIGNED_MEETINGS;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.OVERLAPPING_MEETINGS;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.REQUIRED_ATTENDANCE_CONFLICT;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.ROOM_CONFLICT;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.ROOM_STABILITY;
+import static org.optaplanner.core.api.score.stream.Joiners.equal;
+import static org.optaplanner.core.api.score.stream.Joiners.greaterThan;
+import static org.optaplanner.core.api.score.stream.Joiners.lessThan;
+
+import org.blinemedical.examination.domain.Attendance;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.Scenario;
+import org.optaplanner.core.api.score.stream.Constraint;
+import org.optaplanner.core.api.score.stream.ConstraintFactory;
+import org.optaplanner.core.api.score.stream.ConstraintProvider;
+import org.optaplanner.core.api.score.stream.uni.UniConstraintStream;
+
+/**
+ * Constraint Streams equivalent of meetingSchedulingConstraints.drl. The constraint names and
+ * weights come from {@link org.blinemedical.examination.domain.MeetingConstraintConfiguration}.
+ */
+public class MeetingSchedulingConstraintProvider implements ConstraintProvider {
+
+    @Override
+    public Constraint[] defineConstraints(ConstraintFactory constraintFactory) {
+        return new Constraint[]{
+            // Hard
+            roomConflict(constraintFactory),
+            dontGoInOvertime(constraintFactory),
+            requiredAttendanceConflict(constraintFactory),
+            // Medium
+            assignedMeetings(constraintFactory),
+            halfAssignedMeetings(constraintFactory),
+            // Soft
+            doAllMeetingsAsSoonAsPossible(constraintFactory),
+            overlappingMeetings(constraintFactory),
+            roomStability(constraintFactory)
+        };
+    }
+
+    // ************************************************************************
+    // Hard constraints
+    // ************************************************************************
+
+    protected Constraint roomConflict(ConstraintFactory constraintFactory) {
+        return fromAssigned(constraintFactory)
+            .join(fromAssigned(constraintFactory),
+                equal(MeetingAssignment::getRoom),
+                lessThan(MeetingAssignment::getId),
+                lessThan(MeetingAssignment::getStartIndex,
+                    MeetingAssignment::getEndIndex),
+                greaterThan(MeetingAssignment::getEndIndex,
+                    MeetingAssignment::getStartIndex))
+            .penalizeConfigurable(ROOM_CONFLICT,
+                (leftAssignment, rightAssignment) -> rightAssignment
+                    .calculateOverlap(leftAssignment));
+    }
+
+    protected Constraint dontGoInOvertime(ConstraintFactory constraintFactory) {
+        // The timeGrainRange already excludes overtime, except for imported or pinned assignments
+        return constraintFactory.from(MeetingAssignment.class)
+            .filter(MeetingAssignment::isInOvertime)
+            .penalizeConfigurable(DONT_GO_IN_OVERTIME, MeetingAssignment::getLastTimeGrainIndex);
+    }
+
+    protected Constraint requiredAttendanceConflict(ConstraintFactory constraintFactory) {
+        // The attendance pairs are problem facts, so only the assignment joins react to a move
+        return constraintFactory.fromUniquePair(Attendance.class, equal(Attendance::getPerson))
+            .join(MeetingAssignment.class,
+                equal((leftAttendance, rightAttendance) -> leftAttendance.getMeeting(),
+                    MeetingAssignment::getMeeting))
+            .join(MeetingAssignment.class,
+                equal((leftAttendance, rightAttendance, leftAssignment) -> rightAttendance
+                    .getMeeting(), MeetingAssignment::getMeeting))
+            .filter((leftAttendance, rightAttendance, leftAssignment, rightAssignment) ->
+                rightAssignment.calculateOverlap(leftAssignment) > 0)
+            .penalizeConfigurable(REQUIRED_ATTENDANCE_CONFLICT,
+                (leftAttendance, rightAttendance, leftAssignment, rightAssignment) ->
+                    rightAssignment.calculateOverlap(leftAssignment));
+    }
+
+    // ************************************************************************
+    // Medium constraints
+    // ************************************************************************
+
+    protected Constraint assignedMeetings(ConstraintFactory constraintFactory) {
+        // Each scenario and learner combination is rewarded once, however often it is assigned.
+        return fromAssigned(constraintFactory)
+            .groupBy(meetingAssignment -> meetingAssignment.getMeeting().getScenarioId(),
+                meetingAssignment -> meetingAssignment.getMeeting().getRequiredLearner()
+                    .getPerson())
+            .filter((scenarioId, learner) -> !learner.isPatient())
+            .join(Scenario.class,
+                equal((scenarioId, learner) -> scenarioId, Scenario::getId))
+            .rewardConfigurable(ASSIGNED_MEETINGS);
+    }
+
+    protected Constraint halfAssignedMeetings(ConstraintFactory constraintFactory) {
+        return constraintFactory.from(MeetingAssignment.class)
+            .filter(meetingAssignment -> meetingAssignment.getStartingTimeGrain() == null
+                && meetingAssignment.getRoom() != null)
+            .penalizeConfigurable(HALF_ASSIGNED_MEETINGS);
+    }
+
+    // ************************************************************************
+    // Soft constraints
+    // ************************************************************************
+
+    protected Constraint doAllMeetingsAsSoonAsPossible(ConstraintFactory constraintFactory) {
+        return constraintFactory.from(MeetingAssignment.class)
+            .filter(meetingAssignment -> meetingAssignment.getStartingTimeGrain() != null)
+            .penalizeConfigurable(DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE,
+                MeetingAssignment::getLastTimeGrainIndex);
+    }
+
+    protected Constraint overlappingMeetings(ConstraintFactory constraintFactory) {
+        return fromAssigned(constraintFactory)
+            .join(fromAssigned(constraintFactory),
+                equal(MeetingAssignment::getRoom),
+                greaterThan(MeetingSchedulingConstraintProvider::getMeetingId),
+                lessThan(MeetingAssignment::getStartIndex,
+                    MeetingAssignment::getEndIndex),
+                greaterThan(MeetingAssignment::getEndIndex,
+                    MeetingAssignment::getStartIndex))
+            .filter((leftAssignment, rightAssignment) ->
+                leftAssignment.getMeeting() != rightAssignment.getMeeting())
+            .penalizeConfigurable(OVERLAPPING_MEETINGS);
+    }
+
+    protected Constraint roomStability(ConstraintFactory constraintFactory) {
+        return constraintFactory.from(Attendance.class)
+            .join(Attendance.class, equal(Attendance::getPerson))
+            .filter((leftAttendance, rightAttendance) ->
+                leftAttendance.getMeeting() != rightAttendance.getMeeting())
+            .join(fromStarted(constraintFactory),
+                equal((leftAttendance, rightAttendance) -> leftAttendance.getMeeting(),
+                    MeetingAssignment::getMeeting))
+            .join(fromStarted(constraintFactory),
+                equal((leftAttendance, rightAttendance, leftAssignment) -> rightAttendance
+                    .getMeeting(), MeetingAssignment::getMeeting))
+            .filter((leftAttendance, rightAttendance, leftAssignment, rightAssignment) -> {
+                int rightStart = rightAssignment.getStartIndex();
+                return leftAssignment.getStartIndex() < rightStart
+                    && leftAssignment.getRoom() != rightAssignment.getRoom()
+                    && rightStart - leftAssignment.getEndIndex() <= 2;
+            })
+            .penalizeConfigurable(ROOM_STABILITY);
+    }
+
+    // ************************************************************************
+    // Helper methods
+    // ************************************************************************
+
+    private static UniConstraintStream<MeetingAssignment> fromStarted(
+        ConstraintFactory constraintFactory) {
+        return constraintFactory.from(MeetingAssignment.class)
+            .filter(meetingAssignment -> meetingAssignment.getStartingTimeGrain() != null);
+    }
+
+    private static UniConstraintStream<MeetingAssignment> fromAssigned(
+        ConstraintFactory constraintFactory) {
+        return fromStarted(constraintFactory)
+            .filter(meetingAssignment -> meetingAssignment.getRoom() != null);
+    }
+
+    private static Long getMeetingId(MeetingAssignment meetingAssignment) {
+        return meetingAssignment.getMeeting().getId();
+    }
+}
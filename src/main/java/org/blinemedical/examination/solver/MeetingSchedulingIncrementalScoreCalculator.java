@@ -0,0 +1,469 @@
+package org.blinemedical.examination.solver;
+
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.ASSIGNED_MEETINGS;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.CONSTRAINT_PACKAGE;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.DONT_GO_IN_OVERTIME;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.HALF_ASSIGNED_MEETINGS;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.OVERLAPPING_MEETINGS;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.REQUIRED_ATTENDANCE_CONFLICT;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.ROOM_CONFLICT;
+import static org.blinemedical.examination.domain.MeetingConstraintConfiguration.ROOM_STABILITY;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.blinemedical.examination.domain.Attendance;
+import org.blinemedical.examination.domain.Meeting;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingConflictGraph;
+import org.blinemedical.examination.domain.MeetingConstraintConfiguration;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.domain.TimeGrain;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.score.calculator.ConstraintMatchAwareIncrementalScoreCalculator;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
+import org.optaplanner.core.api.score.constraint.Indictment;
+import org.optaplanner.core.impl.score.constraint.DefaultConstraintMatchTotal;
+
+/**
+ * Hand-written equivalent of meetingSchedulingConstraints.drl. Every {@link Room} and every
+ * {@link Person} has an occupancy count per {@link TimeGrain#getGrainIndex() grain index}, so
+ * moving a {@link MeetingAssignment} only touches the grains it covers. The rooms are tracked by
+ * a {@link RoomIntervalIndex}, which also finds the overlapping pairs for the constraint matches.
+ */
+public class MeetingSchedulingIncrementalScoreCalculator implements
+    ConstraintMatchAwareIncrementalScoreCalculator<MeetingSchedule, HardMediumSoftScore> {
+
+    private MeetingSchedule workingSolution;
+    private MeetingConstraintConfiguration constraintConfiguration;
+
+    private MeetingConflictGraph meetingConflictGraph;
+    private Map<Room, Integer> roomIndexMap;
+    private int[] meetingScenarioOrdinals;
+    private int[] meetingLearnerOrdinals;
+    private List<Person> learnerList;
+    private MeetingAssignment[] meetingAssignments;
+
+    private RoomIntervalIndex roomIntervalIndex;
+    private int[][] personOccupancy;
+    private ScenarioLearnerCoverage scenarioLearnerCoverage;
+
+    private int roomConflictMatchWeight;
+    private int dontGoInOvertimeMatchWeight;
+    private int requiredAttendanceConflictMatchWeight;
+    private int halfAssignedMeetingsMatchWeight;
+    private int doAllMeetingsAsSoonAsPossibleMatchWeight;
+    private int overlappingMeetingsMatchWeight;
+    private int roomStabilityMatchWeight;
+
+    @Override
+    public void resetWorkingSolution(MeetingSchedule workingSolution) {
+        this.workingSolution = workingSolution;
+        constraintConfiguration = workingSolution.getConstraintConfiguration();
+
+        meetingConflictGraph = workingSolution.getMeetingConflictGraph();
+        List<Meeting> meetingList = workingSolution.getMeetingList();
+        int maximumDurationInGrains = 0;
+        for (Meeting meeting : meetingList) {
+            maximumDurationInGrains = Math.max(maximumDurationInGrains,
+                meeting.getDurationInGrains());
+        }
+        List<Room> roomList = workingSolution.getRoomList();
+        roomIndexMap = new HashMap<>(roomList.size());
+        for (int i = 0; i < roomList.size(); i++) {
+            roomIndexMap.put(roomList.get(i), i);
+        }
+        List<Person> personList = workingSolution.getPersonList();
+        List<Scenario> scenarioList = workingSolution.getScenarioList();
+        Map<Long, Integer> scenarioOrdinalMap = new HashMap<>(scenarioList.size());
+        for (int i = 0; i < scenarioList.size(); i++) {
+            scenarioOrdinalMap.put(scenarioList.get(i).getId(), i);
+        }
+        learnerList = new ArrayList<>(personList.size());
+        Map<Person, Integer> learnerOrdinalMap = new HashMap<>(personList.size());
+        for (Person person : personList) {
+            if (!person.isPatient()) {
+                learnerOrdinalMap.put(person, learnerList.size());
+                learnerList.add(person);
+            }
+        }
+
+        meetingScenarioOrdinals = new int[meetingList.size()];
+        meetingLearnerOrdinals = new int[meetingList.size()];
+        for (int i = 0; i < meetingList.size(); i++) {
+            Meeting meeting = meetingList.get(i);
+            meetingScenarioOrdinals[i] = scenarioOrdinalMap
+                .getOrDefault(meeting.getScenarioId(), -1);
+            meetingLearnerOrdinals[i] = learnerOrdinalMap
+                .getOrDefault(meeting.getRequiredLearner().getPerson(), -1);
+        }
+        meetingAssignments = new MeetingAssignment[meetingList.size()];
+
+        int maximumGrainIndex = -1;
+        for (TimeGrain timeGrain : workingSolution.getTimeGrainList()) {
+            maximumGrainIndex = Math.max(maximumGrainIndex, timeGrain.getGrainIndex());
+        }
+        // An imported meeting that starts on the last grain can run that many grains into overtime
+        int grainCapacity = maximumGrainIndex + 1 + maximumDurationInGrains;
+        roomIntervalIndex = new RoomIntervalIndex(roomList.size(), grainCapacity,
+            maximumDurationInGrains);
+        personOccupancy = new int[personList.size()][grainCapacity];
+        scenarioLearnerCoverage = new ScenarioLearnerCoverage(scenarioList.size(),
+            learnerList.size());
+
+        roomConflictMatchWeight = 0;
+        dontGoInOvertimeMatchWeight = 0;
+        requiredAttendanceConflictMatchWeight = 0;
+        halfAssignedMeetingsMatchWeight = 0;
+        doAllMeetingsAsSoonAsPossibleMatchWeight = 0;
+        overlappingMeetingsMatchWeight = 0;
+        roomStabilityMatchWeight = 0;
+        for (MeetingAssignment meetingAssignment : workingSolution.getMeetingAssignmentList()) {
+            // Only the assignments inserted so far are neighbours, so each pair is counted once
+            meetingAssignments[getMeetingIndex(meetingAssignment)] = meetingAssignment;
+            insert(meetingAssignment);
+        }
+    }
+
+    @Override
+    public void resetWorkingSolution(MeetingSchedule workingSolution,
+        boolean constraintMatchEnabled) {
+        // The constraint matches are calculated non-incrementally in getConstraintMatchTotals()
+        resetWorkingSolution(workingSolution);
+    }
+
+    @Override
+    public void beforeEntityAdded(Object entity) {
+        // Do nothing
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity) {
+        MeetingAssignment meetingAssignment = (MeetingAssignment) entity;
+        int meetingIndex = meetingConflictGraph.getMeetingIndex(meetingAssignment.getMeeting());
+        if (meetingIndex < 0) {
+            // The meeting is new too, so rebuild all indexes, which also inserts this entity
+            workingSolution.resetMeetingConflictGraph();
+            resetWorkingSolution(workingSolution);
+            return;
+        }
+        meetingAssignments[meetingIndex] = meetingAssignment;
+        insert(meetingAssignment);
+    }
+
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName) {
+        retract((MeetingAssignment) entity);
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName) {
+        insert((MeetingAssignment) entity);
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity) {
+        retract((MeetingAssignment) entity);
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity) {
+        MeetingAssignment meetingAssignment = (MeetingAssignment) entity;
+        int meetingIndex = meetingConflictGraph.getMeetingIndex(meetingAssignment.getMeeting());
+        if (meetingIndex >= 0 && meetingAssignments[meetingIndex] == meetingAssignment) {
+            meetingAssignments[meetingIndex] = null;
+        }
+    }
+
+    private void insert(MeetingAssignment meetingAssignment) {
+        update(meetingAssignment, 1);
+    }
+
+    private void retract(MeetingAssignment meetingAssignment) {
+        update(meetingAssignment, -1);
+    }
+
+    /**
+     * @param delta {@code 1} to insert the assignment, {@code -1} to retract it
+     */
+    private void update(MeetingAssignment meetingAssignment, int delta) {
+        int start = meetingAssignment.getStartIndex();
+        Room room = meetingAssignment.getRoom();
+        if (start == MeetingAssignment.NO_GRAIN_INDEX) {
+            if (room != null) {
+                halfAssignedMeetingsMatchWeight += delta;
+            }
+            return;
+        }
+        int meetingIndex = getMeetingIndex(meetingAssignment);
+        int end = meetingAssignment.getEndIndex();
+        int lastTimeGrainIndex = end - 1;
+
+        doAllMeetingsAsSoonAsPossibleMatchWeight += delta * lastTimeGrainIndex;
+        if (meetingAssignment.isInOvertime()) {
+            dontGoInOvertimeMatchWeight += delta * lastTimeGrainIndex;
+        }
+
+        // Retracting removes this assignment's own occupancy before counting the others
+        for (int personIndex : meetingConflictGraph.getPersonIndexes(meetingIndex)) {
+            int[] occupancy = personOccupancy[personIndex];
+            for (int i = start; i < end; i++) {
+                if (delta < 0) {
+                    occupancy[i]--;
+                }
+                requiredAttendanceConflictMatchWeight += delta * occupancy[i];
+                if (delta > 0) {
+                    occupancy[i]++;
+                }
+            }
+        }
+        roomStabilityMatchWeight += delta * countRoomStabilityPairs(meetingAssignment,
+            meetingIndex);
+
+        if (room == null) {
+            return;
+        }
+        int roomIndex = roomIndexMap.get(room);
+        if (delta < 0) {
+            roomIntervalIndex.remove(roomIndex, meetingAssignment, start, end);
+        }
+        roomConflictMatchWeight += delta
+            * roomIntervalIndex.countOverlapInGrains(roomIndex, start, end);
+        overlappingMeetingsMatchWeight += delta
+            * roomIntervalIndex.countOverlapping(roomIndex, start, end);
+        if (delta > 0) {
+            roomIntervalIndex.add(roomIndex, meetingAssignment, start, end);
+        }
+
+        int scenarioOrdinal = meetingScenarioOrdinals[meetingIndex];
+        int learnerOrdinal = meetingLearnerOrdinals[meetingIndex];
+        if (scenarioOrdinal >= 0 && learnerOrdinal >= 0) {
+            if (delta > 0) {
+                scenarioLearnerCoverage.increment(scenarioOrdinal, learnerOrdinal);
+            } else {
+                scenarioLearnerCoverage.decrement(scenarioOrdinal, learnerOrdinal);
+            }
+        }
+    }
+
+    /**
+     * Only visits the neighbours of the meeting in the {@link MeetingConflictGraph}.
+     */
+    private int countRoomStabilityPairs(MeetingAssignment meetingAssignment, int meetingIndex) {
+        int count = 0;
+        for (int personIndex : meetingConflictGraph.getPersonIndexes(meetingIndex)) {
+            for (int otherMeetingIndex : meetingConflictGraph.getMeetingIndexes(personIndex)) {
+                if (otherMeetingIndex == meetingIndex) {
+                    continue;
+                }
+                MeetingAssignment other = meetingAssignments[otherMeetingIndex];
+                if (other == null || other.getStartIndex() == MeetingAssignment.NO_GRAIN_INDEX) {
+                    continue;
+                }
+                if (isRoomStabilityBroken(meetingAssignment, other)) {
+                    count++;
+                }
+                if (isRoomStabilityBroken(other, meetingAssignment)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static boolean isRoomStabilityBroken(MeetingAssignment left,
+        MeetingAssignment right) {
+        int rightStart = right.getStartIndex();
+        return left.getStartIndex() < rightStart
+            && left.getRoom() != right.getRoom()
+            && rightStart - left.getEndIndex() <= 2;
+    }
+
+    @Override
+    public HardMediumSoftScore calculateScore() {
+        return weigh(constraintConfiguration.getRoomConflict(), -roomConflictMatchWeight)
+            .add(weigh(constraintConfiguration.getDontGoInOvertime(),
+                -dontGoInOvertimeMatchWeight))
+            .add(weigh(constraintConfiguration.getRequiredAttendanceConflict(),
+                -requiredAttendanceConflictMatchWeight))
+            .add(weigh(constraintConfiguration.getAssignedMeetings(),
+                scenarioLearnerCoverage.getCoveredCount()))
+            .add(weigh(constraintConfiguration.getHalfAssignedMeetings(),
+                -halfAssignedMeetingsMatchWeight))
+            .add(weigh(constraintConfiguration.getDoAllMeetingsAsSoonAsPossible(),
+                -doAllMeetingsAsSoonAsPossibleMatchWeight))
+            .add(weigh(constraintConfiguration.getOverlappingMeetings(),
+                -overlappingMeetingsMatchWeight))
+            .add(weigh(constraintConfiguration.getRoomStability(), -roomStabilityMatchWeight));
+    }
+
+    private static HardMediumSoftScore weigh(HardMediumSoftScore constraintWeight,
+        int matchWeight) {
+        return HardMediumSoftScore.of(
+            constraintWeight.getHardScore() * matchWeight,
+            constraintWeight.getMediumScore() * matchWeight,
+            constraintWeight.getSoftScore() * matchWeight);
+    }
+
+    // ************************************************************************
+    // Constraint matches
+    // ************************************************************************
+
+    @Override
+    public Collection<ConstraintMatchTotal<HardMediumSoftScore>> getConstraintMatchTotals() {
+        DefaultConstraintMatchTotal<HardMediumSoftScore> roomConflictMatchTotal =
+            createConstraintMatchTotal(ROOM_CONFLICT);
+        DefaultConstraintMatchTotal<HardMediumSoftScore> dontGoInOvertimeMatchTotal =
+            createConstraintMatchTotal(DONT_GO_IN_OVERTIME);
+        DefaultConstraintMatchTotal<HardMediumSoftScore> requiredAttendanceConflictMatchTotal =
+            createConstraintMatchTotal(REQUIRED_ATTENDANCE_CONFLICT);
+        DefaultConstraintMatchTotal<HardMediumSoftScore> assignedMeetingsMatchTotal =
+            createConstraintMatchTotal(ASSIGNED_MEETINGS);
+        DefaultConstraintMatchTotal<HardMediumSoftScore> halfAssignedMeetingsMatchTotal =
+            createConstraintMatchTotal(HALF_ASSIGNED_MEETINGS);
+        DefaultConstraintMatchTotal<HardMediumSoftScore> doAllMeetingsAsSoonAsPossibleMatchTotal =
+            createConstraintMatchTotal(DO_ALL_MEETINGS_AS_SOON_AS_POSSIBLE);
+        DefaultConstraintMatchTotal<HardMediumSoftScore> overlappingMeetingsMatchTotal =
+            createConstraintMatchTotal(OVERLAPPING_MEETINGS);
+        DefaultConstraintMatchTotal<HardMediumSoftScore> roomStabilityMatchTotal =
+            createConstraintMatchTotal(ROOM_STABILITY);
+
+        List<MeetingAssignment> meetingAssignmentList = workingSolution
+            .getMeetingAssignmentList();
+        for (MeetingAssignment meetingAssignment : meetingAssignmentList) {
+            if (meetingAssignment.getStartingTimeGrain() == null) {
+                if (meetingAssignment.getRoom() != null) {
+                    halfAssignedMeetingsMatchTotal.addConstraintMatch(
+                        Collections.singletonList(meetingAssignment),
+                        weigh(constraintConfiguration.getHalfAssignedMeetings(), -1));
+                }
+                continue;
+            }
+            int lastTimeGrainIndex = meetingAssignment.getLastTimeGrainIndex();
+            doAllMeetingsAsSoonAsPossibleMatchTotal.addConstraintMatch(
+                Collections.singletonList(meetingAssignment),
+                weigh(constraintConfiguration.getDoAllMeetingsAsSoonAsPossible(),
+                    -lastTimeGrainIndex));
+            if (meetingAssignment.isInOvertime()) {
+                dontGoInOvertimeMatchTotal.addConstraintMatch(
+                    Collections.singletonList(meetingAssignment),
+                    weigh(constraintConfiguration.getDontGoInOvertime(), -lastTimeGrainIndex));
+            }
+        }
+
+        for (MeetingAssignment left : meetingAssignmentList) {
+            if (left.getStartingTimeGrain() == null || left.getRoom() == null) {
+                continue;
+            }
+            roomIntervalIndex.forEachOverlapping(roomIndexMap.get(left.getRoom()),
+                left.getStartIndex(), left.getEndIndex(),
+                right -> {
+                    if (right == left) {
+                        return;
+                    }
+                    if (right.getId() > left.getId()) {
+                        roomConflictMatchTotal.addConstraintMatch(Arrays.asList(left, right),
+                            weigh(constraintConfiguration.getRoomConflict(),
+                                -right.calculateOverlap(left)));
+                    }
+                    if (right.getMeeting().getId() < left.getMeeting().getId()) {
+                        overlappingMeetingsMatchTotal.addConstraintMatch(
+                            Arrays.asList(left, right),
+                            weigh(constraintConfiguration.getOverlappingMeetings(), -1));
+                    }
+                });
+        }
+
+        Map<Person, List<Attendance>> personAttendanceMap = new HashMap<>();
+        for (Attendance attendance : workingSolution.getAttendanceList()) {
+            personAttendanceMap.computeIfAbsent(attendance.getPerson(), person -> new ArrayList<>())
+                .add(attendance);
+        }
+        for (List<Attendance> personAttendanceList : personAttendanceMap.values()) {
+            for (Attendance leftAttendance : personAttendanceList) {
+                for (Attendance rightAttendance : personAttendanceList) {
+                    if (rightAttendance == leftAttendance) {
+                        continue;
+                    }
+                    MeetingAssignment left = getMeetingAssignment(leftAttendance.getMeeting());
+                    MeetingAssignment right = getMeetingAssignment(rightAttendance.getMeeting());
+                    if (left == null || right == null || left.getStartingTimeGrain() == null
+                        || right.getStartingTimeGrain() == null) {
+                        continue;
+                    }
+                    int overlap = right.calculateOverlap(left);
+                    if (rightAttendance.getId() > leftAttendance.getId() && overlap > 0) {
+                        requiredAttendanceConflictMatchTotal.addConstraintMatch(
+                            Arrays.asList(leftAttendance, rightAttendance, left, right),
+                            weigh(constraintConfiguration.getRequiredAttendanceConflict(),
+                                -overlap));
+                    }
+                    if (leftAttendance.getMeeting() != rightAttendance.getMeeting()
+                        && isRoomStabilityBroken(left, right)) {
+                        roomStabilityMatchTotal.addConstraintMatch(
+                            Arrays.asList(leftAttendance, rightAttendance, left, right),
+                            weigh(constraintConfiguration.getRoomStability(), -1));
+                    }
+                }
+            }
+        }
+
+        List<Scenario> scenarioList = workingSolution.getScenarioList();
+        for (int scenarioOrdinal = 0; scenarioOrdinal < scenarioLearnerCoverage.getScenarioCount();
+            scenarioOrdinal++) {
+            for (int learnerOrdinal = 0; learnerOrdinal < scenarioLearnerCoverage.getLearnerCount();
+                learnerOrdinal++) {
+                if (scenarioLearnerCoverage.isCovered(scenarioOrdinal, learnerOrdinal)) {
+                    assignedMeetingsMatchTotal.addConstraintMatch(
+                        Arrays.asList(scenarioList.get(scenarioOrdinal),
+                            learnerList.get(learnerOrdinal)),
+                        weigh(constraintConfiguration.getAssignedMeetings(), 1));
+                }
+            }
+        }
+
+        return Arrays.asList(
+            roomConflictMatchTotal,
+            dontGoInOvertimeMatchTotal,
+            requiredAttendanceConflictMatchTotal,
+            assignedMeetingsMatchTotal,
+            halfAssignedMeetingsMatchTotal,
+            doAllMeetingsAsSoonAsPossibleMatchTotal,
+            overlappingMeetingsMatchTotal,
+            roomStabilityMatchTotal);
+    }
+
+    @Override
+    public Map<Object, Indictment<HardMediumSoftScore>> getIndictmentMap() {
+        return null; // Calculate it non-incrementally from getConstraintMatchTotals()
+    }
+
+    private DefaultConstraintMatchTotal<HardMediumSoftScore> createConstraintMatchTotal(
+        String constraintName) {
+        return new DefaultConstraintMatchTotal<>(CONSTRAINT_PACKAGE, constraintName,
+            HardMediumSoftScore.ZERO);
+    }
+
+    private int getMeetingIndex(MeetingAssignment meetingAssignment) {
+        int meetingIndex = meetingConflictGraph.getMeetingIndex(meetingAssignment.getMeeting());
+        if (meetingIndex < 0) {
+            throw new IllegalStateException("The meetingAssignment (" + meetingAssignment
+                + ")'s meeting (" + meetingAssignment.getMeeting()
+                + ") is not in the meetingList.");
+        }
+        return meetingIndex;
+    }
+
+    private MeetingAssignment getMeetingAssignment(Meeting meeting) {
+        int meetingIndex = meetingConflictGraph.getMeetingIndex(meeting);
+        return meetingIndex < 0 ? null : meetingAssignments[meetingIndex];
+    }
+}
@@ -0,0 +1,104 @@
+package org.blinemedical.examination.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.blinemedical.examination.domain.MeetingAssignment;
+
+/**
+ * Indexes the {@link MeetingAssignment}s of every room by the grain index they start on, so the
+ * assignments whose {@code [start, start + durationInGrains)} intersects a given interval can be
+ * found without visiting every other assignment in that room.
+ * <p>
+ * Rooms and grains are addressed by their dense index, as assigned by the caller.
+ */
+class RoomIntervalIndex {
+
+    private final int maximumDurationInGrains;
+
+    private final int[][] occupancy;
+    private final int[][] startCounts;
+    // Lazily created, most grains of most rooms never get a meeting
+    private final List<MeetingAssignment>[][] startingAssignments;
+
+    @SuppressWarnings("unchecked")
+    RoomIntervalIndex(int roomCount, int grainCapacity, int maximumDurationInGrains) {
+        this.maximumDurationInGrains = Math.max(maximumDurationInGrains, 1);
+        occupancy = new int[roomCount][grainCapacity];
+        startCounts = new int[roomCount][grainCapacity];
+        startingAssignments = new List[roomCount][grainCapacity];
+    }
+
+    void add(int roomIndex, MeetingAssignment meetingAssignment, int start, int end) {
+        int[] roomOccupancy = occupancy[roomIndex];
+        for (int i = start; i < end; i++) {
+            roomOccupancy[i]++;
+        }
+        startCounts[roomIndex][start]++;
+        List<MeetingAssignment> startingList = startingAssignments[roomIndex][start];
+        if (startingList == null) {
+            startingList = new ArrayList<>(2);
+            startingAssignments[roomIndex][start] = startingList;
+        }
+        startingList.add(meetingAssignment);
+    }
+
+    void remove(int roomIndex, MeetingAssignment meetingAssignment, int start, int end) {
+        int[] roomOccupancy = occupancy[roomIndex];
+        for (int i = start; i < end; i++) {
+            roomOccupancy[i]--;
+        }
+        startCounts[roomIndex][start]--;
+        List<MeetingAssignment> startingList = startingAssignments[roomIndex][start];
+        if (startingList == null || !startingList.remove(meetingAssignment)) {
+            throw new IllegalStateException("Impossible state: the meetingAssignment ("
+                + meetingAssignment + ") is not indexed on grain index (" + start + ").");
+        }
+    }
+
+    /**
+     * @return the sum of the overlaps, in grains, between the interval and every indexed
+     * assignment of the room
+     */
+    int countOverlapInGrains(int roomIndex, int start, int end) {
+        int[] roomOccupancy = occupancy[roomIndex];
+        int overlap = 0;
+        for (int i = start; i < end; i++) {
+            overlap += roomOccupancy[i];
+        }
+        return overlap;
+    }
+
+    /**
+     * @return the number of indexed assignments of the room that overlap the interval
+     */
+    int countOverlapping(int roomIndex, int start, int end) {
+        // Overlapping assignments either still run at the start or start during the interval
+        int count = occupancy[roomIndex][start];
+        int[] roomStartCounts = startCounts[roomIndex];
+        for (int i = start + 1; i < end; i++) {
+            count += roomStartCounts[i];
+        }
+        return count;
+    }
+
+    /**
+     * Only visits the assignments that start less than the longest meeting duration before the
+     * interval, instead of all the assignments of the room.
+     */
+    void forEachOverlapping(int roomIndex, int start, int end,
+        Consumer<MeetingAssignment> consumer) {
+        List<MeetingAssignment>[] grainStartingAssignments = startingAssignments[roomIndex];
+        for (int i = Math.max(0, start - maximumDurationInGrains + 1); i < end; i++) {
+            List<MeetingAssignment> startingList = grainStartingAssignments[i];
+            if (startingList == null) {
+                continue;
+            }
+            for (MeetingAssignment other : startingList) {
+                if (other.getEndIndex() > start) {
+                    consumer.accept(other);
+                }
+            }
+        }
+    }
+}
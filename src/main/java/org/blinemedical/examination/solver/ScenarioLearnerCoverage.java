@@ -0,0 +1,59 @@
+package org.blinemedical.examination.solver;
+
+/**
+ * Counts the assigned meetings of every scenario and learner combination, addressed by their
+ * dense ordinals. A combination is covered as long as its count is above zero, so the
+ * "Assigned meetings" reward only changes when a count goes from 0 to 1 or back, without any
+ * allocation or hashing per move.
+ */
+class ScenarioLearnerCoverage {
+
+    private final int scenarioCount;
+    private final int learnerCount;
+    private final int[][] counts;
+    private int coveredCount = 0;
+
+    ScenarioLearnerCoverage(int scenarioCount, int learnerCount) {
+        this.scenarioCount = scenarioCount;
+        this.learnerCount = learnerCount;
+        counts = new int[scenarioCount][learnerCount];
+    }
+
+    /**
+     * @return true if the combination became covered
+     */
+    boolean increment(int scenarioOrdinal, int learnerOrdinal) {
+        if (counts[scenarioOrdinal][learnerOrdinal]++ == 0) {
+            coveredCount++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the combination is no longer covered
+     */
+    boolean decrement(int scenarioOrdinal, int learnerOrdinal) {
+        if (--counts[scenarioOrdinal][learnerOrdinal] == 0) {
+            coveredCount--;
+            return true;
+        }
+        return false;
+    }
+
+    boolean isCovered(int scenarioOrdinal, int learnerOrdinal) {
+        return counts[scenarioOrdinal][learnerOrdinal] > 0;
+    }
+
+    int getCoveredCount() {
+        return coveredCount;
+    }
+
+    int getScenarioCount() {
+        return scenarioCount;
+    }
+
+    int getLearnerCount() {
+        return learnerCount;
+    }
+}
@@ -0,0 +1,56 @@
+package org.blinemedical.examination.solver;
+
+import org.blinemedical.examination.app.ExaminationApp;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.score.director.InnerScoreDirectorFactory;
+import org.optaplanner.core.impl.solver.DefaultSolverFactory;
+
+/**
+ * The score engines the constraints are implemented in. The solver config uses Constraint
+ * Streams, the tests and the benchmarks compare it with the others.
+ */
+public enum ScoreDirectorType {
+    DRL,
+    CONSTRAINT_STREAMS,
+    INCREMENTAL;
+
+    public static final String SCORE_DRL =
+        "org/blinemedical/examination/solver/meetingSchedulingConstraints.drl";
+
+    public ScoreDirectorFactoryConfig buildScoreDirectorFactoryConfig() {
+        switch (this) {
+            case DRL:
+                return new ScoreDirectorFactoryConfig().withScoreDrls(SCORE_DRL);
+            case CONSTRAINT_STREAMS:
+                return new ScoreDirectorFactoryConfig()
+                    .withConstraintProviderClass(MeetingSchedulingConstraintProvider.class);
+            case INCREMENTAL:
+                return new ScoreDirectorFactoryConfig().withIncrementalScoreCalculatorClass(
+                    MeetingSchedulingIncrementalScoreCalculator.class);
+            default:
+                throw new IllegalStateException(
+                    "The scoreDirectorType (" + this + ") is not implemented.");
+        }
+    }
+
+    /**
+     * The score director factory of {@link ExaminationApp#SOLVER_CONFIG} with this engine, to
+     * calculate scores without a solver.
+     */
+    @SuppressWarnings("unchecked")
+    public InnerScoreDirectorFactory<MeetingSchedule, HardMediumSoftScore>
+        buildScoreDirectorFactory() {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(
+            ExaminationApp.SOLVER_CONFIG);
+        solverConfig.setScoreDirectorFactoryConfig(buildScoreDirectorFactoryConfig());
+        DefaultSolverFactory<MeetingSchedule> solverFactory =
+            (DefaultSolverFactory<MeetingSchedule>) SolverFactory.<MeetingSchedule>create(
+                solverConfig);
+        return (InnerScoreDirectorFactory<MeetingSchedule, HardMediumSoftScore>) solverFactory
+            .getScoreDirectorFactory();
+    }
+}
@@ -17,7 +17,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import javax.swing.AbstractAction;
+import javax.swing.Action;
 import javax.swing.BorderFactory;
+import javax.swing.Icon;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
@@ -50,6 +52,11 @@ public class MeetingSchedulingPanel extends SolutionPanel<MeetingSchedule> {
     private final TimeTablePanel<TimeGrain, Person> personsPanel;
     private final TimeTablePanel<TimeGrain, Scenario> scenariosPanel;
 
+    // The schedule on screen, whose grid is reused if the next one has the same problem facts
+    private MeetingSchedule shownSchedule = null;
+    private final Map<Long, MeetingAssignmentCells> meetingAssignmentCellsMap = new HashMap<>();
+    private Map<Long, Scenario> scenarioIdMap = null;
+
     public MeetingSchedulingPanel() {
         setLayout(new BorderLayout());
         JTabbedPane tabbedPane = new JTabbedPane();
@@ -74,14 +81,36 @@ public class MeetingSchedulingPanel extends SolutionPanel<MeetingSchedule> {
 
     @Override
     public void resetPanel(MeetingSchedule meetingSchedule) {
-        roomsPanel.reset();
-        personsPanel.reset();
-        scenariosPanel.reset();
-        defineGrid(meetingSchedule);
-        fillCells(meetingSchedule);
+        if (shownSchedule != null && hasSameProblemFacts(shownSchedule, meetingSchedule)) {
+            // A new best solution only differs in its planning variables
+            updateMeetingAssignmentCells(meetingSchedule);
+            revalidate();
+        } else {
+            roomsPanel.reset();
+            personsPanel.reset();
+            scenariosPanel.reset();
+            meetingAssignmentCellsMap.clear();
+            defineGrid(meetingSchedule);
+            fillCells(meetingSchedule);
+        }
+        shownSchedule = meetingSchedule;
         repaint(); // Hack to force a repaint of TimeTableLayout during "refresh screen while solving"
     }
 
+    /**
+     * Planning clones share the problem fact lists and a problem fact change replaces a list, so
+     * comparing the lists by reference tells if the grid and headers are still valid.
+     */
+    private static boolean hasSameProblemFacts(MeetingSchedule oldSchedule,
+        MeetingSchedule newSchedule) {
+        return oldSchedule.getDayList() == newSchedule.getDayList()
+            && oldSchedule.getTimeGrainList() == newSchedule.getTimeGrainList()
+            && oldSchedule.getRoomList() == newSchedule.getRoomList()
+            && oldSchedule.getPersonList() == newSchedule.getPersonList()
+            && oldSchedule.getScenarioList() == newSchedule.getScenarioList()
+            && oldSchedule.getMeetingList() == newSchedule.getMeetingList();
+    }
+
     private void defineGrid(MeetingSchedule meetingSchedule) {
         roomsPanel.defineColumnHeaderByKey(HEADER_COLUMN); // Room header
         personsPanel.defineColumnHeaderByKey(HEADER_COLUMN_GROUP1); // Person header
@@ -197,51 +226,89 @@ public class MeetingSchedulingPanel extends SolutionPanel<MeetingSchedule> {
     private void fillMeetingAssignmentCells(MeetingSchedule meetingSchedule) {
         TangoColorFactory tangoColorFactory = new TangoColorFactory();
 
-        Map<Long, Scenario> scenarioIdMap = meetingSchedule.getScenarioList().stream()
+        scenarioIdMap = meetingSchedule.getScenarioList().stream()
             .collect(toMap(Scenario::getId, s -> s));
 
         for (MeetingAssignment meetingAssignment : meetingSchedule.getMeetingAssignmentList()) {
             Color color = tangoColorFactory.pickColor(meetingAssignment.getMeeting());
-            TimeGrain startingTimeGrain = meetingAssignment.getStartingTimeGrain();
-            TimeGrain lastTimeGrain;
-            if (startingTimeGrain == null) {
-                continue;
-            } else {
-                int lastTimeGrainIndex = meetingAssignment.getLastTimeGrainIndex();
-                List<TimeGrain> timeGrainList = meetingSchedule.getTimeGrainList();
-                if (lastTimeGrainIndex < meetingSchedule.getTimeGrainList().size()) {
-                    lastTimeGrain = timeGrainList.get(lastTimeGrainIndex);
-                } else {
-                    continue;
-                }
+            MeetingAssignmentCells cells = new MeetingAssignmentCells(meetingAssignment, color);
+            meetingAssignmentCellsMap.put(meetingAssignment.getId(), cells);
+            addCells(cells, meetingAssignment, meetingSchedule);
+        }
+    }
+
+    private void updateMeetingAssignmentCells(MeetingSchedule meetingSchedule) {
+        for (MeetingAssignment meetingAssignment : meetingSchedule.getMeetingAssignmentList()) {
+            MeetingAssignmentCells cells = meetingAssignmentCellsMap.get(
+                meetingAssignment.getId());
+            if (cells == null) {
+                throw new IllegalStateException("Impossible state: the meetingAssignment ("
+                    + meetingAssignment + ") is not on screen, but its meeting is.");
+            }
+            // The buttons outlive a best solution, so they must edit the latest assignment
+            cells.action.setMeetingAssignment(meetingAssignment);
+            if (cells.startingTimeGrain != meetingAssignment.getStartingTimeGrain()
+                || cells.room != meetingAssignment.getRoom()) {
+                removeCells(cells);
+                cells.action.refreshDescription();
+                addCells(cells, meetingAssignment, meetingSchedule);
             }
-            if(meetingAssignment.getRoom() == null) {
-                continue;
+            if (cells.pinned != meetingAssignment.isPinned()) {
+                cells.setPinned(meetingAssignment.isPinned());
             }
+        }
+    }
+
+    private void addCells(MeetingAssignmentCells cells, MeetingAssignment meetingAssignment,
+        MeetingSchedule meetingSchedule) {
+        TimeGrain startingTimeGrain = meetingAssignment.getStartingTimeGrain();
+        Room room = meetingAssignment.getRoom();
+        cells.startingTimeGrain = startingTimeGrain;
+        cells.room = room;
+        if (startingTimeGrain == null || room == null) {
+            return;
+        }
+        int lastTimeGrainIndex = meetingAssignment.getLastTimeGrainIndex();
+        List<TimeGrain> timeGrainList = meetingSchedule.getTimeGrainList();
+        if (lastTimeGrainIndex >= timeGrainList.size()) {
+            return;
+        }
+        TimeGrain lastTimeGrain = timeGrainList.get(lastTimeGrainIndex);
+
+        roomsPanel.addCell(
+            startingTimeGrain, room,
+            lastTimeGrain, room,
+            cells.roomButton);
+
+        Person learner = meetingAssignment.getMeeting().getRequiredLearner().getPerson();
+        personsPanel.addCell(
+            startingTimeGrain, learner,
+            lastTimeGrain, learner,
+            cells.learnerButton);
+
+        Person patient = meetingAssignment.getMeeting().getRequiredPatient().getPerson();
+        personsPanel.addCell(
+            startingTimeGrain, patient,
+            lastTimeGrain, patient,
+            cells.patientButton);
+
+        Scenario scenario = scenarioIdMap.get(meetingAssignment.getMeeting().getScenarioId());
+        scenariosPanel.addCell(
+            startingTimeGrain, scenario,
+            lastTimeGrain, scenario,
+            cells.scenarioButton);
+        cells.shown = true;
+    }
 
-            roomsPanel.addCell(
-                startingTimeGrain, meetingAssignment.getRoom(),
-                lastTimeGrain, meetingAssignment.getRoom(),
-                createButton(meetingAssignment, color));
-
-            Person learner = meetingAssignment.getMeeting().getRequiredLearner().getPerson();
-            personsPanel.addCell(
-                startingTimeGrain, learner,
-                lastTimeGrain, learner,
-                createButton(meetingAssignment, color));
-
-            Person patient = meetingAssignment.getMeeting().getRequiredPatient().getPerson();
-            personsPanel.addCell(
-                startingTimeGrain, patient,
-                lastTimeGrain, patient,
-                createButton(meetingAssignment, color));
-
-            Scenario scenario = scenarioIdMap.get(meetingAssignment.getMeeting().getScenarioId());
-            scenariosPanel.addCell(
-                startingTimeGrain, scenario,
-                lastTimeGrain, scenario,
-                createButton(meetingAssignment, color));
+    private void removeCells(MeetingAssignmentCells cells) {
+        if (!cells.shown) {
+            return;
         }
+        roomsPanel.remove(cells.roomButton);
+        personsPanel.remove(cells.learnerButton);
+        personsPanel.remove(cells.patientButton);
+        scenariosPanel.remove(cells.scenarioButton);
+        cells.shown = false;
     }
 
     private JPanel createTableHeader(JLabel label) {
@@ -253,22 +320,68 @@ public class MeetingSchedulingPanel extends SolutionPanel<MeetingSchedule> {
         return headerPanel;
     }
 
-    private JButton createButton(MeetingAssignment meetingAssignment, Color color) {
-        JButton button = SwingUtils
-            .makeSmallButton(new JButton(new MeetingAssignmentAction(meetingAssignment)));
+    private static JButton createButton(Action action, Color color) {
+        JButton button = SwingUtils.makeSmallButton(new JButton(action));
         button.setBackground(color);
-        if (meetingAssignment.isPinned()) {
-            button.setIcon(CommonIcons.PINNED_ICON);
-        }
         return button;
     }
 
+    /**
+     * The buttons of one {@link MeetingAssignment} in the three tables and what they show, so a
+     * new best solution only moves the buttons of the assignments that changed.
+     */
+    private final class MeetingAssignmentCells {
+
+        private final MeetingAssignmentAction action;
+        private final JButton roomButton;
+        private final JButton learnerButton;
+        private final JButton patientButton;
+        private final JButton scenarioButton;
+
+        private TimeGrain startingTimeGrain = null;
+        private Room room = null;
+        private boolean pinned = false;
+        private boolean shown = false;
+
+        private MeetingAssignmentCells(MeetingAssignment meetingAssignment, Color color) {
+            // The buttons share the action, so they share its tooltip too
+            action = new MeetingAssignmentAction(meetingAssignment);
+            roomButton = createButton(action, color);
+            learnerButton = createButton(action, color);
+            patientButton = createButton(action, color);
+            scenarioButton = createButton(action, color);
+            setPinned(meetingAssignment.isPinned());
+        }
+
+        private void setPinned(boolean pinned) {
+            this.pinned = pinned;
+            Icon icon = pinned ? CommonIcons.PINNED_ICON : null;
+            roomButton.setIcon(icon);
+            learnerButton.setIcon(icon);
+            patientButton.setIcon(icon);
+            scenarioButton.setIcon(icon);
+        }
+
+    }
+
     private class MeetingAssignmentAction extends AbstractAction {
 
-        private final MeetingAssignment meetingAssignment;
+        private MeetingAssignment meetingAssignment;
 
         public MeetingAssignmentAction(MeetingAssignment meetingAssignment) {
             super(meetingAssignment.getLabel());
+            this.meetingAssignment = meetingAssignment;
+            refreshDescription();
+        }
+
+        public void setMeetingAssignment(MeetingAssignment meetingAssignment) {
+            this.meetingAssignment = meetingAssignment;
+        }
+
+        /**
+         * Call after the starting time grain or room of the assignment changed.
+         */
+        public void refreshDescription() {
             Meeting meeting = meetingAssignment.getMeeting();
             String learnerFullName = meeting.getRequiredLearner().getPerson().getFullName();
             String PatientFullName = meeting.getRequiredPatient().getPerson().getFullName();
@@ -281,7 +394,6 @@ public class MeetingSchedulingPanel extends SolutionPanel<MeetingSchedule> {
                     + "Duration: " + meetingAssignment.getMeeting().getDurationString() + "<br/>"
                     + "Room: " + defaultIfNull(meetingAssignment.getRoom(), "unassigned")
                     + "</html>");
-            this.meetingAssignment = meetingAssignment;
         }
 
         @Override
@@ -0,0 +1,156 @@
+package org.blinemedical.examination.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds a {@link MeetingSchedule} the way MeetingSchedulingXlsxFileIO reads one: every meeting
+ * has its own {@link Attendance} per person and a {@link Scenario} lists every attendance of its
+ * patients.
+ */
+public class MeetingScheduleBuilder {
+
+    public static final int FIRST_STARTING_MINUTE_OF_DAY = 8 * 60;
+
+    private final List<Day> dayList = new ArrayList<>();
+    private final List<TimeGrain> timeGrainList = new ArrayList<>();
+    private final List<Room> roomList = new ArrayList<>();
+    private final List<Person> personList = new ArrayList<>();
+    private final List<Scenario> scenarioList = new ArrayList<>();
+    private final List<Meeting> meetingList = new ArrayList<>();
+    private final List<Attendance> attendanceList = new ArrayList<>();
+    private final List<MeetingAssignment> meetingAssignmentList = new ArrayList<>();
+
+    /**
+     * A schedule with every learner meeting one patient of every scenario, each assignment either
+     * unassigned, half assigned or on a random grain and room.
+     */
+    public static MeetingSchedule createRandomSchedule(Random random, int learnerCount,
+        int scenarioCount, int patientCountPerScenario, int roomCount) {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 8);
+        for (int i = 0; i < roomCount; i++) {
+            builder.addRoom("Room " + i);
+        }
+        List<Person> learnerList = new ArrayList<>(learnerCount);
+        for (int i = 0; i < learnerCount; i++) {
+            learnerList.add(builder.addPerson("Learner " + i, false));
+        }
+        for (int i = 0; i < scenarioCount; i++) {
+            Scenario scenario = builder.addScenario("Scenario " + i);
+            List<Person> patientList = new ArrayList<>(patientCountPerScenario);
+            for (int j = 0; j < patientCountPerScenario; j++) {
+                patientList.add(builder.addPerson("Patient " + i + "-" + j, true));
+            }
+            for (int j = 0; j < learnerList.size(); j++) {
+                builder.addMeeting(learnerList.get(j), patientList.get(j % patientList.size()),
+                    scenario, 1 + random.nextInt(2));
+            }
+        }
+        MeetingSchedule schedule = builder.build();
+        for (MeetingAssignment meetingAssignment : schedule.getMeetingAssignmentList()) {
+            List<TimeGrain> startingTimeGrainRange = meetingAssignment.getStartingTimeGrainRange();
+            int choice = random.nextInt(10);
+            if (choice > 0) {
+                meetingAssignment.setRoom(schedule.getRoomList().get(random.nextInt(roomCount)));
+            }
+            if (choice > 1) {
+                meetingAssignment.setStartingTimeGrain(startingTimeGrainRange.get(
+                    random.nextInt(startingTimeGrainRange.size())));
+            }
+        }
+        return schedule;
+    }
+
+    public MeetingScheduleBuilder withDays(int dayCount, int timeGrainCountPerDay) {
+        for (int i = 0; i < dayCount; i++) {
+            Day day = new Day();
+            day.setId((long) dayList.size());
+            day.setDayOfYear(dayList.size() + 1);
+            dayList.add(day);
+            for (int j = 0; j < timeGrainCountPerDay; j++) {
+                TimeGrain timeGrain = new TimeGrain();
+                timeGrain.setId((long) timeGrainList.size());
+                timeGrain.setGrainIndex(timeGrainList.size());
+                timeGrain.setDay(day);
+                timeGrain.setStartingMinuteOfDay(FIRST_STARTING_MINUTE_OF_DAY
+                    + j * TimeGrain.GRAIN_LENGTH_IN_MINUTES);
+                timeGrainList.add(timeGrain);
+            }
+        }
+        return this;
+    }
+
+    public Room addRoom(String name) {
+        Room room = new Room();
+        room.setId((long) roomList.size());
+        room.setName(name);
+        roomList.add(room);
+        return room;
+    }
+
+    public Person addPerson(String fullName, boolean patient) {
+        Person person = new Person();
+        person.setId((long) personList.size());
+        person.setFullName(fullName);
+        person.setPatient(patient);
+        personList.add(person);
+        return person;
+    }
+
+    public Scenario addScenario(String name) {
+        Scenario scenario = new Scenario();
+        scenario.setId((long) scenarioList.size());
+        scenario.setName(name);
+        scenario.setPatients(new ArrayList<>());
+        scenarioList.add(scenario);
+        return scenario;
+    }
+
+    public MeetingAssignment addMeeting(Person learner, Person patient, Scenario scenario,
+        int durationInGrains) {
+        Meeting meeting = new Meeting();
+        meeting.setId((long) meetingList.size());
+        meeting.setDurationInGrains(durationInGrains);
+        meeting.setScenarioId(scenario.getId());
+        meeting.setRequiredLearner(addAttendance(learner, meeting));
+        meeting.setRequiredPatient(addAttendance(patient, meeting));
+        scenario.getPatients().add(meeting.getRequiredPatient());
+        meetingList.add(meeting);
+
+        MeetingAssignment meetingAssignment = new MeetingAssignment();
+        meetingAssignment.setId((long) meetingAssignmentList.size());
+        meetingAssignment.setMeeting(meeting);
+        meetingAssignmentList.add(meetingAssignment);
+        return meetingAssignment;
+    }
+
+    private Attendance addAttendance(Person person, Meeting meeting) {
+        Attendance attendance = new Attendance();
+        attendance.setId((long) attendanceList.size());
+        attendance.setPerson(person);
+        attendance.setMeeting(meeting);
+        attendanceList.add(attendance);
+        return attendance;
+    }
+
+    public TimeGrain getTimeGrain(int grainIndex) {
+        return timeGrainList.get(grainIndex);
+    }
+
+    public MeetingSchedule build() {
+        MeetingSchedule schedule = new MeetingSchedule();
+        schedule.setId(0L);
+        schedule.setConstraintConfiguration(new MeetingConstraintConfiguration(0L));
+        schedule.setDayList(dayList);
+        schedule.setTimeGrainList(timeGrainList);
+        schedule.setRoomList(roomList);
+        schedule.setPersonList(personList);
+        schedule.setScenarioList(scenarioList);
+        schedule.setMeetingList(meetingList);
+        schedule.setAttendanceList(attendanceList);
+        schedule.setMeetingAssignmentList(meetingAssignmentList);
+        schedule.initializeStartingTimeGrainRanges();
+        return schedule;
+    }
+}
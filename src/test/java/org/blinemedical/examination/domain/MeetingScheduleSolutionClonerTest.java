@@ -0,0 +1,108 @@
+package org.blinemedical.examination.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.impl.domain.solution.cloner.FieldAccessingSolutionCloner;
+import org.optaplanner.core.impl.domain.solution.descriptor.SolutionDescriptor;
+
+/**
+ * Compares {@link MeetingScheduleSolutionCloner} with the reflective cloner it replaces.
+ */
+class MeetingScheduleSolutionClonerTest {
+
+    private MeetingSchedule original;
+
+    @BeforeEach
+    void buildSchedule() {
+        original = MeetingScheduleBuilder.createRandomSchedule(new Random(37L), 4, 2, 2, 2);
+        original.getMeetingAssignmentList().get(0).setPinned(true);
+        original.setScore(HardMediumSoftScore.of(-1, 2, -30));
+        // Built before cloning, so the clone can share it
+        original.getMeetingConflictGraph();
+    }
+
+    @Test
+    void cloneSharesTheFacts() {
+        MeetingSchedule clone = new MeetingScheduleSolutionCloner().cloneSolution(original);
+
+        assertThat(clone.getId()).isEqualTo(original.getId());
+        assertThat(clone.getScore()).isEqualTo(original.getScore());
+        assertThat(clone.getConstraintConfiguration())
+            .isSameAs(original.getConstraintConfiguration());
+        assertThat(clone.getDayList()).isSameAs(original.getDayList());
+        assertThat(clone.getTimeGrainList()).isSameAs(original.getTimeGrainList());
+        assertThat(clone.getRoomList()).isSameAs(original.getRoomList());
+        assertThat(clone.getPersonList()).isSameAs(original.getPersonList());
+        assertThat(clone.getScenarioList()).isSameAs(original.getScenarioList());
+        assertThat(clone.getMeetingList()).isSameAs(original.getMeetingList());
+        assertThat(clone.getAttendanceList()).isSameAs(original.getAttendanceList());
+        assertThat(clone.getBuiltMeetingConflictGraph())
+            .isSameAs(original.getBuiltMeetingConflictGraph());
+        assertSameAssignments(clone);
+    }
+
+    @Test
+    void cloneMatchesTheReflectiveClone() {
+        SolutionDescriptor<MeetingSchedule> solutionDescriptor = SolutionDescriptor
+            .buildSolutionDescriptor(MeetingSchedule.class, MeetingAssignment.class);
+        MeetingSchedule reflectiveClone = new FieldAccessingSolutionCloner<>(solutionDescriptor)
+            .cloneSolution(original);
+        MeetingSchedule clone = new MeetingScheduleSolutionCloner().cloneSolution(original);
+
+        assertSameAssignments(reflectiveClone);
+        assertSameAssignments(clone);
+        assertThat(clone.getScore()).isEqualTo(reflectiveClone.getScore());
+        assertThat(clone.getMeetingList()).isEqualTo(reflectiveClone.getMeetingList());
+        assertThat(clone.getAttendanceList()).isEqualTo(reflectiveClone.getAttendanceList());
+    }
+
+    @Test
+    void cloneIsIndependentOfTheOriginal() {
+        MeetingSchedule clone = new MeetingScheduleSolutionCloner().cloneSolution(original);
+        MeetingAssignment originalAssignment = original.getMeetingAssignmentList().get(1);
+        TimeGrain originalTimeGrain = originalAssignment.getStartingTimeGrain();
+        Room originalRoom = originalAssignment.getRoom();
+        int originalStartIndex = originalAssignment.getStartIndex();
+
+        MeetingAssignment clonedAssignment = clone.getMeetingAssignmentList().get(1);
+        clonedAssignment.setStartingTimeGrain(null);
+        clonedAssignment.setRoom(null);
+        clonedAssignment.setPinned(true);
+        clone.getMeetingAssignmentList().remove(0);
+
+        assertThat(original.getMeetingAssignmentList()).hasSize(
+            clone.getMeetingAssignmentList().size() + 1);
+        assertThat(originalAssignment.getStartingTimeGrain()).isSameAs(originalTimeGrain);
+        assertThat(originalAssignment.getRoom()).isSameAs(originalRoom);
+        assertThat(originalAssignment.getStartIndex()).isEqualTo(originalStartIndex);
+        assertThat(originalAssignment.isPinned()).isFalse();
+    }
+
+    private void assertSameAssignments(MeetingSchedule clone) {
+        List<MeetingAssignment> originalList = original.getMeetingAssignmentList();
+        List<MeetingAssignment> clonedList = clone.getMeetingAssignmentList();
+        assertThat(clonedList).isNotSameAs(originalList).hasSameSizeAs(originalList);
+        for (int i = 0; i < originalList.size(); i++) {
+            MeetingAssignment originalAssignment = originalList.get(i);
+            MeetingAssignment clonedAssignment = clonedList.get(i);
+            assertThat(clonedAssignment).isNotSameAs(originalAssignment);
+            assertThat(clonedAssignment.getId()).isEqualTo(originalAssignment.getId());
+            assertThat(clonedAssignment.getMeeting()).isSameAs(originalAssignment.getMeeting());
+            assertThat(clonedAssignment.getStartingTimeGrain())
+                .isSameAs(originalAssignment.getStartingTimeGrain());
+            assertThat(clonedAssignment.getRoom()).isSameAs(originalAssignment.getRoom());
+            assertThat(clonedAssignment.isPinned()).isEqualTo(originalAssignment.isPinned());
+            assertThat(clonedAssignment.getStartingTimeGrainRange())
+                .isSameAs(originalAssignment.getStartingTimeGrainRange());
+            // The cached indexes the constraints join on
+            assertThat(clonedAssignment.getStartIndex())
+                .isEqualTo(originalAssignment.getStartIndex());
+            assertThat(clonedAssignment.getEndIndex()).isEqualTo(originalAssignment.getEndIndex());
+        }
+    }
+}
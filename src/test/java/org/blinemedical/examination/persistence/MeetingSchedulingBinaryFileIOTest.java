@@ -0,0 +1,119 @@
+package org.blinemedical.examination.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.blinemedical.examination.domain.Attendance;
+import org.blinemedical.examination.domain.Meeting;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingConstraintConfiguration;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.MeetingScheduleBuilder;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Scenario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+class MeetingSchedulingBinaryFileIOTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTrip() {
+        MeetingSchedule schedule = MeetingScheduleBuilder.createRandomSchedule(new Random(37L), 4,
+            2, 2, 2);
+        schedule.setId(5L);
+        List<MeetingAssignment> meetingAssignmentList = schedule.getMeetingAssignmentList();
+        meetingAssignmentList.get(0).setPinned(true);
+        // An unassigned and a half assigned meeting
+        meetingAssignmentList.get(1).setStartingTimeGrain(null);
+        meetingAssignmentList.get(1).setRoom(null);
+        meetingAssignmentList.get(2).setStartingTimeGrain(null);
+        meetingAssignmentList.get(2).setRoom(schedule.getRoomList().get(1));
+        schedule.setScore(HardMediumSoftScore.ofUninitialized(-1, -2, 3, -40));
+        MeetingConstraintConfiguration constraintConfiguration =
+            schedule.getConstraintConfiguration();
+        constraintConfiguration.setAssignedMeetings(HardMediumSoftScore.ofMedium(3));
+        constraintConfiguration.setHalfAssignedMeetings(HardMediumSoftScore.ofMedium(7));
+        constraintConfiguration.setRoomStability(HardMediumSoftScore.ofSoft(11));
+        schedule.getPersonList().get(0).setPersonId("learner-0");
+        schedule.getMeetingList().get(1).setScenarioId(null);
+
+        MeetingSchedulingBinaryFileIO solutionFileIO = new MeetingSchedulingBinaryFileIO();
+        File file = tempDir.resolve("schedule.bin").toFile();
+        solutionFileIO.write(schedule, file);
+        MeetingSchedule readSchedule = solutionFileIO.read(file);
+
+        assertThat(readSchedule.getId()).isEqualTo(0L);
+        assertThat(readSchedule.getScore()).isEqualTo(schedule.getScore());
+        MeetingConstraintConfiguration readConstraintConfiguration =
+            readSchedule.getConstraintConfiguration();
+        assertThat(readConstraintConfiguration.getRoomConflict())
+            .isEqualTo(constraintConfiguration.getRoomConflict());
+        assertThat(readConstraintConfiguration.getAssignedMeetings())
+            .isEqualTo(HardMediumSoftScore.ofMedium(3));
+        assertThat(readConstraintConfiguration.getHalfAssignedMeetings())
+            .isEqualTo(HardMediumSoftScore.ofMedium(7));
+        assertThat(readConstraintConfiguration.getRoomStability())
+            .isEqualTo(HardMediumSoftScore.ofSoft(11));
+
+        assertThat(readSchedule.getPersonList()).extracting(Person::getFullName)
+            .containsExactlyElementsOf(schedule.getPersonList().stream()
+                .map(Person::getFullName).collect(Collectors.toList()));
+        assertThat(readSchedule.getPersonList().get(0).getPersonId()).isEqualTo("learner-0");
+        assertThat(readSchedule.getPersonList().get(1).getPersonId()).isNull();
+        assertThat(readSchedule.getMeetingList().get(1).getScenarioId()).isNull();
+        List<Meeting> meetingList = schedule.getMeetingList();
+        List<Meeting> readMeetingList = readSchedule.getMeetingList();
+        assertThat(readMeetingList).hasSameSizeAs(meetingList);
+        for (int i = 0; i < meetingList.size(); i++) {
+            assertThat(readMeetingList.get(i).getRequiredPatient().getId())
+                .isEqualTo(meetingList.get(i).getRequiredPatient().getId());
+            assertThat(readMeetingList.get(i).getRequiredPatient().getMeeting())
+                .isSameAs(readMeetingList.get(i));
+        }
+        for (int i = 0; i < schedule.getScenarioList().size(); i++) {
+            Scenario scenario = schedule.getScenarioList().get(i);
+            assertThat(readSchedule.getScenarioList().get(i).getPatients())
+                .extracting(Attendance::getId)
+                .containsExactlyElementsOf(scenario.getPatients().stream()
+                    .map(Attendance::getId).collect(Collectors.toList()));
+        }
+
+        List<MeetingAssignment> readMeetingAssignmentList = readSchedule
+            .getMeetingAssignmentList();
+        assertThat(readMeetingAssignmentList).hasSameSizeAs(meetingAssignmentList);
+        for (int i = 0; i < meetingAssignmentList.size(); i++) {
+            MeetingAssignment meetingAssignment = meetingAssignmentList.get(i);
+            MeetingAssignment readMeetingAssignment = readMeetingAssignmentList.get(i);
+            assertThat(readMeetingAssignment.getId()).isEqualTo(meetingAssignment.getId());
+            assertThat(readMeetingAssignment.getMeeting().getId())
+                .isEqualTo(meetingAssignment.getMeeting().getId());
+            if (meetingAssignment.getStartingTimeGrain() == null) {
+                assertThat(readMeetingAssignment.getStartingTimeGrain()).isNull();
+            } else {
+                assertThat(readMeetingAssignment.getStartingTimeGrain().getGrainIndex())
+                    .isEqualTo(meetingAssignment.getStartingTimeGrain().getGrainIndex());
+            }
+            if (meetingAssignment.getRoom() == null) {
+                assertThat(readMeetingAssignment.getRoom()).isNull();
+            } else {
+                assertThat(readMeetingAssignment.getRoom().getName())
+                    .isEqualTo(meetingAssignment.getRoom().getName());
+            }
+            assertThat(readMeetingAssignment.isPinned()).isEqualTo(meetingAssignment.isPinned());
+            assertThat(readMeetingAssignment.getStartingTimeGrainRange()).isNotEmpty();
+        }
+        assertThat(readMeetingAssignmentList.get(0).isPinned()).isTrue();
+        assertThat(readMeetingAssignmentList.get(1).getRoom()).isNull();
+        assertThat(readMeetingAssignmentList.get(2).getStartingTimeGrain()).isNull();
+        assertThat(readMeetingAssignmentList.get(2).getRoom().getName())
+            .isEqualTo(schedule.getRoomList().get(1).getName());
+    }
+}
@@ -0,0 +1,133 @@
+package org.blinemedical.examination.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.List;
+import org.blinemedical.examination.domain.Meeting;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.MeetingScheduleBuilder;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+class MeetingSchedulingJsonFileIOTest {
+
+    // Every list comes after the lists that refer to it, the opposite of the writer's order
+    private static final String OUT_OF_ORDER_SCHEDULE = "{"
+        + "\"meetingAssignments\": [{\"id\": 0, \"meeting\": 0, \"startingTimeGrain\": 1,"
+        + "  \"room\": 0, \"pinned\": true}],"
+        + "\"scenarios\": [{\"id\": 0, \"name\": \"Scenario\", \"patients\": [1]}],"
+        + "\"meetings\": [{\"id\": 0, \"durationInGrains\": 1, \"scenarioId\": 0,"
+        + "  \"requiredLearner\": 0, \"requiredPatient\": 1}],"
+        + "\"attendances\": [{\"id\": 0, \"person\": 0, \"meeting\": 0},"
+        + "  {\"id\": 1, \"person\": 1, \"meeting\": 0}],"
+        + "\"persons\": [{\"id\": 0, \"fullName\": \"Learner\", \"patient\": false},"
+        + "  {\"id\": 1, \"fullName\": \"Patient\", \"patient\": true}],"
+        + "\"rooms\": [{\"id\": 0, \"name\": \"Room\"}],"
+        + "\"timeGrains\": ["
+        + "  {\"id\": 0, \"grainIndex\": 0, \"day\": 0, \"startingMinuteOfDay\": 480},"
+        + "  {\"id\": 1, \"grainIndex\": 1, \"day\": 0, \"startingMinuteOfDay\": 540}],"
+        + "\"days\": [{\"id\": 0, \"dayOfYear\": 1}]"
+        + "}";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTrip() {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room room = builder.addRoom("Room");
+        Person learner = builder.addPerson("Learner", false);
+        learner.setPersonId("learner-1");
+        Scenario scenario = builder.addScenario("Scenario");
+        MeetingAssignment pinnedAssignment = builder.addMeeting(learner,
+            builder.addPerson("Patient 1", true), scenario, 2);
+        pinnedAssignment.setStartingTimeGrain(builder.getTimeGrain(5));
+        pinnedAssignment.setRoom(room);
+        pinnedAssignment.setPinned(true);
+        MeetingAssignment halfAssignedAssignment = builder.addMeeting(learner,
+            builder.addPerson("Patient 2", true), scenario, 1);
+        halfAssignedAssignment.setRoom(room);
+        MeetingSchedule schedule = builder.build();
+        schedule.setScore(HardMediumSoftScore.of(-1, 2, -30));
+        schedule.getConstraintConfiguration().setAssignedMeetings(HardMediumSoftScore.ofMedium(3));
+
+        MeetingSchedulingJsonFileIO solutionFileIO = new MeetingSchedulingJsonFileIO();
+        File file = tempDir.resolve("schedule.json").toFile();
+        solutionFileIO.write(schedule, file);
+        MeetingSchedule readSchedule = solutionFileIO.read(file);
+
+        assertThat(readSchedule.getScore()).isEqualTo(HardMediumSoftScore.of(-1, 2, -30));
+        assertThat(readSchedule.getConstraintConfiguration().getAssignedMeetings())
+            .isEqualTo(HardMediumSoftScore.ofMedium(3));
+        assertThat(readSchedule.getPersonList()).extracting(Person::getPersonId)
+            .containsExactly("learner-1", null, null);
+        List<MeetingAssignment> readMeetingAssignmentList = readSchedule
+            .getMeetingAssignmentList();
+        assertThat(readMeetingAssignmentList).hasSize(2);
+        MeetingAssignment readPinnedAssignment = readMeetingAssignmentList.get(0);
+        assertThat(readPinnedAssignment.getStartingTimeGrain().getGrainIndex()).isEqualTo(5);
+        assertThat(readPinnedAssignment.getRoom().getName()).isEqualTo("Room");
+        assertThat(readPinnedAssignment.isPinned()).isTrue();
+        assertThat(readPinnedAssignment.getMeeting().getDurationInGrains()).isEqualTo(2);
+        MeetingAssignment readHalfAssignedAssignment = readMeetingAssignmentList.get(1);
+        assertThat(readHalfAssignedAssignment.getStartingTimeGrain()).isNull();
+        assertThat(readHalfAssignedAssignment.getRoom())
+            .isSameAs(readPinnedAssignment.getRoom());
+        assertThat(readHalfAssignedAssignment.isPinned()).isFalse();
+        assertThat(readSchedule.getScenarioList().get(0).getPatients())
+            .containsExactly(readPinnedAssignment.getMeeting().getRequiredPatient(),
+                readHalfAssignedAssignment.getMeeting().getRequiredPatient());
+    }
+
+    @Test
+    void forwardReferencesAreResolved() throws IOException {
+        MeetingSchedule schedule = new MeetingSchedulingJsonFileIO().read(
+            new StringReader(OUT_OF_ORDER_SCHEDULE));
+
+        MeetingAssignment meetingAssignment = schedule.getMeetingAssignmentList().get(0);
+        Meeting meeting = schedule.getMeetingList().get(0);
+        assertThat(meetingAssignment.getMeeting()).isSameAs(meeting);
+        assertThat(meetingAssignment.getStartingTimeGrain())
+            .isSameAs(schedule.getTimeGrainList().get(1));
+        assertThat(meetingAssignment.getRoom()).isSameAs(schedule.getRoomList().get(0));
+        assertThat(meetingAssignment.isPinned()).isTrue();
+        assertThat(meetingAssignment.getStartingTimeGrainRange()).hasSize(2);
+        assertThat(meeting.getRequiredLearner()).isSameAs(schedule.getAttendanceList().get(0));
+        assertThat(meeting.getRequiredPatient().getPerson())
+            .isSameAs(schedule.getPersonList().get(1));
+        assertThat(meeting.getRequiredPatient().getMeeting()).isSameAs(meeting);
+        assertThat(schedule.getScenarioList().get(0).getPatients())
+            .containsExactly(meeting.getRequiredPatient());
+        assertThat(schedule.getTimeGrainList().get(0).getDay())
+            .isSameAs(schedule.getDayList().get(0));
+    }
+
+    @Test
+    void unknownIdIsRejected() {
+        String json = OUT_OF_ORDER_SCHEDULE.replace("\"room\": 0", "\"room\": 9");
+
+        assertThatIllegalStateException().isThrownBy(
+            () -> new MeetingSchedulingJsonFileIO().read(new StringReader(json)))
+            .withMessageContaining("room id (9) does not exist");
+    }
+
+    @Test
+    void duplicateIdIsRejected() {
+        String json = OUT_OF_ORDER_SCHEDULE.replace("\"rooms\": [{\"id\": 0, \"name\": \"Room\"}]",
+            "\"rooms\": [{\"id\": 0, \"name\": \"Room\"}, {\"id\": 0, \"name\": \"Other room\"}]");
+
+        assertThatIllegalStateException().isThrownBy(
+            () -> new MeetingSchedulingJsonFileIO().read(new StringReader(json)))
+            .withMessageContaining("same id (0)");
+    }
+}
@@ -0,0 +1,155 @@
+package org.blinemedical.examination.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingConstraintConfiguration;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.MeetingScheduleBuilder;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+class MeetingSchedulingXlsxFileIOTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void longIdsRoundTrip() {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(1, 4);
+        builder.addRoom("Room");
+        Person learner = builder.addPerson("Learner", false);
+        learner.setId(12345678901L);
+        Person patient = builder.addPerson("Patient", true);
+        patient.setId(12345678902L);
+        Scenario scenario = builder.addScenario("Scenario");
+        scenario.setId(98765432109L);
+        builder.addMeeting(learner, patient, scenario, 1);
+        MeetingSchedule schedule = builder.build();
+
+        MeetingSchedulingXlsxFileIO solutionFileIO = new MeetingSchedulingXlsxFileIO();
+        File file = tempDir.resolve("longIds.xlsx").toFile();
+        solutionFileIO.write(schedule, file);
+        MeetingSchedule readSchedule = solutionFileIO.read(file);
+
+        // A General cell shows these as 1.23457E+10
+        assertThat(readSchedule.getPersonList()).extracting(Person::getId)
+            .containsExactly(12345678901L, 12345678902L);
+        assertThat(readSchedule.getScenarioList()).extracting(Scenario::getId)
+            .containsExactly(98765432109L);
+        assertThat(readSchedule.getMeetingList().get(0).getScenarioId()).isEqualTo(98765432109L);
+    }
+
+    @Test
+    void lightweightFileRoundTrip() {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room room = builder.addRoom("Room");
+        Person learner = builder.addPerson("Learner", false);
+        Scenario scenario = builder.addScenario("Scenario");
+        MeetingAssignment meetingAssignment = builder.addMeeting(learner,
+            builder.addPerson("Patient", true), scenario, 2);
+        meetingAssignment.setStartingTimeGrain(builder.getTimeGrain(5));
+        meetingAssignment.setRoom(room);
+        MeetingSchedule schedule = builder.build();
+        MeetingConstraintConfiguration constraintConfiguration =
+            schedule.getConstraintConfiguration();
+        constraintConfiguration.setAssignedMeetings(HardMediumSoftScore.ofMedium(3));
+        constraintConfiguration.setHalfAssignedMeetings(HardMediumSoftScore.ofMedium(7));
+
+        MeetingSchedulingXlsxFileIO solutionFileIO = new MeetingSchedulingXlsxFileIO();
+        File file = tempDir.resolve("schedule"
+            + MeetingSchedulingXlsxFileIO.LIGHTWEIGHT_FILE_NAME_SUFFIX).toFile();
+        solutionFileIO.write(schedule, file);
+        MeetingSchedule readSchedule = solutionFileIO.read(file);
+
+        assertThat(readSchedule.getTimeGrainList()).hasSize(8);
+        assertThat(readSchedule.getMeetingList()).hasSize(1);
+        MeetingAssignment readMeetingAssignment = readSchedule.getMeetingAssignmentList().get(0);
+        assertThat(readMeetingAssignment.getStartingTimeGrain().getGrainIndex()).isEqualTo(5);
+        assertThat(readMeetingAssignment.getRoom().getName()).isEqualTo("Room");
+        MeetingConstraintConfiguration readConstraintConfiguration =
+            readSchedule.getConstraintConfiguration();
+        assertThat(readConstraintConfiguration.getRoomStability())
+            .isEqualTo(constraintConfiguration.getRoomStability());
+        assertThat(readConstraintConfiguration.getAssignedMeetings())
+            .isEqualTo(HardMediumSoftScore.ofMedium(3));
+        assertThat(readConstraintConfiguration.getHalfAssignedMeetings())
+            .isEqualTo(HardMediumSoftScore.ofMedium(7));
+    }
+
+    @Test
+    void fullFileKeepsTheMediumWeights() {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(1, 4);
+        builder.addRoom("Room");
+        builder.addMeeting(builder.addPerson("Learner", false), builder.addPerson("Patient", true),
+            builder.addScenario("Scenario"), 1);
+        MeetingSchedule schedule = builder.build();
+        schedule.getConstraintConfiguration().setAssignedMeetings(HardMediumSoftScore.ofMedium(3));
+        schedule.getConstraintConfiguration()
+            .setHalfAssignedMeetings(HardMediumSoftScore.ofMedium(7));
+
+        MeetingSchedulingXlsxFileIO solutionFileIO = new MeetingSchedulingXlsxFileIO();
+        File file = tempDir.resolve("schedule.xlsx").toFile();
+        solutionFileIO.write(schedule, file);
+        MeetingSchedule readSchedule = solutionFileIO.read(file);
+
+        assertThat(readSchedule.getConstraintConfiguration().getAssignedMeetings())
+            .isEqualTo(HardMediumSoftScore.ofMedium(3));
+        assertThat(readSchedule.getConstraintConfiguration().getHalfAssignedMeetings())
+            .isEqualTo(HardMediumSoftScore.ofMedium(7));
+    }
+
+    @Test
+    void sheetWithDoctypeIsRejected() throws IOException {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(1, 4);
+        builder.addRoom("Room");
+        builder.addMeeting(builder.addPerson("Learner", false), builder.addPerson("Patient", true),
+            builder.addScenario("Scenario"), 1);
+        MeetingSchedulingXlsxFileIO solutionFileIO = new MeetingSchedulingXlsxFileIO();
+        File file = tempDir.resolve("schedule.xlsx").toFile();
+        solutionFileIO.write(builder.build(), file);
+        Path secretFile = Files.writeString(tempDir.resolve("secret.txt"), "secret");
+        File entityFile = tempDir.resolve("entity.xlsx").toFile();
+        addDoctypeToSheets(file, entityFile, "<!DOCTYPE worksheet [<!ENTITY xxe SYSTEM \""
+            + secretFile.toUri() + "\">]>");
+
+        assertThatIllegalStateException().isThrownBy(() -> solutionFileIO.read(entityFile))
+            .havingRootCause().withMessageContaining("DOCTYPE");
+    }
+
+    /**
+     * Copies the workbook, inserting the doctype after the XML declaration of every sheet.
+     */
+    private static void addDoctypeToSheets(File inputFile, File outputFile, String doctype)
+        throws IOException {
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(inputFile.toPath()));
+            ZipOutputStream out = new ZipOutputStream(
+                Files.newOutputStream(outputFile.toPath()))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                if (entry.getName().startsWith("xl/worksheets/sheet")) {
+                    String xml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                    int bodyStart = xml.startsWith("<?xml") ? xml.indexOf("?>") + 2 : 0;
+                    xml = xml.substring(0, bodyStart) + doctype + xml.substring(bodyStart);
+                    out.write(xml.getBytes(StandardCharsets.UTF_8));
+                } else {
+                    in.transferTo(out);
+                }
+                out.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.blinemedical.examination.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import org.blinemedical.examination.domain.Attendance;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.persistence.MeteorSampleData.MeteorPerson;
+import org.blinemedical.examination.persistence.MeteorSampleData.MeteorRoom;
+import org.blinemedical.examination.persistence.MeteorSampleData.MeteorScenario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the {@link MeteorDataGenerator} against a local stub of the Meteor
+ * {@code /api/sample-data} endpoint.
+ */
+class MeteorDataGeneratorTest {
+
+    private static final String TOKEN = "token-1";
+    private static final String ETAG = "\"v1\"";
+
+    private static final String SAMPLE_DATA = "{"
+        + "\"generatedAt\": {\"by\": [\"ignored\", {\"nested\": true}]},"
+        + "\"learners\": ["
+        + "  {\"userId\": \"Learner-1\", \"name\": \"Ann\", \"courseId\": \"c1\"},"
+        + "  {\"userId\": \"Learner-2\", \"name\": \"Bob\", \"courseIds\": [\"c2\", null]}"
+        + "],"
+        + "\"patients\": ["
+        + "  {\"userId\": \"Patient-1\", \"name\": \"Pat\", \"email\": null},"
+        + "  {\"userId\": \"Patient-2\", \"name\": \"Sam\", \"courseIds\": [\"c2\"]}"
+        + "],"
+        + "\"rooms\": ["
+        + "  {\"name\": \"Room 1\"},"
+        + "  {\"name\": \"Room 2\", \"courseId\": \"c2\"}"
+        + "],"
+        + "\"scenarios\": ["
+        + "  {\"privateTitle\": \"Chest pain\", \"courseIds\": [\"c1\"],"
+        + "    \"patients\": [{\"userId\": \"PATIENT-1\", \"name\": \"Pat\"}]},"
+        + "  {\"privateTitle\": \"Headache\", \"courseId\": \"c2\","
+        + "    \"patients\": [{\"userId\": \"patient-2\"}, {\"userId\": \"Unknown\"}]}"
+        + "]}";
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final List<String> requestTokenList = new CopyOnWriteArrayList<>();
+    private final List<String> requestIfNoneMatchList = new CopyOnWriteArrayList<>();
+    private final List<Integer> responseStatusCodeList = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(MeteorDataGenerator.SAMPLE_DATA_PATH, this::handleSampleData);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private void handleSampleData(HttpExchange exchange) throws IOException {
+        requestTokenList.add(exchange.getRequestHeaders().getFirst("token"));
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        requestIfNoneMatchList.add(String.valueOf(ifNoneMatch));
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        if (ETAG.equals(ifNoneMatch)) {
+            responseStatusCodeList.add(304);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = SAMPLE_DATA.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        responseStatusCodeList.add(200);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String getBaseUrl() {
+        return "http://" + server.getAddress().getAddress().getHostAddress() + ":"
+            + server.getAddress().getPort();
+    }
+
+    @Test
+    void fetchSampleDataSkipsUnknownFields() throws IOException {
+        MeteorDataGenerator generator = new MeteorDataGenerator(getBaseUrl(), tempDir.toFile(),
+            new NetHttpTransport());
+        MeteorSampleData sampleData = generator.fetchSampleData(TOKEN, null);
+
+        assertThat(requestTokenList).containsExactly(TOKEN);
+        assertThat(sampleData.getLearnerList()).extracting(MeteorPerson::getName)
+            .containsExactly("Ann", "Bob");
+        assertThat(sampleData.getLearnerList().get(0).getCourseIdSet()).containsExactly("c1");
+        assertThat(sampleData.getLearnerList().get(1).getCourseIdSet()).containsExactly("c2");
+        assertThat(sampleData.getPatientList()).extracting(MeteorPerson::getUserId)
+            .containsExactly("Patient-1", "Patient-2");
+        assertThat(sampleData.getRoomList()).hasSize(2);
+        assertThat(sampleData.getScenarioList()).extracting(MeteorScenario::getPrivateTitle)
+            .containsExactly("Chest pain", "Headache");
+        assertThat(sampleData.getScenarioList().get(1).getPatientList()).hasSize(2);
+    }
+
+    @Test
+    void scenarioPatientsAreResolvedCaseInsensitively() throws IOException {
+        MeteorDataGenerator generator = new MeteorDataGenerator(getBaseUrl(), tempDir.toFile(),
+            new NetHttpTransport());
+        MeteorSampleData sampleData = generator.fetchSampleData(TOKEN, null);
+        MeetingSchedule schedule = generator.createMeetingSchedule("test", sampleData,
+            Instant.parse("2020-12-18T08:00:00.00Z"), 8, 1);
+
+        List<Scenario> scenarioList = schedule.getScenarioList();
+        assertThat(scenarioList.get(0).getPatients())
+            .extracting(attendance -> attendance.getPerson().getFullName())
+            .containsExactly("Pat");
+        // The unknown patient is logged and left out
+        assertThat(scenarioList.get(1).getPatients())
+            .extracting(attendance -> attendance.getPerson().getFullName())
+            .containsExactly("Sam");
+        assertThat(schedule.getMeetingList()).hasSize(2 * 2);
+        assertThat(schedule.getAttendanceList()).extracting(Attendance::getPerson)
+            .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void unchangedResponseIsReadFromTheCache() throws IOException {
+        MeteorDataGenerator generator = new MeteorDataGenerator(getBaseUrl(), tempDir.toFile(),
+            new NetHttpTransport(), new MeteorResponseCache(tempDir.resolve("cache").toFile()));
+        MeteorSampleData downloadedSampleData = generator.fetchSampleData(TOKEN, null);
+        MeteorSampleData cachedSampleData = generator.fetchSampleData(TOKEN, null);
+
+        assertThat(requestIfNoneMatchList).containsExactly("null", ETAG);
+        assertThat(responseStatusCodeList).containsExactly(200, 304);
+        assertThat(cachedSampleData.getLearnerList()).extracting(MeteorPerson::getUserId)
+            .containsExactlyElementsOf(downloadedSampleData.getLearnerList().stream()
+                .map(MeteorPerson::getUserId).collect(Collectors.toList()));
+        assertThat(cachedSampleData.getScenarioList()).hasSize(2);
+    }
+
+    @Test
+    void cacheIsKeptPerToken() throws IOException {
+        MeteorDataGenerator generator = new MeteorDataGenerator(getBaseUrl(), tempDir.toFile(),
+            new NetHttpTransport(), new MeteorResponseCache(tempDir.resolve("cache").toFile()));
+        generator.fetchSampleData(TOKEN, null);
+        generator.fetchSampleData("token-2", null);
+
+        // The second token may see other data, so it doesn't revalidate the first token's body
+        assertThat(requestTokenList).containsExactly(TOKEN, "token-2");
+        assertThat(requestIfNoneMatchList).containsExactly("null", "null");
+        assertThat(responseStatusCodeList).containsExactly(200, 200);
+    }
+
+    @Test
+    void allCoursesResponseIsSlicedPerCourse() throws IOException {
+        MeteorDataGenerator generator = new MeteorDataGenerator(getBaseUrl(), tempDir.toFile(),
+            new NetHttpTransport());
+        MeteorSampleData sampleData = generator.fetchSampleData(TOKEN, null);
+        assertThat(sampleData.hasCourseIds()).isTrue();
+
+        MeteorSampleData courseSampleData = sampleData.filterByCourse("c2");
+        assertThat(courseSampleData.getLearnerList()).extracting(MeteorPerson::getName)
+            .containsExactly("Bob");
+        assertThat(courseSampleData.getScenarioList()).extracting(MeteorScenario::getPrivateTitle)
+            .containsExactly("Headache");
+        assertThat(courseSampleData.getPatientList()).extracting(MeteorPerson::getName)
+            .containsExactly("Sam");
+        // A room without a course is shared by every course
+        assertThat(courseSampleData.getRoomList()).extracting(MeteorRoom::getName)
+            .containsExactly("Room 1", "Room 2");
+    }
+
+    @Test
+    void notSlicedWhenALearnerHasNoCourseId() {
+        MeteorScenario scenario = new MeteorScenario("Chest pain", Collections.emptyList(),
+            Collections.singleton("c1"));
+        MeteorSampleData sampleData = new MeteorSampleData(
+            Arrays.asList(new MeteorPerson("Learner-1", "Ann", Collections.singleton("c1")),
+                new MeteorPerson("Learner-2", "Bob", Collections.emptySet())),
+            Collections.emptyList(), Collections.emptyList(),
+            Collections.singletonList(scenario));
+
+        // Slicing would silently drop Bob from every course
+        assertThat(sampleData.hasCourseIds()).isFalse();
+    }
+}
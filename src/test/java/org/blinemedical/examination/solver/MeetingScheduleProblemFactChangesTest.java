@@ -0,0 +1,279 @@
+package org.blinemedical.examination.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import org.blinemedical.examination.domain.Attendance;
+import org.blinemedical.examination.domain.Meeting;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.MeetingScheduleBuilder;
+import org.blinemedical.examination.domain.MeetingScheduleSolutionCloner;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.persistence.MeetingSchedulingBinaryFileIO;
+import org.blinemedical.examination.persistence.MeetingSchedulingGenerator;
+import org.blinemedical.examination.persistence.MeetingSchedulingJsonFileIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.ProblemFactChange;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+
+/**
+ * Applies the changes to a schedule built like the XLSX reader builds it, with one attendance per
+ * meeting and person, through the incremental score calculator.
+ */
+class MeetingScheduleProblemFactChangesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MeetingSchedule schedule;
+    private Room firstRoom;
+    private Person firstPatient;
+    private Scenario firstScenario;
+    private Scenario secondScenario;
+
+    @BeforeEach
+    void buildSchedule() {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(1, 8);
+        firstRoom = builder.addRoom("Room 1");
+        builder.addRoom("Room 2");
+        Person firstLearner = builder.addPerson("Learner 1", false);
+        Person secondLearner = builder.addPerson("Learner 2", false);
+        firstScenario = builder.addScenario("Scenario 1");
+        secondScenario = builder.addScenario("Scenario 2");
+        firstPatient = builder.addPerson("Patient 1", true);
+        Person secondPatient = builder.addPerson("Patient 2", true);
+        Person thirdPatient = builder.addPerson("Patient 3", true);
+        int grainIndex = 0;
+        for (Person learner : List.of(firstLearner, secondLearner)) {
+            MeetingAssignment meetingAssignment = builder.addMeeting(learner, firstPatient,
+                firstScenario, 1);
+            meetingAssignment.setStartingTimeGrain(builder.getTimeGrain(grainIndex++));
+            meetingAssignment.setRoom(firstRoom);
+            builder.addMeeting(learner, secondPatient, secondScenario, 1);
+            builder.addMeeting(learner, thirdPatient, secondScenario, 1);
+        }
+        schedule = builder.build();
+    }
+
+    @Test
+    void addLearnerGetsAnAttendancePerMeeting() {
+        List<Attendance> oldAttendanceList = schedule.getAttendanceList();
+        doChange(MeetingScheduleProblemFactChanges.addLearner("learner-3", "Learner 3", 1));
+
+        // One meeting per patient, not per attendance of a patient
+        assertThat(schedule.getMeetingList()).hasSize(6 + 3);
+        assertThat(schedule.getAttendanceList()).hasSize(oldAttendanceList.size() + 2 * 3);
+        for (Meeting meeting : schedule.getMeetingList().subList(6, 9)) {
+            assertThat(meeting.getRequiredLearner().getPerson().getFullName())
+                .isEqualTo("Learner 3");
+            assertThat(meeting.getRequiredLearner().getMeeting()).isSameAs(meeting);
+            assertThat(meeting.getRequiredPatient().getMeeting()).isSameAs(meeting);
+            assertThat(oldAttendanceList).doesNotContain(meeting.getRequiredPatient());
+        }
+        assertThat(getWorkingScenario(firstScenario).getPatients()).hasSize(2 + 1);
+        assertThat(getWorkingScenario(secondScenario).getPatients()).hasSize(4 + 2);
+        assertConsistent();
+    }
+
+    @Test
+    void addPatientMeetsEveryLearner() {
+        doChange(MeetingScheduleProblemFactChanges.addPatient("patient-4", "Patient 4",
+            firstScenario, 1));
+
+        assertThat(schedule.getMeetingList()).hasSize(6 + 2);
+        assertThat(getWorkingScenario(firstScenario).getPatients()).hasSize(2 + 2);
+        assertThat(getWorkingScenario(secondScenario).getPatients()).hasSize(4);
+        assertConsistent();
+    }
+
+    @Test
+    void removePersonRemovesTheAttendancesOfItsMeetings() {
+        doChange(MeetingScheduleProblemFactChanges.removePerson(firstPatient));
+
+        assertThat(schedule.getMeetingList()).hasSize(4);
+        assertThat(schedule.getAttendanceList()).hasSize(2 * 4);
+        assertThat(getWorkingScenario(firstScenario).getPatients()).isEmpty();
+        assertThat(schedule.getAttendanceList()).extracting(Attendance::getPerson)
+            .doesNotContain(firstPatient);
+        assertConsistent();
+    }
+
+    @Test
+    void removeScenarioRemovesTheAttendancesOfItsMeetings() {
+        doChange(MeetingScheduleProblemFactChanges.removeScenario(secondScenario));
+
+        assertThat(schedule.getMeetingList()).hasSize(2);
+        assertThat(schedule.getAttendanceList()).hasSize(2 * 2);
+        assertThat(schedule.getScenarioList()).containsExactly(firstScenario);
+        assertConsistent();
+    }
+
+    @Test
+    void addRoomGetsTheNextId() {
+        List<Room> oldRoomList = schedule.getRoomList();
+        doChange(MeetingScheduleProblemFactChanges.addRoom("Room 3"));
+
+        assertThat(schedule.getRoomList()).extracting(Room::getName)
+            .containsExactly("Room 1", "Room 2", "Room 3");
+        assertThat(schedule.getRoomList().get(2).getId()).isEqualTo(2L);
+        assertThat(oldRoomList).hasSize(2);
+        assertConsistent();
+    }
+
+    @Test
+    void removeRoomUnassignsAndUnpinsItsMeetings() {
+        List<MeetingAssignment> roomAssignmentList = new ArrayList<>();
+        for (MeetingAssignment meetingAssignment : schedule.getMeetingAssignmentList()) {
+            if (meetingAssignment.getRoom() == firstRoom) {
+                roomAssignmentList.add(meetingAssignment);
+            }
+        }
+        roomAssignmentList.get(0).setPinned(true);
+        doChange(MeetingScheduleProblemFactChanges.removeRoom(firstRoom));
+
+        assertThat(schedule.getRoomList()).extracting(Room::getName).containsExactly("Room 2");
+        assertThat(roomAssignmentList).hasSize(2).allSatisfy(meetingAssignment -> {
+            assertThat(meetingAssignment.getRoom()).isNull();
+            assertThat(meetingAssignment.getStartingTimeGrain()).isNotNull();
+            assertThat(meetingAssignment.isPinned()).isFalse();
+        });
+        assertConsistent();
+    }
+
+    @Test
+    void changesLeaveAPublishedSolutionUnchanged() {
+        MeetingSchedule publishedSolution = new MeetingScheduleSolutionCloner()
+            .cloneSolution(schedule);
+        List<List<Attendance>> publishedPatientsList = new ArrayList<>();
+        for (Scenario scenario : publishedSolution.getScenarioList()) {
+            publishedPatientsList.add(new ArrayList<>(scenario.getPatients()));
+        }
+        List<Meeting> publishedMeetingList = new ArrayList<>(publishedSolution.getMeetingList());
+
+        doChange(MeetingScheduleProblemFactChanges.addPatient("patient-4", "Patient 4",
+            firstScenario, 1));
+        doChange(MeetingScheduleProblemFactChanges.removePerson(firstPatient));
+
+        assertThat(publishedSolution.getScenarioList()).containsExactly(firstScenario,
+            secondScenario);
+        for (int i = 0; i < publishedPatientsList.size(); i++) {
+            assertThat(publishedSolution.getScenarioList().get(i).getPatients())
+                .containsExactlyElementsOf(publishedPatientsList.get(i));
+        }
+        assertThat(publishedSolution.getMeetingList())
+            .containsExactlyElementsOf(publishedMeetingList);
+        assertThat(getWorkingScenario(firstScenario)).isNotSameAs(firstScenario);
+    }
+
+    /**
+     * The generators share one attendance per person between meetings, so removing a meeting
+     * changes the attendance in place. A published solution still resolves it.
+     */
+    @Test
+    void removePersonRepointsASharedAttendanceWithinThePublishedSolution() {
+        schedule = new MeetingSchedulingGenerator(tempDir.toFile()).createMeetingSchedule("test",
+            2, 1, 2, Instant.parse("2020-12-18T08:00:00.00Z"), 8, 2, 1);
+        MeetingSchedule publishedSolution = new MeetingScheduleSolutionCloner()
+            .cloneSolution(schedule);
+        List<Meeting> meetingList = schedule.getMeetingList();
+        // Every patient attendance points to a meeting of the last learner
+        Person lastLearner = meetingList.get(meetingList.size() - 1).getRequiredLearner()
+            .getPerson();
+        doChange(MeetingScheduleProblemFactChanges.removePerson(lastLearner));
+
+        assertThat(schedule.getMeetingList()).hasSize(2);
+        Set<Meeting> publishedMeetingSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        publishedMeetingSet.addAll(publishedSolution.getMeetingList());
+        for (Attendance attendance : publishedSolution.getAttendanceList()) {
+            if (attendance.getPerson() != lastLearner) {
+                assertThat(publishedMeetingSet).contains(attendance.getMeeting());
+                assertThat(attendance.getMeeting().getRequiredLearner().getPerson())
+                    .isNotSameAs(lastLearner);
+            }
+        }
+        assertConsistent();
+    }
+
+    // ************************************************************************
+    // Helper methods
+    // ************************************************************************
+
+    private Scenario getWorkingScenario(Scenario scenario) {
+        return schedule.getScenarioList().stream()
+            .filter(workingScenario -> workingScenario.getId().equals(scenario.getId()))
+            .findFirst().orElseThrow();
+    }
+
+    private void doChange(ProblemFactChange<MeetingSchedule> problemFactChange) {
+        InnerScoreDirector<MeetingSchedule, HardMediumSoftScore> scoreDirector =
+            ScoreDirectorType.INCREMENTAL.buildScoreDirectorFactory()
+                .buildScoreDirector(false, false);
+        try {
+            scoreDirector.setWorkingSolution(schedule);
+            scoreDirector.calculateScore();
+            problemFactChange.doChange(scoreDirector);
+            HardMediumSoftScore score = scoreDirector.calculateScore();
+            assertThat(score).isEqualTo(calculateScore(ScoreDirectorType.CONSTRAINT_STREAMS));
+        } finally {
+            scoreDirector.close();
+        }
+    }
+
+    private HardMediumSoftScore calculateScore(ScoreDirectorType scoreDirectorType) {
+        InnerScoreDirector<MeetingSchedule, HardMediumSoftScore> scoreDirector =
+            scoreDirectorType.buildScoreDirectorFactory().buildScoreDirector(false, false);
+        try {
+            scoreDirector.setWorkingSolution(schedule);
+            return scoreDirector.calculateScore();
+        } finally {
+            scoreDirector.close();
+        }
+    }
+
+    /**
+     * Every reference resolves within the fact lists, so both writers accept the schedule.
+     */
+    private void assertConsistent() {
+        Set<Object> attendanceSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        attendanceSet.addAll(schedule.getAttendanceList());
+        Set<Object> meetingSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        meetingSet.addAll(schedule.getMeetingList());
+        for (Meeting meeting : schedule.getMeetingList()) {
+            assertThat(attendanceSet).contains(meeting.getRequiredLearner(),
+                meeting.getRequiredPatient());
+        }
+        for (Attendance attendance : schedule.getAttendanceList()) {
+            assertThat(meetingSet).contains(attendance.getMeeting());
+        }
+        for (Scenario scenario : schedule.getScenarioList()) {
+            assertThat(attendanceSet).containsAll(scenario.getPatients());
+        }
+        for (MeetingAssignment meetingAssignment : schedule.getMeetingAssignmentList()) {
+            assertThat(meetingSet).contains(meetingAssignment.getMeeting());
+        }
+
+        File binaryFile = tempDir.resolve("schedule.bin").toFile();
+        MeetingSchedulingBinaryFileIO binaryFileIO = new MeetingSchedulingBinaryFileIO();
+        binaryFileIO.write(schedule, binaryFile);
+        assertThat(binaryFileIO.read(binaryFile).getMeetingList())
+            .hasSameSizeAs(schedule.getMeetingList());
+        File jsonFile = tempDir.resolve("schedule.json").toFile();
+        MeetingSchedulingJsonFileIO jsonFileIO = new MeetingSchedulingJsonFileIO();
+        jsonFileIO.write(schedule, jsonFile);
+        assertThat(jsonFileIO.read(jsonFile).getAttendanceList())
+            .hasSameSizeAs(schedule.getAttendanceList());
+    }
+}
@@ -0,0 +1,219 @@
+package org.blinemedical.examination.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.MeetingScheduleBuilder;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.domain.TimeGrain;
+import org.junit.jupiter.api.Test;
+
+class MeetingScheduleWarmStartTest {
+
+    @Test
+    void pinPastAssignmentsPinsTheMeetingsBeforeTheGrain() {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room room = builder.addRoom("Room");
+        Person learner = builder.addPerson("Learner", false);
+        Scenario scenario = builder.addScenario("Scenario");
+        // On the first day
+        MeetingAssignment earlyAssignment = addMeeting(builder, learner, scenario, 1, room);
+        MeetingAssignment pinnedAssignment = addMeeting(builder, learner, scenario, 2, room);
+        // Starts on the first grain of the second day
+        MeetingAssignment cutoffAssignment = addMeeting(builder, learner, scenario, 4, room);
+        MeetingAssignment lateAssignment = addMeeting(builder, learner, scenario, 6, room);
+        MeetingAssignment unassignedAssignment = builder.addMeeting(learner,
+            builder.addPerson("Unassigned patient", true), scenario, 1);
+        MeetingSchedule schedule = builder.build();
+        pinnedAssignment.setPinned(true);
+
+        assertThat(MeetingScheduleWarmStart.pinPastAssignments(schedule, 4)).isEqualTo(1);
+        assertThat(earlyAssignment.isPinned()).isTrue();
+        assertThat(pinnedAssignment.isPinned()).isTrue();
+        assertThat(cutoffAssignment.isPinned()).isFalse();
+        assertThat(lateAssignment.isPinned()).isFalse();
+        assertThat(unassignedAssignment.isPinned()).isFalse();
+
+        // Nothing is newly pinned the second time
+        assertThat(MeetingScheduleWarmStart.pinPastAssignments(schedule, 4)).isZero();
+    }
+
+    @Test
+    void applyPreviousSolutionMatchesByLearnerPatientAndScenario() {
+        MeetingScheduleBuilder previousBuilder = new MeetingScheduleBuilder().withDays(2, 4);
+        previousBuilder.addRoom("Room 1");
+        Room previousRoom = previousBuilder.addRoom("Room 2");
+        Person previousLearner = previousBuilder.addPerson("Learner", false);
+        Person previousPatient = previousBuilder.addPerson("Patient", true);
+        Scenario previousScenario = previousBuilder.addScenario("Scenario");
+        previousBuilder.addScenario("Other scenario");
+        MeetingAssignment previousAssignment = previousBuilder.addMeeting(previousLearner,
+            previousPatient, previousScenario, 1);
+        assign(previousAssignment, previousBuilder.getTimeGrain(5), previousRoom, true);
+        MeetingSchedule previousSolution = previousBuilder.build();
+
+        // Other objects, with other ids and in another order
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room room = builder.addRoom("Room 2");
+        builder.addRoom("Room 1");
+        Person patient = builder.addPerson("Patient", true);
+        Person learner = builder.addPerson("Learner", false);
+        Scenario otherScenario = builder.addScenario("Other scenario");
+        Scenario scenario = builder.addScenario("Scenario");
+        MeetingAssignment otherAssignment = builder.addMeeting(learner, patient, otherScenario, 1);
+        MeetingAssignment meetingAssignment = builder.addMeeting(learner, patient, scenario, 1);
+        MeetingSchedule problem = builder.build();
+
+        assertThat(MeetingScheduleWarmStart.applyPreviousSolution(problem, previousSolution))
+            .isEqualTo(1);
+        assertThat(meetingAssignment.getStartingTimeGrain()).isSameAs(builder.getTimeGrain(5));
+        assertThat(meetingAssignment.getRoom()).isSameAs(room);
+        assertThat(meetingAssignment.isPinned()).isTrue();
+        assertThat(otherAssignment.getStartingTimeGrain()).isNull();
+        assertThat(otherAssignment.getRoom()).isNull();
+    }
+
+    @Test
+    void applyPreviousSolutionMatchesDuplicateMeetingsInOrder() {
+        MeetingScheduleBuilder previousBuilder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room previousRoom = previousBuilder.addRoom("Room");
+        Person previousLearner = previousBuilder.addPerson("Learner", false);
+        Person previousPatient = previousBuilder.addPerson("Patient", true);
+        Scenario previousScenario = previousBuilder.addScenario("Scenario");
+        for (int grainIndex : new int[] {6, 1}) {
+            assign(previousBuilder.addMeeting(previousLearner, previousPatient, previousScenario,
+                1), previousBuilder.getTimeGrain(grainIndex), previousRoom, false);
+        }
+        MeetingSchedule previousSolution = previousBuilder.build();
+
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 4);
+        builder.addRoom("Room");
+        Person learner = builder.addPerson("Learner", false);
+        Person patient = builder.addPerson("Patient", true);
+        Scenario scenario = builder.addScenario("Scenario");
+        MeetingAssignment firstAssignment = builder.addMeeting(learner, patient, scenario, 1);
+        MeetingAssignment secondAssignment = builder.addMeeting(learner, patient, scenario, 1);
+        // One more than the previous solution had
+        MeetingAssignment thirdAssignment = builder.addMeeting(learner, patient, scenario, 1);
+        MeetingSchedule problem = builder.build();
+
+        assertThat(MeetingScheduleWarmStart.applyPreviousSolution(problem, previousSolution))
+            .isEqualTo(2);
+        assertThat(firstAssignment.getStartingTimeGrain()).isSameAs(builder.getTimeGrain(6));
+        assertThat(secondAssignment.getStartingTimeGrain()).isSameAs(builder.getTimeGrain(1));
+        assertThat(thirdAssignment.getStartingTimeGrain()).isNull();
+        assertThat(thirdAssignment.getRoom()).isNull();
+    }
+
+    @Test
+    void applyPreviousSolutionLeavesAGrainOutsideTheRangeEmpty() {
+        MeetingScheduleBuilder previousBuilder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room previousRoom = previousBuilder.addRoom("Room");
+        MeetingAssignment previousAssignment = previousBuilder.addMeeting(
+            previousBuilder.addPerson("Learner", false), previousBuilder.addPerson("Patient", true),
+            previousBuilder.addScenario("Scenario"), 1);
+        // The last grain of the first day
+        assign(previousAssignment, previousBuilder.getTimeGrain(3), previousRoom, true);
+        MeetingSchedule previousSolution = previousBuilder.build();
+
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room room = builder.addRoom("Room");
+        // Now too long to start on the last grain of a day
+        MeetingAssignment meetingAssignment = builder.addMeeting(
+            builder.addPerson("Learner", false), builder.addPerson("Patient", true),
+            builder.addScenario("Scenario"), 2);
+        MeetingSchedule problem = builder.build();
+
+        assertThat(MeetingScheduleWarmStart.applyPreviousSolution(problem, previousSolution))
+            .isEqualTo(1);
+        assertThat(meetingAssignment.getStartingTimeGrain()).isNull();
+        assertThat(meetingAssignment.getRoom()).isSameAs(room);
+        assertThat(meetingAssignment.isPinned()).isFalse();
+    }
+
+    @Test
+    void applyPreviousSolutionLeavesARemovedRoomEmpty() {
+        MeetingScheduleBuilder previousBuilder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room previousRoom = previousBuilder.addRoom("Old room");
+        MeetingAssignment previousAssignment = previousBuilder.addMeeting(
+            previousBuilder.addPerson("Learner", false), previousBuilder.addPerson("Patient", true),
+            previousBuilder.addScenario("Scenario"), 1);
+        assign(previousAssignment, previousBuilder.getTimeGrain(2), previousRoom, true);
+        MeetingSchedule previousSolution = previousBuilder.build();
+
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 4);
+        builder.addRoom("Room");
+        MeetingAssignment meetingAssignment = builder.addMeeting(
+            builder.addPerson("Learner", false), builder.addPerson("Patient", true),
+            builder.addScenario("Scenario"), 1);
+        MeetingSchedule problem = builder.build();
+
+        assertThat(MeetingScheduleWarmStart.applyPreviousSolution(problem, previousSolution))
+            .isEqualTo(1);
+        assertThat(meetingAssignment.getStartingTimeGrain()).isSameAs(builder.getTimeGrain(2));
+        assertThat(meetingAssignment.getRoom()).isNull();
+        assertThat(meetingAssignment.isPinned()).isFalse();
+    }
+
+    @Test
+    void applyPreviousSolutionKeepsTheProblemsOwnAssignments() {
+        MeetingScheduleBuilder previousBuilder = new MeetingScheduleBuilder().withDays(2, 4);
+        Room previousRoom = previousBuilder.addRoom("Room 1");
+        previousBuilder.addRoom("Room 2");
+        Person previousLearner = previousBuilder.addPerson("Learner", false);
+        Scenario previousScenario = previousBuilder.addScenario("Scenario");
+        for (String patientName : new String[] {"Patient 1", "Patient 2", "Patient 3"}) {
+            assign(previousBuilder.addMeeting(previousLearner,
+                previousBuilder.addPerson(patientName, true), previousScenario, 1),
+                previousBuilder.getTimeGrain(6), previousRoom, false);
+        }
+        MeetingSchedule previousSolution = previousBuilder.build();
+
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(2, 4);
+        builder.addRoom("Room 1");
+        Room room = builder.addRoom("Room 2");
+        Person learner = builder.addPerson("Learner", false);
+        Scenario scenario = builder.addScenario("Scenario");
+        MeetingAssignment pinnedAssignment = builder.addMeeting(learner,
+            builder.addPerson("Patient 1", true), scenario, 1);
+        assign(pinnedAssignment, builder.getTimeGrain(0), room, true);
+        MeetingAssignment assignedAssignment = builder.addMeeting(learner,
+            builder.addPerson("Patient 2", true), scenario, 1);
+        assign(assignedAssignment, builder.getTimeGrain(1), room, false);
+        // Pinned before it got a value
+        MeetingAssignment pinnedEmptyAssignment = builder.addMeeting(learner,
+            builder.addPerson("Patient 3", true), scenario, 1);
+        pinnedEmptyAssignment.setPinned(true);
+        MeetingSchedule problem = builder.build();
+
+        assertThat(MeetingScheduleWarmStart.applyPreviousSolution(problem, previousSolution))
+            .isZero();
+        assertThat(pinnedAssignment.getStartingTimeGrain()).isSameAs(builder.getTimeGrain(0));
+        assertThat(pinnedAssignment.getRoom()).isSameAs(room);
+        assertThat(pinnedAssignment.isPinned()).isTrue();
+        assertThat(assignedAssignment.getStartingTimeGrain()).isSameAs(builder.getTimeGrain(1));
+        assertThat(assignedAssignment.getRoom()).isSameAs(room);
+        assertThat(assignedAssignment.isPinned()).isFalse();
+        assertThat(pinnedEmptyAssignment.getStartingTimeGrain()).isNull();
+        assertThat(pinnedEmptyAssignment.isPinned()).isTrue();
+    }
+
+    private static void assign(MeetingAssignment meetingAssignment, TimeGrain startingTimeGrain,
+        Room room, boolean pinned) {
+        meetingAssignment.setStartingTimeGrain(startingTimeGrain);
+        meetingAssignment.setRoom(room);
+        meetingAssignment.setPinned(pinned);
+    }
+
+    private static MeetingAssignment addMeeting(MeetingScheduleBuilder builder, Person learner,
+        Scenario scenario, int grainIndex, Room room) {
+        MeetingAssignment meetingAssignment = builder.addMeeting(learner,
+            builder.addPerson("Patient " + grainIndex, true), scenario, 1);
+        meetingAssignment.setStartingTimeGrain(builder.getTimeGrain(grainIndex));
+        meetingAssignment.setRoom(room);
+        return meetingAssignment;
+    }
+}
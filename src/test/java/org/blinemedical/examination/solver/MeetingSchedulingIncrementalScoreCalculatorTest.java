@@ -0,0 +1,171 @@
+package org.blinemedical.examination.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.blinemedical.examination.app.ExaminationApp;
+import org.blinemedical.examination.domain.MeetingAssignment;
+import org.blinemedical.examination.domain.MeetingSchedule;
+import org.blinemedical.examination.domain.MeetingScheduleBuilder;
+import org.blinemedical.examination.domain.Person;
+import org.blinemedical.examination.domain.Room;
+import org.blinemedical.examination.domain.Scenario;
+import org.blinemedical.examination.domain.TimeGrain;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+import org.optaplanner.core.impl.score.director.InnerScoreDirectorFactory;
+
+/**
+ * Compares the incremental score calculator with the Constraint Streams and DRL engines on
+ * schedules built like the XLSX reader builds them, with one attendance per meeting and person.
+ */
+class MeetingSchedulingIncrementalScoreCalculatorTest {
+
+    private static final Map<ScoreDirectorType,
+        InnerScoreDirectorFactory<MeetingSchedule, HardMediumSoftScore>> scoreDirectorFactoryMap =
+        new EnumMap<>(ScoreDirectorType.class);
+
+    @BeforeAll
+    static void buildScoreDirectorFactories() {
+        for (ScoreDirectorType scoreDirectorType : ScoreDirectorType.values()) {
+            scoreDirectorFactoryMap.put(scoreDirectorType,
+                scoreDirectorType.buildScoreDirectorFactory());
+        }
+    }
+
+    @Test
+    void roomStabilityIsCountedOnceAfterReset() {
+        MeetingScheduleBuilder builder = new MeetingScheduleBuilder().withDays(1, 8);
+        Room firstRoom = builder.addRoom("Room 1");
+        Room secondRoom = builder.addRoom("Room 2");
+        Person learner = builder.addPerson("Learner", false);
+        Scenario scenario = builder.addScenario("Scenario");
+        MeetingAssignment left = builder.addMeeting(learner,
+            builder.addPerson("Patient 1", true), scenario, 2);
+        MeetingAssignment right = builder.addMeeting(learner,
+            builder.addPerson("Patient 2", true), scenario, 1);
+        left.setStartingTimeGrain(builder.getTimeGrain(0));
+        left.setRoom(firstRoom);
+        right.setStartingTimeGrain(builder.getTimeGrain(3));
+        right.setRoom(secondRoom);
+        MeetingSchedule schedule = builder.build();
+
+        InnerScoreDirector<MeetingSchedule, HardMediumSoftScore> scoreDirector =
+            scoreDirectorFactoryMap.get(ScoreDirectorType.INCREMENTAL)
+                .buildScoreDirector(false, false);
+        try {
+            scoreDirector.setWorkingSolution(schedule);
+            // One room stability match and the last grains 1 and 3
+            assertThat(scoreDirector.calculateScore()).isEqualTo(HardMediumSoftScore.of(0, 1, -5));
+            assertSameScoreAsOtherEngines(scoreDirector.calculateScore(), schedule);
+
+            change(scoreDirector, right, right.getStartingTimeGrain(), firstRoom);
+            assertThat(scoreDirector.calculateScore()).isEqualTo(HardMediumSoftScore.of(0, 1, -4));
+            assertSameScoreAsOtherEngines(scoreDirector.calculateScore(), schedule);
+        } finally {
+            scoreDirector.close();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 1L, 2L})
+    void randomMovesMatchOtherEngines(long seed) {
+        Random random = new Random(seed);
+        MeetingSchedule schedule = MeetingScheduleBuilder.createRandomSchedule(random, 5, 3, 2, 2);
+        List<MeetingAssignment> meetingAssignmentList = schedule.getMeetingAssignmentList();
+        List<Room> roomList = schedule.getRoomList();
+
+        InnerScoreDirector<MeetingSchedule, HardMediumSoftScore> scoreDirector =
+            scoreDirectorFactoryMap.get(ScoreDirectorType.INCREMENTAL)
+                .buildScoreDirector(false, false);
+        try {
+            scoreDirector.setWorkingSolution(schedule);
+            assertSameScoreAsOtherEngines(scoreDirector.calculateScore(), schedule);
+            for (int i = 0; i < 50; i++) {
+                MeetingAssignment meetingAssignment = meetingAssignmentList.get(
+                    random.nextInt(meetingAssignmentList.size()));
+                List<TimeGrain> startingTimeGrainRange = meetingAssignment
+                    .getStartingTimeGrainRange();
+                TimeGrain toTimeGrain = random.nextInt(10) == 0 ? null
+                    : startingTimeGrainRange.get(random.nextInt(startingTimeGrainRange.size()));
+                Room toRoom = random.nextInt(10) == 0 ? null
+                    : roomList.get(random.nextInt(roomList.size()));
+                change(scoreDirector, meetingAssignment, toTimeGrain, toRoom);
+                assertSameScoreAsOtherEngines(scoreDirector.calculateScore(), schedule);
+            }
+        } finally {
+            scoreDirector.close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ScoreDirectorType.class, names = {"DRL", "CONSTRAINT_STREAMS"})
+    void solveInFullAssert(ScoreDirectorType assertionScoreDirectorType) {
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource(
+            ExaminationApp.SOLVER_CONFIG);
+        solverConfig.setEnvironmentMode(EnvironmentMode.FULL_ASSERT);
+        solverConfig.setMoveThreadCount(SolverConfig.MOVE_THREAD_COUNT_NONE);
+        ScoreDirectorFactoryConfig scoreDirectorFactoryConfig = ScoreDirectorType.INCREMENTAL
+            .buildScoreDirectorFactoryConfig();
+        scoreDirectorFactoryConfig.setAssertionScoreDirectorFactory(
+            assertionScoreDirectorType.buildScoreDirectorFactoryConfig());
+        solverConfig.setScoreDirectorFactoryConfig(scoreDirectorFactoryConfig);
+        solverConfig.setTerminationConfig(new TerminationConfig()
+            .withSpentLimit(Duration.ofSeconds(5)));
+
+        MeetingSchedule problem = MeetingScheduleBuilder.createRandomSchedule(new Random(37L),
+            4, 3, 2, 2);
+        MeetingSchedule solution = SolverFactory.<MeetingSchedule>create(solverConfig)
+            .buildSolver().solve(problem);
+        assertThat(solution.getScore()).isNotNull();
+    }
+
+    // ************************************************************************
+    // Helper methods
+    // ************************************************************************
+
+    private static void change(
+        InnerScoreDirector<MeetingSchedule, HardMediumSoftScore> scoreDirector,
+        MeetingAssignment meetingAssignment, TimeGrain timeGrain, Room room) {
+        scoreDirector.beforeVariableChanged(meetingAssignment, "startingTimeGrain");
+        meetingAssignment.setStartingTimeGrain(timeGrain);
+        scoreDirector.afterVariableChanged(meetingAssignment, "startingTimeGrain");
+        scoreDirector.beforeVariableChanged(meetingAssignment, "room");
+        meetingAssignment.setRoom(room);
+        scoreDirector.afterVariableChanged(meetingAssignment, "room");
+        scoreDirector.triggerVariableListeners();
+    }
+
+    private static void assertSameScoreAsOtherEngines(HardMediumSoftScore score,
+        MeetingSchedule schedule) {
+        assertThat(score)
+            .isEqualTo(calculateScore(ScoreDirectorType.CONSTRAINT_STREAMS, schedule))
+            .isEqualTo(calculateScore(ScoreDirectorType.DRL, schedule));
+    }
+
+    private static HardMediumSoftScore calculateScore(ScoreDirectorType scoreDirectorType,
+        MeetingSchedule schedule) {
+        InnerScoreDirector<MeetingSchedule, HardMediumSoftScore> scoreDirector =
+            scoreDirectorFactoryMap.get(scoreDirectorType).buildScoreDirector(false, false);
+        try {
+            scoreDirector.setWorkingSolution(schedule);
+            return scoreDirector.calculateScore();
+        } finally {
+            scoreDirector.close();
+        }
+    }
+}